@@ -8,6 +8,7 @@ import androidx.appcompat.app.AppCompatActivity;
 import com.deivid22srk.microsoftrewards.databinding.ActivityAdvancedSettingsBinding;
 import com.deivid22srk.microsoftrewards.utils.AppConfig;
 import com.deivid22srk.microsoftrewards.utils.GeminiSearchGenerator;
+import com.deivid22srk.microsoftrewards.utils.NetworkTask;
 import com.deivid22srk.microsoftrewards.model.SearchItem;
 
 import java.util.List;
@@ -21,6 +22,9 @@ public class AdvancedSettingsActivity extends AppCompatActivity {
     private ActivityAdvancedSettingsBinding binding;
     private AppConfig config;
     
+    // Teste da API em andamento (cancelado ao fechar a tela)
+    private NetworkTask<List<SearchItem>> geminiTest;
+    
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -455,7 +459,7 @@ public class AdvancedSettingsActivity extends AppCompatActivity {
         binding.textGeminiStatus.setText("Status: Testando conexão...");
         binding.textGeminiStatus.setTextColor(getColor(android.R.color.holo_blue_bright));
         
-        GeminiSearchGenerator.testGeminiConnection(apiKey, new GeminiSearchGenerator.OnSearchGeneratedListener() {
+        geminiTest = GeminiSearchGenerator.testGeminiConnection(apiKey, new GeminiSearchGenerator.OnSearchGeneratedListener() {
             @Override
             public void onSuccess(List<SearchItem> searches) {
                 runOnUiThread(() -> {
@@ -505,4 +509,14 @@ public class AdvancedSettingsActivity extends AppCompatActivity {
         onBackPressed();
         return true;
     }
+    
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        // Sem tela para mostrar o resultado: liberar a thread e a conexão
+        if (geminiTest != null) {
+            geminiTest.cancel(true);
+            geminiTest = null;
+        }
+    }
 }
\ No newline at end of file
@@ -2,6 +2,7 @@ package com.deivid22srk.microsoftrewards;
 
 import android.Manifest;
 import android.app.AlertDialog;
+import android.content.Context;
 import android.content.Intent;
 import android.content.pm.PackageManager;
 import android.net.Uri;
@@ -23,9 +24,13 @@ import com.deivid22srk.microsoftrewards.databinding.ActivityMainBinding;
 import com.deivid22srk.microsoftrewards.model.SearchItem;
 import com.deivid22srk.microsoftrewards.service.FloatingButtonService;
 import com.deivid22srk.microsoftrewards.service.SearchAutomationService;
-import com.deivid22srk.microsoftrewards.utils.SmartSearchGenerator;
-import com.deivid22srk.microsoftrewards.utils.GeminiSearchGenerator;
 import com.deivid22srk.microsoftrewards.utils.AppConfig;
+import com.deivid22srk.microsoftrewards.utils.AppExecutors;
+import com.deivid22srk.microsoftrewards.utils.NetworkTask;
+import com.deivid22srk.microsoftrewards.utils.QueryEngine;
+import com.deivid22srk.microsoftrewards.utils.QueryEngines;
+import com.deivid22srk.microsoftrewards.utils.QuerySource;
+import com.deivid22srk.microsoftrewards.utils.QuerySources;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -38,6 +43,12 @@ public class MainActivity extends AppCompatActivity {
     private SearchAdapter searchAdapter;
     private List<SearchItem> searchItems;
     private AppConfig config;
+    // Fonte preparada por "Gerar" e ainda não entregue à automação
+    private QuerySource pendingSource;
+    // Fonte cujas pesquisas aparecem na lista (continua a mesma durante a automação)
+    private QuerySource displayedSource;
+    // Cada "Gerar" abre a fonte fora da main thread; só a abertura mais recente é usada
+    private int sourceRequest = 0;
     
     private boolean isAutomationRunning = false;
 
@@ -145,108 +156,86 @@ public class MainActivity extends AppCompatActivity {
         
         binding.searchCountInputLayout.setError(null);
         
-        // Mostrar loading
-        binding.generateButton.setEnabled(false);
-        binding.generateButton.setText("Gerando...");
-        
         // Limpar pesquisas anteriores
+        discardPendingSource();
         searchItems.clear();
         searchAdapter.notifyDataSetChanged();
         
-        // Verificar modo de geração
-        AppConfig.SearchGenerationMode mode = config.getSearchGenerationMode();
-        boolean isOnlineMode = mode == AppConfig.SearchGenerationMode.ONLINE_GEMINI && config.hasValidGeminiApiKey();
-        
-        if (isOnlineMode) {
-            // Geração online com Gemini AI
-            generateSearchesWithGemini(count);
-        } else {
-            // Geração offline padrão
-            generateSearchesOffline(count);
-        }
-    }
-    
-    private void generateSearchesWithGemini(int count) {
-        GeminiSearchGenerator.generateSearchesWithGemini(count, this, config.getGeminiApiKey(), 
-            new GeminiSearchGenerator.OnSearchGeneratedListener() {
+        // Motor conforme o modo de geração (reserva do Gemini, Gemini em fluxo se ela estiver vazia, e a
+        // geração local como reserva; ou só local); as pesquisas chegam sob demanda.
+        // Abrir o motor lê a reserva em disco (que pode ser reescrita), o filtro de recentes e o estado
+        // dos geradores, e consulta o JobScheduler: nada disso roda na main thread
+        int request = ++sourceRequest;
+        Context appContext = getApplicationContext();
+        AppExecutors.submit(() -> QueryEngines.forConfig(appContext, true), 0,
+            new NetworkTask.Callback<QueryEngine>() {
                 @Override
-                public void onSuccess(List<SearchItem> searches) {
-                    runOnUiThread(() -> {
-                        onSearchesGenerated(searches, "🤖 Gemini 2.5 Flash");
-                    });
+                public void onSuccess(QueryEngine engine) {
+                    onEngineReady(request, engine, count);
                 }
-                
+
                 @Override
-                public void onError(String errorMessage) {
-                    runOnUiThread(() -> {
-                        android.util.Log.w("MainActivity", "Falha no Gemini, usando offline: " + errorMessage);
-                        Toast.makeText(MainActivity.this, "⚠️ Falha no Gemini, usando geração local", Toast.LENGTH_SHORT).show();
-                        generateSearchesOffline(count);
-                    });
+                public void onError(Exception error) {
+                    if (request == sourceRequest && !isDestroyed()) {
+                        Toast.makeText(MainActivity.this, "❌ Erro na geração: " + error.getMessage(), Toast.LENGTH_LONG).show();
+                    }
                 }
             });
     }
     
-    private void generateSearchesOffline(int count) {
-        // Executar em thread separada para não bloquear UI
-        new Thread(() -> {
-            try {
-                List<SearchItem> generatedSearches;
-                
-                AppConfig.AIMode aiMode = config.getAIMode();
-                switch (aiMode) {
-                    case CHATGPT:
-                        generatedSearches = SmartSearchGenerator.generateOfflineIntelligentSearches(count, this);
-                        break;
-                    case ADVANCED:
-                    case CUSTOM:
-                        generatedSearches = SmartSearchGenerator.generateOfflineIntelligentSearches(count, this);
-                        break;
-                    default:
-                        generatedSearches = SmartSearchGenerator.generateSmartSearches(count);
-                        break;
-                }
-                
-                runOnUiThread(() -> {
-                    onSearchesGenerated(generatedSearches, "💻 Local");
-                });
-                
-            } catch (Exception e) {
-                runOnUiThread(() -> {
-                    binding.generateButton.setEnabled(true);
-                    binding.generateButton.setText("Gerar Pesquisas");
-                    Toast.makeText(MainActivity.this, "❌ Erro na geração: " + e.getMessage(), Toast.LENGTH_LONG).show();
-                });
-            }
-        }).start();
-    }
-    
-    private void onSearchesGenerated(List<SearchItem> generatedSearches, String generationMode) {
-        searchItems.clear();
-        searchItems.addAll(generatedSearches);
+    /**
+     * Motor aberto em segundo plano; ignorado se outro "Gerar" veio depois ou a tela fechou.
+     * A lista é ligada à fonte antes de ela começar a gerar, para não perder o primeiro lote.
+     */
+    private void onEngineReady(int request, QueryEngine engine, int count) {
+        if (request != sourceRequest || isDestroyed() || isAutomationRunning) {
+            return;
+        }
+        QuerySource source = new QuerySource(engine.getName(), count, config.getQueryLookAhead(), engine.open(count));
+        source.setOnItemsProducedListener(items -> runOnUiThread(() -> onSearchesProduced(source, items)));
+        source.prefetch();
+        pendingSource = source;
+        displayedSource = source;
         
-        searchAdapter.notifyDataSetChanged();
         binding.searchesCard.setVisibility(View.VISIBLE);
         binding.startButton.setEnabled(true);
         
-        // Restaurar botão
-        binding.generateButton.setEnabled(true);
-        binding.generateButton.setText("Gerar Pesquisas");
-        
         // Mostrar preview das configurações
         String configPreview = String.format(
-            "✅ %d pesquisas geradas\n🔧 Modo: %s\n⏰ Intervalo: %ds\n📱 Browser: %s", 
-            generatedSearches.size(), 
-            generationMode,
+            "✅ %d pesquisas prontas para iniciar\n🔧 Modo: %s\n⏰ Intervalo: %ds\n📱 Browser: %s", 
+            source.getTotalCount(), 
+            source.getName(),
             config.getSearchInterval(),
             config.getBrowserApp().getDisplayName()
         );
         
         Toast.makeText(this, configPreview, Toast.LENGTH_LONG).show();
     }
+    
+    /**
+     * Pesquisas que o gerador acabou de preparar (antes e durante a automação)
+     */
+    private void onSearchesProduced(QuerySource source, List<SearchItem> items) {
+        if (source != displayedSource) {
+            return;
+        }
+        int start = searchItems.size();
+        searchItems.addAll(items);
+        searchAdapter.notifyItemRangeInserted(start, items.size());
+    }
+    
+    private void discardPendingSource() {
+        // Uma abertura ainda em andamento é descartada quando terminar
+        sourceRequest++;
+        if (pendingSource != null) {
+            pendingSource.setOnItemsProducedListener(null);
+            pendingSource.close();
+            pendingSource = null;
+        }
+    }
 
     private void startAutomation() {
-        if (searchItems.isEmpty()) {
+        if (pendingSource == null) {
             Toast.makeText(this, "Gere pesquisas primeiro", Toast.LENGTH_SHORT).show();
             return;
         }
@@ -272,17 +261,24 @@ public class MainActivity extends AppCompatActivity {
     }
 
     private void startAutomationServices() {
+        // A fonte passa a pertencer ao serviço de automação
+        QuerySource source = pendingSource;
+        if (source == null) {
+            return;
+        }
+        pendingSource = null;
+        
         isAutomationRunning = true;
         updateUI();
         
         // Iniciar serviço de botão flutuante
         Intent floatingIntent = new Intent(this, FloatingButtonService.class);
-        floatingIntent.putExtra("searchItems", new ArrayList<>(searchItems));
+        floatingIntent.putExtra(FloatingButtonService.EXTRA_TOTAL_COUNT, source.getTotalCount());
         startService(floatingIntent);
         
         // Iniciar serviço de automação avançado
         Intent automationIntent = new Intent(this, SearchAutomationService.class);
-        automationIntent.putExtra("searchItems", new ArrayList<>(searchItems));
+        automationIntent.putExtra(QuerySources.EXTRA_SOURCE_ID, QuerySources.register(source));
         startService(automationIntent);
         
         String startMessage = String.format(
@@ -315,7 +311,7 @@ public class MainActivity extends AppCompatActivity {
             binding.searchCountEditText.setEnabled(false);
         } else {
             binding.progressCard.setVisibility(View.GONE);
-            binding.startButton.setEnabled(!searchItems.isEmpty());
+            binding.startButton.setEnabled(pendingSource != null);
             binding.stopButton.setEnabled(false);
             binding.generateButton.setEnabled(true);
             binding.searchCountEditText.setEnabled(true);
@@ -388,5 +384,6 @@ public class MainActivity extends AppCompatActivity {
         if (isAutomationRunning) {
             stopAutomation();
         }
+        discardPendingSource();
     }
 }
\ No newline at end of file
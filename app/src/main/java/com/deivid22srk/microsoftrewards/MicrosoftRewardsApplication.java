@@ -0,0 +1,19 @@
+package com.deivid22srk.microsoftrewards;
+
+import android.app.Application;
+
+import com.deivid22srk.microsoftrewards.service.QueryPoolRefillService;
+import com.deivid22srk.microsoftrewards.utils.AndroidPlatform;
+
+/**
+ * 🚀 Inicialização do processo: conecta o módulo core às APIs do Android
+ */
+public class MicrosoftRewardsApplication extends Application {
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        AndroidPlatform.install(this);
+        QueryPoolRefillService.schedule(this);
+    }
+}
@@ -23,10 +23,11 @@ import androidx.core.content.ContextCompat;
 import com.deivid22srk.microsoftrewards.service.SchedulerBroadcastReceiver;
 import com.deivid22srk.microsoftrewards.utils.AppConfig;
 import com.deivid22srk.microsoftrewards.utils.RootManager;
+import com.deivid22srk.microsoftrewards.utils.SchedulePlanner;
 import com.google.android.material.textfield.TextInputEditText;
 
-import java.util.Calendar;
 import java.util.Locale;
+import java.util.TimeZone;
 
 public class SchedulerActivity extends AppCompatActivity {
     
@@ -363,29 +364,21 @@ public class SchedulerActivity extends AppCompatActivity {
             PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE
         );
         
-        // Calcular próximo horário
-        Calendar calendar = Calendar.getInstance();
-        calendar.set(Calendar.HOUR_OF_DAY, selectedHour);
-        calendar.set(Calendar.MINUTE, selectedMinute);
-        calendar.set(Calendar.SECOND, 0);
-        calendar.set(Calendar.MILLISECOND, 0);
-        
-        // Se o horário já passou hoje, agendar para amanhã
-        if (calendar.getTimeInMillis() <= System.currentTimeMillis()) {
-            calendar.add(Calendar.DAY_OF_YEAR, 1);
-        }
+        // Calcular próximo horário (se já passou hoje, amanhã)
+        long triggerAt = SchedulePlanner.nextDailyRun(System.currentTimeMillis(),
+            selectedHour, selectedMinute, TimeZone.getDefault());
         
         // Agendar alarme exato e repetitivo
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
             alarmManager.setExactAndAllowWhileIdle(
                 AlarmManager.RTC_WAKEUP,
-                calendar.getTimeInMillis(),
+                triggerAt,
                 pendingIntent
             );
         } else {
             alarmManager.setExact(
                 AlarmManager.RTC_WAKEUP,
-                calendar.getTimeInMillis(),
+                triggerAt,
                 pendingIntent
             );
         }
@@ -393,7 +386,7 @@ public class SchedulerActivity extends AppCompatActivity {
         // Também agendar repetição diária
         alarmManager.setRepeating(
             AlarmManager.RTC_WAKEUP,
-            calendar.getTimeInMillis(),
+            triggerAt,
             AlarmManager.INTERVAL_DAY,
             pendingIntent
         );
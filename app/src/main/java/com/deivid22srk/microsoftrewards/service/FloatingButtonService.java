@@ -14,6 +14,7 @@ import android.os.Build;
 import android.os.Handler;
 import android.os.IBinder;
 import android.os.Looper;
+import android.os.SystemClock;
 import android.view.ContextThemeWrapper;
 import android.view.Gravity;
 import android.view.LayoutInflater;
@@ -30,12 +31,9 @@ import androidx.localbroadcastmanager.content.LocalBroadcastManager;
 
 import com.deivid22srk.microsoftrewards.MainActivity;
 import com.deivid22srk.microsoftrewards.R;
-import com.deivid22srk.microsoftrewards.model.SearchItem;
+import com.deivid22srk.microsoftrewards.utils.NotificationPublisher;
 import com.google.android.material.progressindicator.CircularProgressIndicator;
 
-import java.util.ArrayList;
-import java.util.List;
-
 public class FloatingButtonService extends Service {
     
     private static final String CHANNEL_ID = "FloatingButtonChannel";
@@ -49,6 +47,7 @@ public class FloatingButtonService extends Service {
     public static final String EXTRA_CURRENT_SEARCH = "current_search";
     public static final String EXTRA_STATUS = "status";
     public static final String EXTRA_IS_PAUSED = "is_paused";
+    public static final String EXTRA_COUNTDOWN_DEADLINE = "countdown_deadline";
     
     private WindowManager windowManager;
     private View floatingView;
@@ -68,7 +67,25 @@ public class FloatingButtonService extends Service {
     private boolean isRunning = false;
     private boolean isPaused = false;
     
-    private List<SearchItem> searchItems;
+    // Prazo do countdown (SystemClock.elapsedRealtime); o tempo restante é calculado aqui
+    private long countdownDeadline = 0;
+    private final Handler uiHandler = new Handler(Looper.getMainLooper());
+    private final Runnable countdownTicker = new Runnable() {
+        @Override
+        public void run() {
+            long remaining = countdownDeadline - SystemClock.elapsedRealtime();
+            if (remaining <= 0) {
+                statusText.setText("⏰ Aguardando");
+                return;
+            }
+            
+            statusText.setText("⏰ " + ((remaining + 999) / 1000) + "s");
+            
+            // Próximo tick alinhado à virada do segundo
+            long untilNextSecond = remaining % 1000;
+            uiHandler.postDelayed(this, untilNextSecond == 0 ? 1000 : untilNextSecond);
+        }
+    };
     
     private BroadcastReceiver progressReceiver = new BroadcastReceiver() {
         @Override
@@ -77,6 +94,7 @@ public class FloatingButtonService extends Service {
                 currentIndex = intent.getIntExtra(EXTRA_CURRENT_INDEX, 0);
                 totalCount = intent.getIntExtra(EXTRA_TOTAL_COUNT, 0);
                 currentSearch = intent.getStringExtra(EXTRA_CURRENT_SEARCH);
+                countdownDeadline = intent.getLongExtra(EXTRA_COUNTDOWN_DEADLINE, 0);
                 String status = intent.getStringExtra(EXTRA_STATUS);
                 
                 updateFloatingButton(status);
@@ -98,14 +116,11 @@ public class FloatingButtonService extends Service {
 
     @Override
     public int onStartCommand(Intent intent, int flags, int startId) {
-        if (intent != null && intent.hasExtra("searchItems")) {
-            ArrayList<SearchItem> items = (ArrayList<SearchItem>) intent.getSerializableExtra("searchItems");
-            if (items != null) {
-                searchItems = items;
-                totalCount = searchItems.size();
-                isRunning = true;
-                updateFloatingButton("STARTED");
-            }
+        // As pesquisas chegam sob demanda ao serviço de automação; aqui basta o total
+        if (intent != null && intent.hasExtra(EXTRA_TOTAL_COUNT)) {
+            totalCount = intent.getIntExtra(EXTRA_TOTAL_COUNT, 0);
+            isRunning = true;
+            updateFloatingButton("STARTED");
         }
         
         startForeground(NOTIFICATION_ID, createNotification());
@@ -138,13 +153,15 @@ public class FloatingButtonService extends Service {
             PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE
         );
 
-        return new NotificationCompat.Builder(this, CHANNEL_ID)
+        NotificationCompat.Builder builder = new NotificationCompat.Builder(this, CHANNEL_ID)
             .setContentTitle(getString(R.string.floating_button_notification_title))
-            .setContentText(getString(R.string.floating_button_notification_text))
             .setSmallIcon(R.drawable.ic_launcher_foreground)
             .setContentIntent(pendingIntent)
-            .setOngoing(true)
-            .build();
+            .setOnlyAlertOnce(true)
+            .setOngoing(true);
+        
+        return NotificationPublisher.getInstance(this).register(
+            CHANNEL_ID, NOTIFICATION_ID, builder, getString(R.string.floating_button_notification_text));
     }
 
     private void initializeFloatingButton() {
@@ -404,6 +421,12 @@ public class FloatingButtonService extends Service {
             this.statusText.setText(statusText);
             this.statusText.setVisibility(isRunning || isPaused ? View.VISIBLE : View.GONE);
             
+            // Countdown local: um único broadcast por espera, o overlay conta sozinho
+            uiHandler.removeCallbacks(countdownTicker);
+            if ("COUNTDOWN".equals(status) && countdownDeadline > 0) {
+                countdownTicker.run();
+            }
+            
             // Atualizar botão de pause/play se necessário
             if (isRunning) {
                 updatePausePlayButton();
@@ -429,6 +452,9 @@ public class FloatingButtonService extends Service {
     public void onDestroy() {
         super.onDestroy();
         
+        uiHandler.removeCallbacks(countdownTicker);
+        NotificationPublisher.getInstance(this).unregister(CHANNEL_ID);
+        
         if (floatingView != null && windowManager != null) {
             windowManager.removeView(floatingView);
         }
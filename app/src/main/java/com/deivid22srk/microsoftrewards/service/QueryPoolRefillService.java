@@ -0,0 +1,173 @@
+package com.deivid22srk.microsoftrewards.service;
+
+import android.app.job.JobInfo;
+import android.app.job.JobParameters;
+import android.app.job.JobScheduler;
+import android.app.job.JobService;
+import android.content.ComponentName;
+import android.content.Context;
+import android.util.Log;
+
+import com.deivid22srk.microsoftrewards.model.SearchItem;
+import com.deivid22srk.microsoftrewards.utils.AndroidPlatform;
+import com.deivid22srk.microsoftrewards.utils.AppConfig;
+import com.deivid22srk.microsoftrewards.utils.AppExecutors;
+import com.deivid22srk.microsoftrewards.utils.ConfigSnapshot;
+import com.deivid22srk.microsoftrewards.utils.GeminiMetrics;
+import com.deivid22srk.microsoftrewards.utils.GeminiSearchGenerator;
+import com.deivid22srk.microsoftrewards.utils.NetworkTask;
+import com.deivid22srk.microsoftrewards.utils.QueryPool;
+import com.deivid22srk.microsoftrewards.utils.RecentQueryFilter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 🏦 Recarga da reserva de pesquisas do Gemini (QueryPool) em segundo plano
+ * Só roda carregando e em rede sem cobrança (JobScheduler), e só com o modo
+ * Gemini ativo e uma chave configurada. Assim, a automação e o agendador
+ * apenas retiram pesquisas prontas do disco, sem esperar pela rede.
+ */
+public class QueryPoolRefillService extends JobService {
+
+    private static final String TAG = "QueryPoolRefill";
+
+    private static final int JOB_PERIODIC = 4201;
+    private static final int JOB_LOW_WATERMARK = 4202;
+
+    // Verificação periódica; a recarga por nível baixo é pedida pelos consumidores
+    private static final long PERIODIC_INTERVAL_MS = TimeUnit.HOURS.toMillis(6);
+
+    // Bem abaixo do limite de execução de um job (o sistema o para depois de ~10 min)
+    private static final long REFILL_DEADLINE_MS = TimeUnit.MINUTES.toMillis(5);
+
+    private NetworkTask<Void> worker;
+
+    /**
+     * Agenda a verificação periódica (mantida após reiniciar o aparelho)
+     */
+    public static void schedule(Context context) {
+        JobScheduler scheduler = (JobScheduler) context.getSystemService(Context.JOB_SCHEDULER_SERVICE);
+        if (scheduler == null) {
+            return;
+        }
+        for (JobInfo pending : scheduler.getAllPendingJobs()) {
+            if (pending.getId() == JOB_PERIODIC) {
+                return;
+            }
+        }
+        scheduler.schedule(baseJob(context, JOB_PERIODIC)
+            .setPeriodic(PERIODIC_INTERVAL_MS)
+            .build());
+        Log.d(TAG, "⏰ Recarga periódica da reserva agendada");
+    }
+
+    /**
+     * A reserva ficou abaixo do nível mínimo: recarregar assim que as condições permitirem
+     */
+    public static void requestRefill(Context context) {
+        JobScheduler scheduler = (JobScheduler) context.getSystemService(Context.JOB_SCHEDULER_SERVICE);
+        if (scheduler == null) {
+            return;
+        }
+        for (JobInfo pending : scheduler.getAllPendingJobs()) {
+            if (pending.getId() == JOB_LOW_WATERMARK) {
+                return;
+            }
+        }
+        scheduler.schedule(baseJob(context, JOB_LOW_WATERMARK).build());
+        Log.d(TAG, "📉 Reserva abaixo do mínimo, recarga pedida");
+    }
+
+    private static JobInfo.Builder baseJob(Context context, int jobId) {
+        return new JobInfo.Builder(jobId, new ComponentName(context, QueryPoolRefillService.class))
+            .setRequiresCharging(true)
+            .setRequiredNetworkType(JobInfo.NETWORK_TYPE_UNMETERED)
+            .setPersisted(true);
+    }
+
+    @Override
+    public boolean onStartJob(JobParameters params) {
+        ConfigSnapshot config = AppConfig.getInstance(this).getSnapshot();
+        if (config.getSearchGenerationMode() != AppConfig.SearchGenerationMode.ONLINE_GEMINI
+                || !GeminiSearchGenerator.isValidGeminiApiKey(config.getGeminiApiKey())) {
+            Log.d(TAG, "⏭️ Gemini desativado ou sem chave, nada a recarregar");
+            return false;
+        }
+
+        // Quem encerra o job: a recarga, se chegar a rodar, ou o callback de erro, se não rodar
+        AtomicBoolean claimed = new AtomicBoolean(false);
+        worker = AppExecutors.submit(() -> {
+            if (!claimed.compareAndSet(false, true)) {
+                return null;
+            }
+            boolean retry = false;
+            try {
+                refill(config.getGeminiApiKey());
+            } catch (InterruptedException e) {
+                Log.w(TAG, "⏹️ Recarga interrompida");
+                retry = true;
+            } catch (Exception e) {
+                Log.w(TAG, "⚠️ Falha na recarga: " + e.getMessage());
+                retry = true;
+            }
+            jobFinished(params, retry);
+            return null;
+        }, REFILL_DEADLINE_MS, new NetworkTask.Callback<Void>() {
+            @Override
+            public void onSuccess(Void result) {
+            }
+
+            @Override
+            public void onError(Exception error) {
+                // A recarga nem começou (pool de rede cheio, ou prazo vencido ainda na fila):
+                // liberar o job (e o wakelock) e tentar de novo depois
+                if (claimed.compareAndSet(false, true)) {
+                    Log.w(TAG, "⚠️ Recarga não começou: " + error.getMessage());
+                    jobFinished(params, true);
+                }
+            }
+        });
+        return true;
+    }
+
+    private void refill(String apiKey) throws Exception {
+        // A reserva é lida do disco (e o cursor gravado) na primeira vez: só aqui, fora da main thread
+        QueryPool pool = AndroidPlatform.queryPool(this);
+        int deficit = pool.deficit();
+        if (deficit == 0) {
+            Log.d(TAG, "✅ Reserva cheia (" + pool.size() + ")");
+            return;
+        }
+
+        Log.d(TAG, "🤖 Recarregando reserva: " + deficit + " pesquisas");
+        List<SearchItem> generated = GeminiSearchGenerator.generateConcurrently(this, apiKey, deficit);
+
+        // Pesquisas usadas nos últimos dias não entram na reserva
+        RecentQueryFilter recentQueries = AndroidPlatform.recentQueries(this);
+        List<String> fresh = new ArrayList<>(generated.size());
+        for (SearchItem item : generated) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new InterruptedException();
+            }
+            if (!recentQueries.mightContain(item.getSearchText())) {
+                fresh.add(item.getSearchText());
+            }
+        }
+        int added = pool.addAll(fresh);
+        Log.d(TAG, "🏦 Reserva recarregada: +" + added + " (" + pool.size() + " disponíveis)");
+        GeminiMetrics.getInstance().report();
+    }
+
+    @Override
+    public boolean onStopJob(JobParameters params) {
+        // Condições perdidas (desconectou do carregador ou da rede): tentar de novo depois
+        if (worker != null) {
+            // Interrompe a geração e cancela as chamadas HTTP dos lotes
+            worker.cancel(true);
+        }
+        return true;
+    }
+}
@@ -17,13 +17,23 @@ import androidx.core.app.NotificationCompat;
 
 import com.deivid22srk.microsoftrewards.R;
 import com.deivid22srk.microsoftrewards.model.SearchItem;
+import com.deivid22srk.microsoftrewards.utils.AndroidPlatform;
 import com.deivid22srk.microsoftrewards.utils.AppConfig;
+import com.deivid22srk.microsoftrewards.utils.BrowserRegistry;
+import com.deivid22srk.microsoftrewards.utils.ConfigSnapshot;
+import com.deivid22srk.microsoftrewards.utils.NotificationPublisher;
+import com.deivid22srk.microsoftrewards.utils.QuerySource;
+import com.deivid22srk.microsoftrewards.utils.QuerySources;
+import com.deivid22srk.microsoftrewards.utils.RecentQueryFilter;
 import com.deivid22srk.microsoftrewards.utils.RootManager;
-import com.deivid22srk.microsoftrewards.utils.SmartSearchGenerator;
+import com.deivid22srk.microsoftrewards.utils.ScheduledRunStats;
+import com.deivid22srk.microsoftrewards.utils.SchedulePlanner;
+import com.deivid22srk.microsoftrewards.utils.WakeLockBudget;
 
-import java.util.ArrayList;
-import java.util.Calendar;
+import java.util.Date;
 import java.util.List;
+import java.util.TimeZone;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class ScheduledSearchService extends Service {
     
@@ -31,42 +41,41 @@ public class ScheduledSearchService extends Service {
     private static final String CHANNEL_ID = "scheduled_search_channel";
     private static final int NOTIFICATION_ID = 3000;
     
-    private PowerManager.WakeLock wakeLock;
+    private WakeLockBudget wakeLock;
+    private long runStartedAt;
+    private long plannedMs;
+    private final AtomicInteger remainingSearches = new AtomicInteger();
+    private final AtomicInteger completedSearches = new AtomicInteger();
+    private final AtomicInteger failedSearches = new AtomicInteger();
     private AppConfig config;
     private RootManager rootManager;
+    private RootManager.Session rootSession;
+    private NotificationPublisher notificationPublisher;
     private boolean isTest = false;
-    private boolean useRoot = false;
+    private volatile boolean useRoot = false;
     
     @Override
     public void onCreate() {
         super.onCreate();
         config = AppConfig.getInstance(this);
         rootManager = RootManager.getInstance();
+        rootSession = rootManager.openSession(TAG);
+        notificationPublisher = NotificationPublisher.getInstance(this);
         
-        // Verificar ROOT de forma síncrona (necessário no service)
-        rootManager.checkRootNow();
-        
-        // Verificar se tem ROOT
-        useRoot = rootManager.isRootGranted();
-        Log.d(TAG, useRoot ? "✅ ROOT disponível" : "⚠️ ROOT não disponível");
-        
-        // Se tiver ROOT, usar comandos ROOT para garantir execução
-        if (useRoot) {
-            Log.d(TAG, "🔐 Usando ROOT para garantir execução");
-            rootManager.disableDozeMode();
-            rootManager.wakeDevice();
-            rootManager.disableBatteryOptimization(getPackageName());
-        }
-        
-        // Adquirir WakeLock para funcionar com tela desligada
+        // Adquirir WakeLock para funcionar com tela desligada, pelo tempo previsto no plano
         PowerManager powerManager = (PowerManager) getSystemService(POWER_SERVICE);
-        wakeLock = powerManager.newWakeLock(
+        wakeLock = new WakeLockBudget(powerManager.newWakeLock(
             PowerManager.PARTIAL_WAKE_LOCK,
             "MicrosoftRewards::ScheduledSearchWakeLock"
-        );
-        wakeLock.acquire(30 * 60 * 1000L); // 30 minutos máximo
+        ));
+        
+        int totalSearches = config.getBingSearchCount() + config.getChromeSearchCount();
+        remainingSearches.set(totalSearches);
+        runStartedAt = System.currentTimeMillis();
+        plannedMs = totalSearches * getPerSearchBudgetMs();
+        wakeLock.acquire(plannedMs + SchedulePlanner.wakeLockMarginMs(plannedMs));
         
-        Log.d(TAG, "🔋 WakeLock adquirido");
+        Log.d(TAG, "🔋 Plano: " + totalSearches + " pesquisas, ~" + plannedMs / 1000 + "s");
         
         createNotificationChannel();
     }
@@ -78,7 +87,8 @@ public class ScheduledSearchService extends Service {
         }
         
         // Iniciar como Foreground Service
-        Notification notification = createNotification("Iniciando pesquisas agendadas...");
+        Notification notification = notificationPublisher.register(
+            CHANNEL_ID, NOTIFICATION_ID, createNotificationBuilder(), "Iniciando pesquisas agendadas...");
         startForeground(NOTIFICATION_ID, notification);
         
         Log.d(TAG, "🚀 Serviço iniciado (Teste: " + isTest + ")");
@@ -89,8 +99,32 @@ public class ScheduledSearchService extends Service {
         return START_NOT_STICKY;
     }
     
+    /**
+     * Prepara o ROOT fora da main thread (a verificação e os comandos podem levar segundos)
+     */
+    private void prepareRoot() {
+        // Verificar ROOT de forma síncrona (necessário no service)
+        rootManager.checkRootNow();
+        
+        // Verificar se tem ROOT
+        useRoot = rootManager.isRootGranted();
+        Log.d(TAG, useRoot ? "✅ ROOT disponível" : "⚠️ ROOT não disponível");
+        
+        // Se tiver ROOT, usar comandos ROOT para garantir execução
+        if (useRoot) {
+            Log.d(TAG, "🔐 Usando ROOT para garantir execução");
+            rootSession.disableDozeMode();
+            rootSession.wakeDevice();
+            rootSession.disableBatteryOptimization(getPackageName(), success ->
+                Log.d(TAG, success ? "🔋 Otimização de bateria desativada" : "⚠️ Falha ao desativar otimização de bateria"));
+        }
+    }
+    
     private void executeScheduledSearches() {
+        boolean success = false;
         try {
+            prepareRoot();
+            
             int bingCount = config.getBingSearchCount();
             int chromeCount = config.getChromeSearchCount();
             
@@ -102,12 +136,7 @@ public class ScheduledSearchService extends Service {
                 executeBingSearches(bingCount);
             }
             
-            // Aguardar entre browsers
-            if (bingCount > 0 && chromeCount > 0) {
-                Thread.sleep(5000); // 5 segundos entre browsers
-            }
-            
-            // Fase 2: Pesquisas no Chrome
+            // Fase 2: Pesquisas no Chrome (começa assim que a do Bing sinaliza conclusão)
             if (chromeCount > 0) {
                 updateNotification("Executando " + chromeCount + " pesquisas no Chrome...");
                 executeChromeSearches(chromeCount);
@@ -117,14 +146,17 @@ public class ScheduledSearchService extends Service {
             updateNotification("✅ Pesquisas concluídas! Bing: " + bingCount + " | Chrome: " + chromeCount);
             Log.d(TAG, "✅ Todas as pesquisas foram concluídas");
             
-            // Aguardar 5 segundos antes de finalizar
-            Thread.sleep(5000);
-            
             // Re-agendar próximo alarme se não for teste
             if (!isTest && Build.VERSION.SDK_INT >= Build.VERSION_CODES.S) {
                 rescheduleNextAlarm();
             }
             
+            success = true;
+            
+            // O trabalho acabou: liberar o WakeLock antes de exibir o resumo
+            wakeLock.release();
+            Thread.sleep(5000);
+            
         } catch (Exception e) {
             Log.e(TAG, "❌ Erro ao executar pesquisas: " + e.getMessage(), e);
             updateNotification("❌ Erro ao executar pesquisas");
@@ -132,20 +164,49 @@ public class ScheduledSearchService extends Service {
             stopForeground(true);
             stopSelf();
             
-            // Liberar WakeLock
-            if (wakeLock != null && wakeLock.isHeld()) {
-                wakeLock.release();
-                Log.d(TAG, "🔋 WakeLock liberado");
-            }
+            wakeLock.release();
+            recordRunStats(success);
+            
+            RecentQueryFilter recentQueries = AndroidPlatform.recentQueries(this);
+            recentQueries.flush();
+            Log.d(TAG, recentQueries.describe());
+        }
+    }
+    
+    /**
+     * Chamado a cada pesquisa concluída: re-arma o WakeLock para cobrir o restante do plano
+     */
+    private void onSearchFinished(SearchItem item) {
+        if (item.getStatus() == SearchItem.SearchStatus.COMPLETED) {
+            completedSearches.incrementAndGet();
+        } else {
+            failedSearches.incrementAndGet();
         }
+        
+        long remainingMs = Math.max(0, remainingSearches.decrementAndGet()) * getPerSearchBudgetMs();
+        wakeLock.ensureCovered(remainingMs + SchedulePlanner.wakeLockMarginMs(remainingMs));
+    }
+    
+    private void recordRunStats(boolean success) {
+        ScheduledRunStats.record(this, new ScheduledRunStats(
+            runStartedAt,
+            plannedMs,
+            wakeLock.getHeldMs(),
+            wakeLock.getAcquisitions(),
+            wakeLock.getExtensions(),
+            wakeLock.wasReleasedEarly(),
+            completedSearches.get(),
+            failedSearches.get(),
+            success
+        ));
     }
     
     private void executeBingSearches(int count) {
         try {
             Log.d(TAG, "🔍 Gerando " + count + " pesquisas para Bing");
             
-            // Gerar pesquisas
-            List<SearchItem> searches = SmartSearchGenerator.generateOfflineIntelligentSearches(count, this);
+            // Pesquisas da reserva do Gemini (se ativo) ou geradas sob demanda, sem esperar pela rede
+            QuerySource searches = QuerySources.forConfig(this, count, config.getQueryLookAhead());
             
             // Configurar para usar Bing
             AppConfig.SearchEngine originalEngine = config.getSearchEngine();
@@ -158,21 +219,8 @@ public class ScheduledSearchService extends Service {
             if (useRoot && rootManager != null && rootManager.isRootGranted()) {
                 executeSearchesWithRoot(searches, "Bing", AppConfig.BrowserApp.BING);
             } else {
-                // Iniciar automação normal
-                Intent automationIntent = new Intent(this, SearchAutomationService.class);
-                automationIntent.putExtra("searchItems", new ArrayList<>(searches));
-                automationIntent.putExtra("scheduledMode", true);
-                automationIntent.putExtra("browserName", "Bing");
-                
-                if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
-                    startForegroundService(automationIntent);
-                } else {
-                    startService(automationIntent);
-                }
-                
-                // Aguardar conclusão (estimativa: intervalo * quantidade)
-                int waitTime = (config.getActualSearchInterval() + 3) * count * 1000; // +3s de margem
-                Thread.sleep(waitTime);
+                // Iniciar automação normal e aguardar o sinal de conclusão
+                runAutomationAndWait(searches, "Bing");
             }
             
             // Restaurar configurações originais
@@ -190,8 +238,8 @@ public class ScheduledSearchService extends Service {
         try {
             Log.d(TAG, "🔍 Gerando " + count + " pesquisas para Chrome");
             
-            // Gerar pesquisas
-            List<SearchItem> searches = SmartSearchGenerator.generateOfflineIntelligentSearches(count, this);
+            // Pesquisas da reserva do Gemini (se ativo) ou geradas sob demanda, sem esperar pela rede
+            QuerySource searches = QuerySources.forConfig(this, count, config.getQueryLookAhead());
             
             // Configurar para usar Chrome COM MOTOR BING
             AppConfig.SearchEngine originalEngine = config.getSearchEngine();
@@ -204,21 +252,8 @@ public class ScheduledSearchService extends Service {
             if (useRoot && rootManager != null && rootManager.isRootGranted()) {
                 executeSearchesWithRoot(searches, "Chrome", AppConfig.BrowserApp.CHROME);
             } else {
-                // Iniciar automação normal
-                Intent automationIntent = new Intent(this, SearchAutomationService.class);
-                automationIntent.putExtra("searchItems", new ArrayList<>(searches));
-                automationIntent.putExtra("scheduledMode", true);
-                automationIntent.putExtra("browserName", "Chrome");
-                
-                if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
-                    startForegroundService(automationIntent);
-                } else {
-                    startService(automationIntent);
-                }
-                
-                // Aguardar conclusão
-                int waitTime = (config.getActualSearchInterval() + 3) * count * 1000;
-                Thread.sleep(waitTime);
+                // Iniciar automação normal e aguardar o sinal de conclusão
+                runAutomationAndWait(searches, "Chrome");
             }
             
             // Restaurar configurações originais
@@ -232,45 +267,103 @@ public class ScheduledSearchService extends Service {
         }
     }
     
+    /**
+     * Inicia o SearchAutomationService e bloqueia até a execução terminar de fato.
+     * O prazo calculado pelo plano é apenas uma proteção contra execuções travadas.
+     */
+    private void runAutomationAndWait(QuerySource searches, String browserName) throws InterruptedException {
+        SearchRunTracker.Run run = SearchRunTracker.start();
+        run.setProgressListener((item, finishedCount, totalCount) -> {
+            onSearchFinished(item);
+            updateNotification(String.format("🔍 %s [%d/%d]: %s", browserName, finishedCount, totalCount, item.getSearchText()));
+        });
+        
+        Intent automationIntent = new Intent(this, SearchAutomationService.class);
+        automationIntent.putExtra(QuerySources.EXTRA_SOURCE_ID, QuerySources.register(searches));
+        automationIntent.putExtra("scheduledMode", true);
+        automationIntent.putExtra("browserName", browserName);
+        automationIntent.putExtra(SearchRunTracker.EXTRA_RUN_ID, run.getId());
+        
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            startForegroundService(automationIntent);
+        } else {
+            startService(automationIntent);
+        }
+        
+        SearchRunTracker.RunResult result = run.await(getMaxRunDurationMs(searches.getTotalCount()));
+        if (result == null) {
+            Log.w(TAG, "⚠️ Execução no " + browserName + " excedeu o prazo máximo, interrompendo");
+            stopService(new Intent(this, SearchAutomationService.class));
+            return;
+        }
+        
+        Log.d(TAG, String.format("📊 %s: %d concluídas, %d falharam%s", browserName,
+            result.getCompletedCount(), result.getFailedCount(), result.isCancelled() ? " (cancelada)" : ""));
+    }
+    
+    /**
+     * Limite superior da duração de uma execução, a partir do plano configurado
+     */
+    private long getMaxRunDurationMs(int count) {
+        return SchedulePlanner.maxRunDurationMs(count, getPerSearchBudgetMs());
+    }
+    
+    /**
+     * Tempo máximo de uma pesquisa no plano configurado (ver SchedulePlanner)
+     */
+    private long getPerSearchBudgetMs() {
+        return SchedulePlanner.perSearchBudgetMs(config.getSearchInterval(),
+            config.isRandomDelayEnabled() ? config.getMaxRandomDelay() : 0,
+            config.getCountdownInterval(), config.getResultDisplayTime());
+    }
+    
     /**
      * Executa pesquisas usando ROOT (mais confiável)
      */
-    private void executeSearchesWithRoot(List<SearchItem> searches, String browserName, AppConfig.BrowserApp browser) {
-        Log.d(TAG, "🔐 Executando " + searches.size() + " pesquisas com ROOT no " + browserName);
+    private void executeSearchesWithRoot(QuerySource searches, String browserName, AppConfig.BrowserApp browser) {
+        int total = searches.getTotalCount();
+        Log.d(TAG, "🔐 Executando " + total + " pesquisas com ROOT no " + browserName);
         
         try {
-            String packageName = browser.getPackageName();
-            String component = getComponentForBrowser(browser);
+            // Mesma cadeia pré-calculada da automação normal: preferido → Chrome (fallback) → navegador padrão
+            ConfigSnapshot current = config.getSnapshot();
+            List<BrowserRegistry.BrowserEntry> chain = BrowserRegistry.getInstance(this).getLaunchChain(
+                browser,
+                current.isChromeFallbackEnabled(),
+                current.isIncognitoModeEnabled(),
+                current.isStealthModeEnabled()
+            );
+            if (chain.isEmpty()) {
+                Log.e(TAG, "❌ Nenhum navegador disponível para " + browserName + ", pesquisas ROOT falharam");
+                failRemaining(searches);
+                return;
+            }
             
-            for (int i = 0; i < searches.size(); i++) {
-                SearchItem item = searches.get(i);
+            int position = 0;
+            SearchItem item;
+            while ((item = searches.next(getPerSearchBudgetMs())) != null) {
+                position++;
                 String url = config.buildSearchUrl(item.getSearchText());
                 
-                Log.d(TAG, String.format("🔍 [%d/%d] %s: %s", i + 1, searches.size(), browserName, item.getSearchText()));
-                updateNotification(String.format("🔍 %s [%d/%d]: %s", browserName, i + 1, searches.size(), item.getSearchText()));
+                Log.d(TAG, String.format("🔍 [%d/%d] %s: %s", position, total, browserName, item.getSearchText()));
+                updateNotification(String.format("🔍 %s [%d/%d]: %s", browserName, position, total, item.getSearchText()));
                 
                 // Acordar dispositivo antes de cada pesquisa
-                rootManager.wakeDevice();
+                rootSession.wakeDevice();
                 
-                // Abrir URL usando ROOT
-                String command = String.format(
-                    "am start -a android.intent.action.VIEW -d '%s' %s",
-                    url,
-                    component != null ? "-n " + component : "-p " + packageName
-                );
-                
-                String result = rootManager.executeRootCommand(command);
-                
-                if (result != null && (result.contains("Starting") || result.contains("Success"))) {
-                    item.setStatus(SearchItem.SearchStatus.COMPLETED);
-                    Log.d(TAG, "✅ Pesquisa aberta com sucesso via ROOT");
-                } else {
-                    item.setStatus(SearchItem.SearchStatus.FAILED);
-                    Log.w(TAG, "⚠️ Falha ao abrir com ROOT: " + result);
+                // Abrir URL usando ROOT, no primeiro navegador da cadeia que aceitar
+                item.setStatus(SearchItem.SearchStatus.FAILED);
+                for (BrowserRegistry.BrowserEntry entry : chain) {
+                    if (openWithRoot(url, entry)) {
+                        item.setStatus(SearchItem.SearchStatus.COMPLETED);
+                        Log.d(TAG, "✅ Pesquisa aberta com sucesso via ROOT no " + entry.getDisplayName());
+                        break;
+                    }
                 }
+                onSearchFinished(item);
                 
                 // Aguardar intervalo antes da próxima
-                if (i < searches.size() - 1) {
+                if (position < total) {
                     int interval = config.getActualSearchInterval() * 1000;
                     Thread.sleep(interval);
                 }
@@ -280,24 +373,37 @@ public class ScheduledSearchService extends Service {
             
         } catch (Exception e) {
             Log.e(TAG, "❌ Erro ao executar com ROOT: " + e.getMessage(), e);
+        } finally {
+            searches.close();
         }
     }
     
     /**
-     * Retorna o componente específico para cada navegador
+     * Abre a URL com "am start" no navegador indicado
      */
-    private String getComponentForBrowser(AppConfig.BrowserApp browser) {
-        switch (browser) {
-            case CHROME:
-                return "com.android.chrome/com.google.android.apps.chrome.Main";
-            case BING:
-                return "com.microsoft.bing/com.microsoft.sapphire.app.main.MainActivity";
-            case EDGE:
-                return "com.microsoft.emmx/com.microsoft.ruby.Main";
-            case FIREFOX:
-                return "org.mozilla.firefox/.App";
-            default:
-                return null;
+    private boolean openWithRoot(String url, BrowserRegistry.BrowserEntry entry) {
+        String command = String.format(
+            "am start -a android.intent.action.VIEW -d '%s' %s",
+            url,
+            entry.getRootTarget()
+        ).trim();
+        
+        String result = rootSession.executeRootCommand(command);
+        if (result != null && (result.contains("Starting") || result.contains("Success"))) {
+            return true;
+        }
+        Log.w(TAG, "⚠️ Falha ao abrir com ROOT no " + entry.getDisplayName() + ": " + result);
+        return false;
+    }
+    
+    /**
+     * Sem navegador: as pesquisas restantes contam como falhas nas estatísticas da execução
+     */
+    private void failRemaining(QuerySource searches) throws InterruptedException {
+        SearchItem item;
+        while ((item = searches.next(getPerSearchBudgetMs())) != null) {
+            item.setStatus(SearchItem.SearchStatus.FAILED);
+            onSearchFinished(item);
         }
     }
     
@@ -316,28 +422,24 @@ public class ScheduledSearchService extends Service {
         );
         
         // Calcular próximo horário (amanhã)
-        Calendar calendar = Calendar.getInstance();
-        calendar.add(Calendar.DAY_OF_YEAR, 1);
-        calendar.set(Calendar.HOUR_OF_DAY, config.getSchedulerHour());
-        calendar.set(Calendar.MINUTE, config.getSchedulerMinute());
-        calendar.set(Calendar.SECOND, 0);
-        calendar.set(Calendar.MILLISECOND, 0);
+        long triggerAt = SchedulePlanner.tomorrowAt(System.currentTimeMillis(),
+            config.getSchedulerHour(), config.getSchedulerMinute(), TimeZone.getDefault());
         
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
             alarmManager.setExactAndAllowWhileIdle(
                 AlarmManager.RTC_WAKEUP,
-                calendar.getTimeInMillis(),
+                triggerAt,
                 pendingIntent
             );
         } else {
             alarmManager.setExact(
                 AlarmManager.RTC_WAKEUP,
-                calendar.getTimeInMillis(),
+                triggerAt,
                 pendingIntent
             );
         }
         
-        Log.d(TAG, "✅ Próximo alarme agendado para: " + calendar.getTime());
+        Log.d(TAG, "✅ Próximo alarme agendado para: " + new Date(triggerAt));
     }
     
     private void createNotificationChannel() {
@@ -354,20 +456,17 @@ public class ScheduledSearchService extends Service {
         }
     }
     
-    private Notification createNotification(String message) {
+    private NotificationCompat.Builder createNotificationBuilder() {
         return new NotificationCompat.Builder(this, CHANNEL_ID)
             .setContentTitle("⏰ Pesquisas Agendadas")
-            .setContentText(message)
             .setSmallIcon(R.drawable.ic_search)
             .setPriority(NotificationCompat.PRIORITY_LOW)
-            .setOngoing(true)
-            .build();
+            .setOnlyAlertOnce(true)
+            .setOngoing(true);
     }
     
     private void updateNotification(String message) {
-        Notification notification = createNotification(message);
-        NotificationManager notificationManager = (NotificationManager) getSystemService(NOTIFICATION_SERVICE);
-        notificationManager.notify(NOTIFICATION_ID, notification);
+        notificationPublisher.publish(CHANNEL_ID, message);
     }
     
     @Override
@@ -379,15 +478,22 @@ public class ScheduledSearchService extends Service {
     public void onDestroy() {
         super.onDestroy();
         
-        if (wakeLock != null && wakeLock.isHeld()) {
-            wakeLock.release();
-        }
+        notificationPublisher.unregister(CHANNEL_ID);
         
-        // Re-habilitar Doze mode se usou ROOT
-        if (useRoot && rootManager != null) {
-            rootManager.enableDozeMode();
-            Log.d(TAG, "🔓 Doze mode re-habilitado");
-        }
+        wakeLock.release();
+        
+        // Re-habilitar Doze mode e devolver o shell ROOT fora da main thread (os comandos
+        // bloqueiam e o "exit" do shell pode levar até 1s); uma automação manual em
+        // andamento mantém os seus comandos e o shell
+        boolean restoreDoze = useRoot;
+        RootManager.Session session = rootSession;
+        new Thread(() -> {
+            if (restoreDoze) {
+                session.enableDozeMode();
+                Log.d(TAG, "🔓 Doze mode re-habilitado");
+            }
+            session.release();
+        }, "ScheduledSearch-teardown").start();
         
         Log.d(TAG, "🛑 Serviço finalizado");
     }
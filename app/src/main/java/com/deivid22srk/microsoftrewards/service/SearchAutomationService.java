@@ -1,21 +1,20 @@
 package com.deivid22srk.microsoftrewards.service;
 
-import android.app.Notification;
 import android.app.NotificationChannel;
 import android.app.NotificationManager;
 import android.app.PendingIntent;
 import android.app.Service;
 import android.content.BroadcastReceiver;
-import android.content.ComponentName;
 import android.content.Context;
 import android.content.Intent;
 import android.content.IntentFilter;
-import android.content.pm.PackageManager;
 import android.net.Uri;
 import android.os.Build;
 import android.os.Handler;
+import android.os.HandlerThread;
 import android.os.IBinder;
 import android.os.Looper;
+import android.os.SystemClock;
 import android.util.Log;
 
 import androidx.core.app.NotificationCompat;
@@ -25,6 +24,13 @@ import com.deivid22srk.microsoftrewards.MainActivity;
 import com.deivid22srk.microsoftrewards.R;
 import com.deivid22srk.microsoftrewards.model.SearchItem;
 import com.deivid22srk.microsoftrewards.utils.AppConfig;
+import com.deivid22srk.microsoftrewards.utils.BrowserRegistry;
+import com.deivid22srk.microsoftrewards.utils.ConfigSnapshot;
+import com.deivid22srk.microsoftrewards.utils.NotificationPublisher;
+import com.deivid22srk.microsoftrewards.utils.QueryQualityScorer;
+import com.deivid22srk.microsoftrewards.utils.QuerySource;
+import com.deivid22srk.microsoftrewards.utils.QuerySources;
+import com.deivid22srk.microsoftrewards.utils.RecentQueryFilter;
 import com.deivid22srk.microsoftrewards.utils.RootManager;
 
 import java.util.ArrayList;
@@ -41,19 +47,36 @@ public class SearchAutomationService extends Service {
     private static final String CHANNEL_ID = "SearchAutomationChannel";
     private static final int NOTIFICATION_ID = 2;
     
+    // Loop de pesquisas roda em thread própria; a main thread só recebe atualizações de UI
+    private HandlerThread workerThread;
     private Handler handler;
     private Handler countdownHandler;
+    private Handler mainHandler;
+    // Pesquisas chegam uma a uma da fonte; searchItems guarda só as já executadas
+    private QuerySource querySource;
     private List<SearchItem> searchItems;
+    private SearchItem currentItem;
+    // Qualidade acumulada de tudo que este serviço já executou
+    private QueryQualityScorer.Session historyQuality;
+    private int totalCount = 0;
     private int currentSearchIndex = 0;
-    private boolean isRunning = false;
-    private boolean isPaused = false;
-    private int countdownSeconds = 5;
+    private volatile boolean isRunning = false;
+    private volatile boolean isPaused = false;
+    // Countdown modelado como um prazo absoluto (SystemClock.elapsedRealtime)
+    private long countdownDeadline = 0;
+    private long pausedCountdownRemaining = -1;
     private boolean scheduledMode = false;
     private String browserName = "";
+    // Execução acompanhada pelo SearchRunTracker (null quando iniciada pela UI)
+    private volatile String runId;
+    private volatile int lastStartId;
     
     // 🛠️ Configurações avançadas
     private AppConfig config;
     private RootManager rootManager;
+    private RootManager.Session rootSession;
+    private BrowserRegistry browserRegistry;
+    private NotificationPublisher notificationPublisher;
     private Random randomGenerator;
     
     // Broadcast receiver para comandos de controle
@@ -62,9 +85,9 @@ public class SearchAutomationService extends Service {
         public void onReceive(Context context, Intent intent) {
             String action = intent.getAction();
             if (FloatingButtonService.ACTION_PAUSE_RESUME.equals(action)) {
-                togglePauseResume();
+                handler.post(SearchAutomationService.this::togglePauseResume);
             } else if (FloatingButtonService.ACTION_STOP_AUTOMATION.equals(action)) {
-                stopAutomation();
+                handler.post(SearchAutomationService.this::stopAutomation);
             }
         }
     };
@@ -74,11 +97,17 @@ public class SearchAutomationService extends Service {
         super.onCreate();
         config = AppConfig.getInstance(this);
         rootManager = RootManager.getInstance();
+        rootSession = rootManager.openSession(TAG);
+        browserRegistry = BrowserRegistry.getInstance(this);
+        notificationPublisher = NotificationPublisher.getInstance(this);
         randomGenerator = new Random();
         
         createNotificationChannel();
-        handler = new Handler(Looper.getMainLooper());
-        countdownHandler = new Handler(Looper.getMainLooper());
+        workerThread = new HandlerThread("SearchAutomation-worker");
+        workerThread.start();
+        handler = new Handler(workerThread.getLooper());
+        countdownHandler = new Handler(workerThread.getLooper());
+        mainHandler = new Handler(Looper.getMainLooper());
         
         // Registrar receiver para comandos de controle
         IntentFilter filter = new IntentFilter();
@@ -91,22 +120,42 @@ public class SearchAutomationService extends Service {
 
     @Override
     public int onStartCommand(Intent intent, int flags, int startId) {
-        if (intent != null && intent.hasExtra("searchItems")) {
-            ArrayList<SearchItem> items = (ArrayList<SearchItem>) intent.getSerializableExtra("searchItems");
+        if (intent != null && intent.hasExtra(QuerySources.EXTRA_SOURCE_ID)) {
+            QuerySource source = QuerySources.take(intent.getStringExtra(QuerySources.EXTRA_SOURCE_ID));
             scheduledMode = intent.getBooleanExtra("scheduledMode", false);
             browserName = intent.getStringExtra("browserName");
             if (browserName == null) browserName = "";
+            String newRunId = intent.getStringExtra(SearchRunTracker.EXTRA_RUN_ID);
+            lastStartId = startId;
             
-            if (items != null) {
-                searchItems = items;
-                currentSearchIndex = 0;
-                isRunning = true;
+            if (source != null) {
+                startForeground(NOTIFICATION_ID, notificationPublisher.register(
+                    CHANNEL_ID, NOTIFICATION_ID, createNotificationBuilder(), "🚀 Iniciando automação avançada..."));
                 
-                startForeground(NOTIFICATION_ID, createNotification("🚀 Iniciando automação avançada..."));
-                startSearchAutomation();
-                
-                Log.d(TAG, "Advanced search automation started with " + searchItems.size() + " items");
-                Log.d(TAG, "Config: " + config.exportConfig());
+                // Estado da automação é confinado à thread de trabalho
+                handler.post(() -> {
+                    // Uma nova execução substitui a anterior, que é sinalizada como cancelada
+                    handler.removeCallbacksAndMessages(null);
+                    countdownHandler.removeCallbacksAndMessages(null);
+                    SearchRunTracker.complete(runId, searchItems, true);
+                    closeQuerySource();
+                    runId = newRunId;
+                    
+                    querySource = source;
+                    totalCount = source.getTotalCount();
+                    searchItems = new ArrayList<>();
+                    currentItem = null;
+                    if (historyQuality == null) {
+                        historyQuality = QueryQualityScorer.getInstance().newSession();
+                    }
+                    currentSearchIndex = 0;
+                    isRunning = true;
+                    
+                    Log.d(TAG, "Advanced search automation started with " + totalCount + " items (" + source.getName() + ")");
+                    Log.d(TAG, "Config: " + config.exportConfig());
+                    
+                    startSearchAutomation();
+                });
             }
         }
         
@@ -132,7 +181,7 @@ public class SearchAutomationService extends Service {
         }
     }
 
-    private Notification createNotification(String contentText) {
+    private NotificationCompat.Builder createNotificationBuilder() {
         Intent notificationIntent = new Intent(this, MainActivity.class);
         PendingIntent pendingIntent = PendingIntent.getActivity(
             this, 0, notificationIntent, 
@@ -141,15 +190,14 @@ public class SearchAutomationService extends Service {
 
         return new NotificationCompat.Builder(this, CHANNEL_ID)
             .setContentTitle("🤖 Microsoft Rewards Bot Advanced")
-            .setContentText(contentText)
             .setSmallIcon(R.drawable.ic_launcher_foreground)
             .setContentIntent(pendingIntent)
-            .setOngoing(true)
-            .build();
+            .setOnlyAlertOnce(true)
+            .setOngoing(true);
     }
 
     private void startSearchAutomation() {
-        if (!isRunning || searchItems == null || currentSearchIndex >= searchItems.size()) {
+        if (!isRunning || querySource == null || currentSearchIndex >= totalCount) {
             completeAutomation();
             return;
         }
@@ -174,34 +222,37 @@ public class SearchAutomationService extends Service {
     }
 
     private void startCountdown(int delaySeconds) {
-        countdownSeconds = delaySeconds;
-        runCountdown();
+        // Cada "segundo" do countdown dura getCountdownInterval() segundos
+        scheduleCountdown(delaySeconds * config.getCountdownInterval() * 1000L);
     }
 
-    private void runCountdown() {
+    /**
+     * Agenda um único callback no prazo final; notificação e overlay contam o tempo sozinhos
+     */
+    private void scheduleCountdown(long durationMs) {
         if (!isRunning) return;
         
+        countdownDeadline = SystemClock.elapsedRealtime() + durationMs;
+        pausedCountdownRemaining = -1;
+        
+        updateCountdownNotification(durationMs);
+        updateFloatingButton("COUNTDOWN");
+        
+        countdownHandler.removeCallbacksAndMessages(null);
+        countdownHandler.postDelayed(this::onCountdownExpired, durationMs);
+    }
+
+    private void onCountdownExpired() {
+        countdownDeadline = 0;
+        
         // Verificar se foi pausado durante o countdown
-        if (isPaused) {
-            updateNotification("⏸️ Automação pausada durante countdown");
-            updateFloatingButton("PAUSED");
-            return;
-        }
+        if (!isRunning || isPaused) return;
         
-        if (countdownSeconds > 0) {
-            updateNotification(String.format("⏰ Próxima pesquisa em %ds (Config: %ds)", 
-                               countdownSeconds, config.getSearchInterval()));
-            updateFloatingButton("COUNTDOWN");
-            
-            countdownSeconds--;
-            countdownHandler.postDelayed(this::runCountdown, config.getCountdownInterval() * 1000);
-        } else {
-            executeCurrentSearch();
-        }
+        executeCurrentSearch();
     }
 
     private void executeCurrentSearch() {
-        if (!isRunning || isPaused || searchItems == null || currentSearchIndex >= searchItems.size()) {
+        if (!isRunning || isPaused || querySource == null || currentSearchIndex >= totalCount) {
             if (isPaused) {
                 updateNotification("⏸️ Automação pausada");
                 updateFloatingButton("PAUSED");
@@ -211,11 +262,30 @@ public class SearchAutomationService extends Service {
             return;
         }
 
-        SearchItem currentItem = searchItems.get(currentSearchIndex);
+        // Puxar a próxima pesquisa; se o gerador ainda não a entregou, aguardar sem bloquear a thread
+        SearchItem nextItem = querySource.poll();
+        if (nextItem == null) {
+            if (querySource.isExhausted()) {
+                completeAutomation();
+                return;
+            }
+            updateNotification("⏳ Preparando próxima pesquisa...");
+            QuerySource source = querySource;
+            source.whenReady(() -> handler.post(() -> {
+                if (querySource == source) {
+                    executeCurrentSearch();
+                }
+            }));
+            return;
+        }
+
+        currentItem = nextItem;
+        searchItems.add(currentItem);
+        historyQuality.add(currentItem.getSearchText());
         currentItem.setStatus(SearchItem.SearchStatus.IN_PROGRESS);
         
         Log.d(TAG, String.format("🔍 Executing search %d/%d: %s", 
-                                currentSearchIndex + 1, searchItems.size(), currentItem.getSearchText()));
+                                currentSearchIndex + 1, totalCount, currentItem.getSearchText()));
         
         String notificationText = scheduledMode && !browserName.isEmpty() 
             ? String.format("🔍 %s: %s", browserName, currentItem.getSearchText())
@@ -237,6 +307,7 @@ public class SearchAutomationService extends Service {
         // Atualizar progresso
         currentSearchIndex++;
         updateFloatingButton("COMPLETED");
+        SearchRunTracker.reportProgress(runId, currentItem, currentSearchIndex, totalCount);
 
         // Agendar próxima pesquisa com tempo configurável
         int resultDisplayTime = config.getResultDisplayTime() * 1000;
@@ -264,27 +335,25 @@ public class SearchAutomationService extends Service {
                 }
             }
             
-            // 3. Configurar Intent com flags personalizáveis
-            Intent browserIntent = new Intent(Intent.ACTION_VIEW, Uri.parse(searchUrl));
-            configureBrowserIntent(browserIntent);
-            
-            // 4. Tentar app de navegador configurado
-            AppConfig.BrowserApp preferredBrowser = config.getBrowserApp();
-            boolean success = tryOpenInBrowser(browserIntent, preferredBrowser, searchUrl);
-            
-            // 5. Fallback para Chrome se habilitado
-            if (!success && config.isChromeFallbackEnabled() && preferredBrowser != AppConfig.BrowserApp.CHROME) {
-                Log.d(TAG, "🔄 Trying Chrome fallback...");
-                success = tryOpenInBrowser(browserIntent, AppConfig.BrowserApp.CHROME, searchUrl);
-            }
+            // 3. Percorrer a cadeia pré-calculada: preferido → Chrome (fallback) → navegador padrão
+            //    (lida de uma única fotografia: edições nas configurações valem na próxima pesquisa)
+            Uri uri = Uri.parse(searchUrl);
+            ConfigSnapshot current = config.getSnapshot();
+            List<BrowserRegistry.BrowserEntry> chain = browserRegistry.getLaunchChain(
+                current.getBrowserApp(),
+                current.isChromeFallbackEnabled(),
+                current.isIncognitoModeEnabled(),
+                current.isStealthModeEnabled()
+            );
             
-            // 6. Fallback para navegador padrão
-            if (!success) {
-                Log.d(TAG, "🔄 Trying default browser...");
-                success = tryOpenInDefaultBrowser(browserIntent, searchUrl);
+            for (BrowserRegistry.BrowserEntry entry : chain) {
+                if (tryOpenInBrowser(entry, uri, searchUrl)) {
+                    return true;
+                }
             }
             
-            return success;
+            Log.e(TAG, "❌ No browser available to open URL");
+            return false;
             
         } catch (Exception e) {
             Log.e(TAG, "❌ Error in advanced browser search: " + e.getMessage());
@@ -297,22 +366,24 @@ public class SearchAutomationService extends Service {
      */
     private boolean tryOpenWithRoot(String url) {
         try {
-            AppConfig.BrowserApp browser = config.getBrowserApp();
-            String packageName = browser.getPackageName();
+            BrowserRegistry.BrowserEntry browser = browserRegistry.getEntry(config.getBrowserApp());
+            if (!browser.isInstalled()) {
+                Log.w(TAG, "⚠️ Browser not installed: " + browser.getDisplayName());
+                return false;
+            }
             
             // Acordar dispositivo primeiro
-            rootManager.wakeDevice();
+            rootSession.wakeDevice();
             
             // Construir comando am start
-            String component = getComponentForBrowser(browser);
             String command = String.format(
                 "am start -a android.intent.action.VIEW -d '%s' %s",
                 url,
-                component != null ? "-n " + component : "-p " + packageName
+                browser.getRootTarget()
             );
             
             Log.d(TAG, "📱 Executando: " + command);
-            String result = rootManager.executeRootCommand(command);
+            String result = rootSession.executeRootCommand(command);
             
             return result != null && (result.contains("Starting") || result.contains("Success"));
             
@@ -322,63 +393,9 @@ public class SearchAutomationService extends Service {
         }
     }
     
-    /**
-     * Retorna o componente específico para cada navegador
-     */
-    private String getComponentForBrowser(AppConfig.BrowserApp browser) {
-        switch (browser) {
-            case CHROME:
-                return "com.android.chrome/com.google.android.apps.chrome.Main";
-            case BING:
-                return "com.microsoft.bing/com.microsoft.sapphire.app.main.MainActivity";
-            case EDGE:
-                return "com.microsoft.emmx/com.microsoft.ruby.Main";
-            case FIREFOX:
-                return "org.mozilla.firefox/.App";
-            default:
-                return null;
-        }
-    }
-    
-    private void configureBrowserIntent(Intent intent) {
-        // Flags para reutilização inteligente de guias
-        intent.addFlags(Intent.FLAG_ACTIVITY_NEW_TASK);
-        intent.addFlags(Intent.FLAG_ACTIVITY_CLEAR_TOP);
-        intent.addFlags(Intent.FLAG_ACTIVITY_SINGLE_TOP);
-        
-        // Modo incógnito se habilitado (apenas para Chrome)
-        if (config.isIncognitoModeEnabled()) {
-            intent.putExtra("com.google.android.apps.chrome.EXTRA_OPEN_NEW_INCOGNITO_TAB", true);
-        }
-        
-        // Configurações stealth se habilitadas
-        if (config.isStealthModeEnabled()) {
-            intent.putExtra("create_new_tab", true);
-        }
-    }
-    
-    private boolean tryOpenInBrowser(Intent intent, AppConfig.BrowserApp browser, String searchUrl) {
+    private boolean tryOpenInBrowser(BrowserRegistry.BrowserEntry browser, Uri uri, String searchUrl) {
         try {
-            PackageManager pm = getPackageManager();
-            String packageName = browser.getPackageName();
-            
-            if (packageName.isEmpty()) return false; // Custom package não implementado ainda
-            
-            // Verificar se o app está instalado
-            try {
-                pm.getPackageInfo(packageName, PackageManager.GET_ACTIVITIES);
-            } catch (PackageManager.NameNotFoundException e) {
-                Log.w(TAG, "⚠️ Browser not installed: " + browser.getDisplayName());
-                return false;
-            }
-            
-            // Configurar package específico
-            intent.setPackage(packageName);
-            
-            // Configurações específicas por browser
-            configureBrowserSpecifics(intent, browser);
-            
-            startActivity(intent);
+            startActivity(browser.createIntent(uri));
             Log.d(TAG, String.format("✅ Opened in %s: %s", browser.getDisplayName(), searchUrl));
             return true;
             
@@ -387,46 +404,6 @@ public class SearchAutomationService extends Service {
             return false;
         }
     }
-    
-    private void configureBrowserSpecifics(Intent intent, AppConfig.BrowserApp browser) {
-        switch (browser) {
-            case BING:
-                // Configurações específicas do Bing
-                intent.putExtra("msrewards", true);
-                break;
-            case EDGE:
-                // Configurações específicas do Edge
-                intent.putExtra("edge_rewards", true);
-                break;
-            case CHROME:
-            case CHROME_BETA:
-                // Configurações específicas do Chrome
-                if (config.isIncognitoModeEnabled()) {
-                    intent.putExtra("com.google.android.apps.chrome.EXTRA_OPEN_NEW_INCOGNITO_TAB", true);
-                }
-                break;
-        }
-    }
-    
-    private boolean tryOpenInDefaultBrowser(Intent intent, String searchUrl) {
-        try {
-            PackageManager pm = getPackageManager();
-            intent.setPackage(null); // Remove package restriction
-            
-            if (intent.resolveActivity(pm) != null) {
-                startActivity(intent);
-                Log.d(TAG, "✅ Opened in default browser: " + searchUrl);
-                return true;
-            } else {
-                Log.e(TAG, "❌ No browser available to open URL");
-                return false;
-            }
-            
-        } catch (Exception e) {
-            Log.e(TAG, "❌ Error opening default browser: " + e.getMessage());
-            return false;
-        }
-    }
 
     private void completeAutomation() {
         isRunning = false;
@@ -434,16 +411,47 @@ public class SearchAutomationService extends Service {
         updateFloatingButton("COMPLETED");
         
         Log.d(TAG, "🏁 Advanced search automation completed");
+        if (historyQuality != null) {
+            Log.d(TAG, "Histórico: " + historyQuality.report());
+        }
         
-        // Parar serviço após alguns segundos
+        // Avisar quem aguarda a execução assim que ela termina de fato
+        SearchRunTracker.complete(runId, searchItems, false);
+        runId = null;
+        closeQuerySource();
+        
+        // Parar serviço após alguns segundos (a menos que uma nova execução tenha chegado)
+        int startId = lastStartId;
         handler.postDelayed(() -> {
-            stopSelf();
+            stopSelf(startId);
         }, 5000);
     }
 
+    /**
+     * Encerra a fonte atual: o gerador para de trabalhar para uma execução que acabou
+     */
+    private void closeQuerySource() {
+        QuerySource source = querySource;
+        querySource = null;
+        if (source != null) {
+            source.close();
+            
+            // Persistir as pesquisas registradas no filtro de recentes
+            RecentQueryFilter recentQueries = RecentQueryFilter.peekInstance();
+            if (recentQueries != null) {
+                recentQueries.flush();
+            }
+        }
+    }
+
     private void updateNotification(String message) {
-        NotificationManager manager = (NotificationManager) getSystemService(NOTIFICATION_SERVICE);
-        manager.notify(NOTIFICATION_ID, createNotification(message));
+        // O publicador agrupa rajadas e publica na main thread
+        notificationPublisher.publish(CHANNEL_ID, message);
+    }
+
+    private void updateCountdownNotification(long remainingMs) {
+        String message = String.format("⏰ Próxima pesquisa em breve (Config: %ds)", config.getSearchInterval());
+        notificationPublisher.publishCountdown(CHANNEL_ID, message, System.currentTimeMillis() + remainingMs);
     }
 
     private void updateFloatingButton(String status) {
@@ -452,15 +460,16 @@ public class SearchAutomationService extends Service {
             return;
         }
         
+        // Capturar o estado na thread de trabalho e publicar na main thread
         Intent intent = new Intent(FloatingButtonService.ACTION_UPDATE_PROGRESS);
         intent.putExtra(FloatingButtonService.EXTRA_CURRENT_INDEX, currentSearchIndex);
-        intent.putExtra(FloatingButtonService.EXTRA_TOTAL_COUNT, searchItems != null ? searchItems.size() : 0);
+        intent.putExtra(FloatingButtonService.EXTRA_TOTAL_COUNT, totalCount);
         intent.putExtra(FloatingButtonService.EXTRA_CURRENT_SEARCH, 
-            searchItems != null && currentSearchIndex < searchItems.size() ? 
-            searchItems.get(currentSearchIndex).getSearchText() : "");
+            currentItem != null ? currentItem.getSearchText() : "");
         intent.putExtra(FloatingButtonService.EXTRA_STATUS, status);
+        intent.putExtra(FloatingButtonService.EXTRA_COUNTDOWN_DEADLINE, countdownDeadline);
         
-        LocalBroadcastManager.getInstance(this).sendBroadcast(intent);
+        mainHandler.post(() -> LocalBroadcastManager.getInstance(this).sendBroadcast(intent));
     }
 
     private void togglePauseResume() {
@@ -471,7 +480,11 @@ public class SearchAutomationService extends Service {
             updateNotification("⏸️ Automação pausada - Clique em play para continuar");
             updateFloatingButton("PAUSED");
             
-            // Parar handlers ativos
+            // Guardar o tempo restante do countdown e parar handlers ativos
+            if (countdownDeadline > 0) {
+                pausedCountdownRemaining = Math.max(0, countdownDeadline - SystemClock.elapsedRealtime());
+                countdownDeadline = 0;
+            }
             if (countdownHandler != null) {
                 countdownHandler.removeCallbacksAndMessages(null);
             }
@@ -480,8 +493,12 @@ public class SearchAutomationService extends Service {
             updateNotification("▶️ Automação retomada");
             updateFloatingButton("RESUMED");
             
-            // Retomar automação
-            handler.postDelayed(this::startSearchAutomation, 1000);
+            // Retomar automação (continuando o countdown de onde parou)
+            if (pausedCountdownRemaining >= 0) {
+                scheduleCountdown(pausedCountdownRemaining);
+            } else {
+                handler.postDelayed(this::startSearchAutomation, 1000);
+            }
         }
     }
     
@@ -498,9 +515,18 @@ public class SearchAutomationService extends Service {
             countdownHandler.removeCallbacksAndMessages(null);
         }
         
+        // Cancelar os comandos ROOT desta automação (os de outros serviços continuam)
+        if (rootSession != null) {
+            rootSession.cancelPendingCommands();
+        }
+        
         updateNotification("🛑 Automação interrompida pelo usuário");
         updateFloatingButton("COMPLETED");
         
+        SearchRunTracker.complete(runId, searchItems, true);
+        runId = null;
+        closeQuerySource();
+        
         // Parar o serviço
         stopSelf();
     }
@@ -511,14 +537,32 @@ public class SearchAutomationService extends Service {
         isRunning = false;
         isPaused = false;
         
-        if (handler != null) {
-            handler.removeCallbacksAndMessages(null);
+        // Cancelar os comandos ROOT desta automação que ainda prendem a thread de trabalho
+        if (rootSession != null) {
+            rootSession.cancelPendingCommands();
         }
         
-        if (countdownHandler != null) {
+        // O estado da automação só é desmontado na thread de trabalho, depois da
+        // mensagem em andamento; a thread termina logo em seguida
+        if (handler != null) {
+            handler.removeCallbacksAndMessages(null);
             countdownHandler.removeCallbacksAndMessages(null);
+            handler.post(() -> {
+                // Não deixar o agendador esperando por uma execução que não vai terminar
+                SearchRunTracker.complete(runId, searchItems, true);
+                runId = null;
+                closeQuerySource();
+                
+                // Devolver o shell ROOT; ele só é encerrado (esperando o "exit")
+                // se nenhum outro serviço o estiver usando
+                rootSession.release();
+                
+                workerThread.quitSafely();
+            });
         }
         
+        notificationPublisher.unregister(CHANNEL_ID);
+        
         // Desregistrar receiver
         LocalBroadcastManager.getInstance(this).unregisterReceiver(controlReceiver);
         
@@ -0,0 +1,137 @@
+package com.deivid22srk.microsoftrewards.service;
+
+import com.deivid22srk.microsoftrewards.model.SearchItem;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 📡 Canal de conclusão entre o SearchAutomationService e quem iniciou a execução
+ * O agendador cria uma execução, passa o ID no Intent e aguarda o resultado real
+ * (com o status de cada pesquisa) em vez de estimar a duração com sleep.
+ */
+public final class SearchRunTracker {
+
+    public static final String EXTRA_RUN_ID = "runId";
+
+    private static final AtomicLong NEXT_ID = new AtomicLong(1);
+    private static final Map<String, Run> RUNS = new ConcurrentHashMap<>();
+
+    private SearchRunTracker() {
+    }
+
+    /**
+     * Callback de progresso, chamado na thread de trabalho da automação
+     */
+    public interface OnProgressListener {
+        void onItemFinished(SearchItem item, int finishedCount, int totalCount);
+    }
+
+    /**
+     * Resultado final de uma execução
+     */
+    public static class RunResult {
+        private final List<SearchItem> items;
+        private final boolean cancelled;
+        private final int completedCount;
+        private final int failedCount;
+
+        RunResult(List<SearchItem> items, boolean cancelled) {
+            this.items = Collections.unmodifiableList(new ArrayList<>(items));
+            this.cancelled = cancelled;
+
+            int completed = 0;
+            int failed = 0;
+            for (SearchItem item : items) {
+                if (item.getStatus() == SearchItem.SearchStatus.COMPLETED) {
+                    completed++;
+                } else if (item.getStatus() == SearchItem.SearchStatus.FAILED) {
+                    failed++;
+                }
+            }
+            this.completedCount = completed;
+            this.failedCount = failed;
+        }
+
+        public List<SearchItem> getItems() { return items; }
+        public boolean isCancelled() { return cancelled; }
+        public int getCompletedCount() { return completedCount; }
+        public int getFailedCount() { return failedCount; }
+    }
+
+    /**
+     * Execução em andamento: pode ser aguardada pelo agendador
+     */
+    public static class Run {
+        private final String id;
+        private final CountDownLatch done = new CountDownLatch(1);
+        private volatile RunResult result;
+        private volatile OnProgressListener progressListener;
+
+        Run(String id) {
+            this.id = id;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public void setProgressListener(OnProgressListener listener) {
+            this.progressListener = listener;
+        }
+
+        /**
+         * Aguarda a conclusão; retorna null se o prazo de segurança expirar
+         */
+        public RunResult await(long timeoutMs) throws InterruptedException {
+            try {
+                if (!done.await(timeoutMs, TimeUnit.MILLISECONDS)) {
+                    return null;
+                }
+                return result;
+            } finally {
+                RUNS.remove(id);
+            }
+        }
+    }
+
+    /**
+     * Cria uma nova execução; passe getId() no Intent com EXTRA_RUN_ID
+     */
+    public static Run start() {
+        Run run = new Run("run-" + NEXT_ID.getAndIncrement());
+        RUNS.put(run.id, run);
+        return run;
+    }
+
+    static void reportProgress(String runId, SearchItem item, int finishedCount, int totalCount) {
+        Run run = runId != null ? RUNS.get(runId) : null;
+        if (run == null) {
+            return;
+        }
+
+        OnProgressListener listener = run.progressListener;
+        if (listener != null) {
+            listener.onItemFinished(item, finishedCount, totalCount);
+        }
+    }
+
+    /**
+     * Sinaliza a conclusão (chamadas repetidas são ignoradas)
+     */
+    static void complete(String runId, List<SearchItem> items, boolean cancelled) {
+        Run run = runId != null ? RUNS.get(runId) : null;
+        if (run == null || run.done.getCount() == 0) {
+            return;
+        }
+
+        run.result = new RunResult(items != null ? items : Collections.<SearchItem>emptyList(), cancelled);
+        run.done.countDown();
+    }
+}
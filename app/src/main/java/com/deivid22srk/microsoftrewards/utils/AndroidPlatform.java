@@ -0,0 +1,123 @@
+package com.deivid22srk.microsoftrewards.utils;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.content.res.AssetFileDescriptor;
+import android.provider.Settings;
+import android.util.Log;
+
+import com.deivid22srk.microsoftrewards.core.CoreLog;
+import com.deivid22srk.microsoftrewards.core.KeyValueStore;
+import com.deivid22srk.microsoftrewards.core.LogSink;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * 🤖 Adaptadores Android para o módulo core (logs, preferências, assets e arquivos)
+ * install() é chamado uma vez ao iniciar o processo (MicrosoftRewardsApplication).
+ */
+public final class AndroidPlatform {
+
+    private static final String TAG = "AndroidPlatform";
+
+    private AndroidPlatform() {
+    }
+
+    public static void install(Context context) {
+        Context appContext = context.getApplicationContext();
+        CoreLog.setSink(new AndroidLogSink());
+        KnowledgeBase.setAssetSource(name -> openAsset(appContext, name));
+        GeminiMetrics.getInstance().setStore(preferences(appContext, GeminiMetrics.PREFS_NAME));
+    }
+
+    /**
+     * SharedPreferences como KeyValueStore (gravações com apply())
+     */
+    public static KeyValueStore preferences(Context context, String name) {
+        SharedPreferences prefs = context.getApplicationContext().getSharedPreferences(name, Context.MODE_PRIVATE);
+        return new KeyValueStore() {
+            @Override
+            public String getString(String key, String defaultValue) {
+                return prefs.getString(key, defaultValue);
+            }
+
+            @Override
+            public int getInt(String key, int defaultValue) {
+                return prefs.getInt(key, defaultValue);
+            }
+
+            @Override
+            public void putString(String key, String value) {
+                prefs.edit().putString(key, value).apply();
+            }
+
+            @Override
+            public void putInt(String key, int value) {
+                prefs.edit().putInt(key, value).apply();
+            }
+        };
+    }
+
+    /**
+     * Seed do dispositivo + contador global, com a identificação do aparelho como origem do seed
+     */
+    public static GeneratorStateStore generatorState(Context context) {
+        Context appContext = context.getApplicationContext();
+        return GeneratorStateStore.getInstance(
+            preferences(appContext, GeneratorStateStore.PREFS_NAME),
+            () -> Settings.Secure.getString(appContext.getContentResolver(), Settings.Secure.ANDROID_ID)
+                + System.currentTimeMillis()
+                + android.os.Build.MODEL
+                + android.os.Build.BRAND);
+    }
+
+    /**
+     * Filtro de pesquisas recentes em files/
+     */
+    public static RecentQueryFilter recentQueries(Context context) {
+        return RecentQueryFilter.getInstance(context.getApplicationContext().getFilesDir());
+    }
+
+    /**
+     * Reserva de pesquisas do Gemini em files/
+     */
+    public static QueryPool queryPool(Context context) {
+        return QueryPool.getInstance(context.getApplicationContext().getFilesDir());
+    }
+
+    private static ByteBuffer openAsset(Context context, String name) throws IOException {
+        // Asset sem compressão (noCompress 'bin'): mapear direto do APK
+        try (AssetFileDescriptor descriptor = context.getAssets().openFd(name);
+             FileInputStream stream = descriptor.createInputStream()) {
+            return stream.getChannel().map(FileChannel.MapMode.READ_ONLY,
+                descriptor.getStartOffset(), descriptor.getLength());
+        } catch (IOException e) {
+            Log.w(TAG, "⚠️ Asset comprimido, lendo com buffer: " + e.getMessage());
+        }
+
+        try (InputStream stream = context.getAssets().open(name)) {
+            return ByteBuffer.wrap(KnowledgeBase.readFully(stream));
+        }
+    }
+
+    private static final class AndroidLogSink implements LogSink {
+        @Override
+        public void d(String tag, String message) {
+            Log.d(tag, message);
+        }
+
+        @Override
+        public void w(String tag, String message) {
+            Log.w(tag, message);
+        }
+
+        @Override
+        public void e(String tag, String message, Throwable error) {
+            Log.e(tag, message, error);
+        }
+    }
+}
@@ -3,6 +3,8 @@ package com.deivid22srk.microsoftrewards.utils;
 import android.content.Context;
 import android.content.SharedPreferences;
 
+import java.util.Random;
+
 /**
  * 🛠️ Sistema de Configurações Avançadas
  * Gerencia todas as configurações personalizáveis do app
@@ -12,44 +14,47 @@ public class AppConfig {
     private static final String PREFS_NAME = "MicrosoftRewards_AdvancedConfig";
     
     // ⏰ Configurações de Tempo
-    private static final String KEY_SEARCH_INTERVAL = "search_interval_seconds";
-    private static final String KEY_COUNTDOWN_INTERVAL = "countdown_interval_seconds";
-    private static final String KEY_RESULT_DISPLAY_TIME = "result_display_time_seconds";
+    static final String KEY_SEARCH_INTERVAL = "search_interval_seconds";
+    static final String KEY_COUNTDOWN_INTERVAL = "countdown_interval_seconds";
+    static final String KEY_RESULT_DISPLAY_TIME = "result_display_time_seconds";
     
     // 🌐 Configurações de URL
-    private static final String KEY_SEARCH_ENGINE = "search_engine";
-    private static final String KEY_CUSTOM_URL_TEMPLATE = "custom_url_template";
-    private static final String KEY_URL_PC_PARAMETER = "url_pc_parameter";
-    private static final String KEY_URL_FORM_PARAMETER = "url_form_parameter";
+    static final String KEY_SEARCH_ENGINE = "search_engine";
+    static final String KEY_CUSTOM_URL_TEMPLATE = "custom_url_template";
+    static final String KEY_URL_PC_PARAMETER = "url_pc_parameter";
+    static final String KEY_URL_FORM_PARAMETER = "url_form_parameter";
     
     // 📱 Configurações de App
-    private static final String KEY_BROWSER_APP = "browser_app_package";
-    private static final String KEY_ENABLE_CHROME_FALLBACK = "enable_chrome_fallback";
-    private static final String KEY_USE_INCOGNITO_MODE = "use_incognito_mode";
+    static final String KEY_BROWSER_APP = "browser_app_package";
+    static final String KEY_ENABLE_CHROME_FALLBACK = "enable_chrome_fallback";
+    static final String KEY_USE_INCOGNITO_MODE = "use_incognito_mode";
     
     // 🎯 Configurações de Automação
-    private static final String KEY_AUTO_CLOSE_TABS = "auto_close_tabs";
-    private static final String KEY_RANDOM_DELAY_ENABLED = "random_delay_enabled";
-    private static final String KEY_MIN_RANDOM_DELAY = "min_random_delay";
-    private static final String KEY_MAX_RANDOM_DELAY = "max_random_delay";
+    static final String KEY_AUTO_CLOSE_TABS = "auto_close_tabs";
+    static final String KEY_RANDOM_DELAY_ENABLED = "random_delay_enabled";
+    static final String KEY_MIN_RANDOM_DELAY = "min_random_delay";
+    static final String KEY_MAX_RANDOM_DELAY = "max_random_delay";
     
     // 🧠 Configurações de IA
-    private static final String KEY_AI_MODE = "ai_mode";
-    private static final String KEY_ENABLE_CONTEXTUAL_LEARNING = "enable_contextual_learning";
-    private static final String KEY_ENABLE_TEMPORAL_AWARENESS = "enable_temporal_awareness";
-    private static final String KEY_SEARCH_GENERATION_MODE = "search_generation_mode";
-    private static final String KEY_GEMINI_API_KEY = "gemini_api_key";
+    static final String KEY_AI_MODE = "ai_mode";
+    static final String KEY_ENABLE_CONTEXTUAL_LEARNING = "enable_contextual_learning";
+    static final String KEY_ENABLE_TEMPORAL_AWARENESS = "enable_temporal_awareness";
+    static final String KEY_SEARCH_GENERATION_MODE = "search_generation_mode";
+    static final String KEY_GEMINI_API_KEY = "gemini_api_key";
+    static final String KEY_QUERY_LOOK_AHEAD = "query_look_ahead";
+    static final String KEY_GEMINI_MAX_CONCURRENCY = "gemini_max_concurrency";
+    static final String KEY_GEMINI_REQUESTS_PER_MINUTE = "gemini_requests_per_minute";
     
     // 🔐 Configurações de Segurança
-    private static final String KEY_STEALTH_MODE = "stealth_mode";
-    private static final String KEY_ROTATE_USER_AGENT = "rotate_user_agent";
+    static final String KEY_STEALTH_MODE = "stealth_mode";
+    static final String KEY_ROTATE_USER_AGENT = "rotate_user_agent";
     
     // ⏰ Configurações de Agendamento
-    private static final String KEY_SCHEDULER_ENABLED = "scheduler_enabled";
-    private static final String KEY_SCHEDULER_HOUR = "scheduler_hour";
-    private static final String KEY_SCHEDULER_MINUTE = "scheduler_minute";
-    private static final String KEY_BING_SEARCH_COUNT = "bing_search_count";
-    private static final String KEY_CHROME_SEARCH_COUNT = "chrome_search_count";
+    static final String KEY_SCHEDULER_ENABLED = "scheduler_enabled";
+    static final String KEY_SCHEDULER_HOUR = "scheduler_hour";
+    static final String KEY_SCHEDULER_MINUTE = "scheduler_minute";
+    static final String KEY_BING_SEARCH_COUNT = "bing_search_count";
+    static final String KEY_CHROME_SEARCH_COUNT = "chrome_search_count";
     
     // Valores padrão
     public static final int DEFAULT_SEARCH_INTERVAL = 5; // segundos
@@ -58,6 +63,9 @@ public class AppConfig {
     public static final String DEFAULT_SEARCH_ENGINE = "bing";
     public static final String DEFAULT_BROWSER_APP = "com.android.chrome";
     public static final String DEFAULT_AI_MODE = "advanced_chatgpt";
+    public static final int DEFAULT_QUERY_LOOK_AHEAD = 5; // pesquisas geradas à frente da automação
+    public static final int DEFAULT_GEMINI_MAX_CONCURRENCY = 4; // lotes do Gemini em paralelo
+    public static final int DEFAULT_GEMINI_REQUESTS_PER_MINUTE = 0; // 0 = cota gratuita do modelo
     
     // Enum para engines de busca
     public enum SearchEngine {
@@ -136,211 +144,229 @@ public class AppConfig {
         public String getDisplayName() { return displayName; }
     }
     
-    private Context context;
-    private SharedPreferences prefs;
+    private static volatile AppConfig instance;
+    
+    private final SharedPreferences prefs;
+    private final Random random = new Random();
+    private volatile ConfigSnapshot snapshot;
+    
+    // Referência forte: o SharedPreferences guarda os listeners com WeakReference
+    private final SharedPreferences.OnSharedPreferenceChangeListener preferenceListener = (sharedPreferences, key) -> refresh();
     
-    public AppConfig(Context context) {
-        this.context = context;
+    private AppConfig(Context context) {
         this.prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        this.snapshot = new ConfigSnapshot(prefs);
+        prefs.registerOnSharedPreferenceChangeListener(preferenceListener);
+    }
+    
+    /**
+     * Configurações atuais como um valor imutável (leitura sem acesso ao SharedPreferences)
+     */
+    public ConfigSnapshot getSnapshot() {
+        return snapshot;
+    }
+    
+    /**
+     * Relê as preferências (já atualizadas em memória pelo apply) e troca a fotografia
+     */
+    private void refresh() {
+        snapshot = new ConfigSnapshot(prefs);
     }
     
     // ⏰ Getters e Setters para Configurações de Tempo
     public int getSearchInterval() {
-        return prefs.getInt(KEY_SEARCH_INTERVAL, DEFAULT_SEARCH_INTERVAL);
+        return snapshot.getSearchInterval();
     }
     
     public void setSearchInterval(int seconds) {
         prefs.edit().putInt(KEY_SEARCH_INTERVAL, seconds).apply();
+        refresh();
     }
     
     public int getCountdownInterval() {
-        return prefs.getInt(KEY_COUNTDOWN_INTERVAL, DEFAULT_COUNTDOWN_INTERVAL);
+        return snapshot.getCountdownInterval();
     }
     
     public void setCountdownInterval(int seconds) {
         prefs.edit().putInt(KEY_COUNTDOWN_INTERVAL, seconds).apply();
+        refresh();
     }
     
     public int getResultDisplayTime() {
-        return prefs.getInt(KEY_RESULT_DISPLAY_TIME, DEFAULT_RESULT_DISPLAY_TIME);
+        return snapshot.getResultDisplayTime();
     }
     
     public void setResultDisplayTime(int seconds) {
         prefs.edit().putInt(KEY_RESULT_DISPLAY_TIME, seconds).apply();
+        refresh();
     }
     
     // 🌐 Getters e Setters para Configurações de URL
     public SearchEngine getSearchEngine() {
-        String engineId = prefs.getString(KEY_SEARCH_ENGINE, DEFAULT_SEARCH_ENGINE);
-        for (SearchEngine engine : SearchEngine.values()) {
-            if (engine.getId().equals(engineId)) {
-                return engine;
-            }
-        }
-        return SearchEngine.BING;
+        return snapshot.getSearchEngine();
     }
     
     public void setSearchEngine(SearchEngine engine) {
         prefs.edit().putString(KEY_SEARCH_ENGINE, engine.getId()).apply();
+        refresh();
     }
     
     public String getCustomUrlTemplate() {
-        return prefs.getString(KEY_CUSTOM_URL_TEMPLATE, SearchEngine.BING.getUrlTemplate());
+        return snapshot.getCustomUrlTemplate();
     }
     
     public void setCustomUrlTemplate(String template) {
         prefs.edit().putString(KEY_CUSTOM_URL_TEMPLATE, template).apply();
+        refresh();
     }
     
     public String getUrlPcParameter() {
-        return prefs.getString(KEY_URL_PC_PARAMETER, "U316");
+        return snapshot.getUrlPcParameter();
     }
     
     public void setUrlPcParameter(String parameter) {
         prefs.edit().putString(KEY_URL_PC_PARAMETER, parameter).apply();
+        refresh();
     }
     
     public String getUrlFormParameter() {
-        return prefs.getString(KEY_URL_FORM_PARAMETER, "CHROMN");
+        return snapshot.getUrlFormParameter();
     }
     
     public void setUrlFormParameter(String parameter) {
         prefs.edit().putString(KEY_URL_FORM_PARAMETER, parameter).apply();
+        refresh();
     }
     
     // 📱 Getters e Setters para Configurações de App
     public BrowserApp getBrowserApp() {
-        String packageName = prefs.getString(KEY_BROWSER_APP, DEFAULT_BROWSER_APP);
-        for (BrowserApp app : BrowserApp.values()) {
-            if (app.getPackageName().equals(packageName)) {
-                return app;
-            }
-        }
-        return BrowserApp.CHROME;
+        return snapshot.getBrowserApp();
     }
     
     public void setBrowserApp(BrowserApp app) {
         prefs.edit().putString(KEY_BROWSER_APP, app.getPackageName()).apply();
+        refresh();
     }
     
     public boolean isChromeFallbackEnabled() {
-        return prefs.getBoolean(KEY_ENABLE_CHROME_FALLBACK, true);
+        return snapshot.isChromeFallbackEnabled();
     }
     
     public void setChromeFallbackEnabled(boolean enabled) {
         prefs.edit().putBoolean(KEY_ENABLE_CHROME_FALLBACK, enabled).apply();
+        refresh();
     }
     
     public boolean isIncognitoModeEnabled() {
-        return prefs.getBoolean(KEY_USE_INCOGNITO_MODE, false);
+        return snapshot.isIncognitoModeEnabled();
     }
     
     public void setIncognitoModeEnabled(boolean enabled) {
         prefs.edit().putBoolean(KEY_USE_INCOGNITO_MODE, enabled).apply();
+        refresh();
     }
     
     // 🎯 Getters e Setters para Configurações de Automação
     public boolean isAutoCloseTabsEnabled() {
-        return prefs.getBoolean(KEY_AUTO_CLOSE_TABS, false);
+        return snapshot.isAutoCloseTabsEnabled();
     }
     
     public void setAutoCloseTabsEnabled(boolean enabled) {
         prefs.edit().putBoolean(KEY_AUTO_CLOSE_TABS, enabled).apply();
+        refresh();
     }
     
     public boolean isRandomDelayEnabled() {
-        return prefs.getBoolean(KEY_RANDOM_DELAY_ENABLED, true);
+        return snapshot.isRandomDelayEnabled();
     }
     
     public void setRandomDelayEnabled(boolean enabled) {
         prefs.edit().putBoolean(KEY_RANDOM_DELAY_ENABLED, enabled).apply();
+        refresh();
     }
     
     public int getMinRandomDelay() {
-        return prefs.getInt(KEY_MIN_RANDOM_DELAY, 3);
+        return snapshot.getMinRandomDelay();
     }
     
     public void setMinRandomDelay(int seconds) {
         prefs.edit().putInt(KEY_MIN_RANDOM_DELAY, seconds).apply();
+        refresh();
     }
     
     public int getMaxRandomDelay() {
-        return prefs.getInt(KEY_MAX_RANDOM_DELAY, 8);
+        return snapshot.getMaxRandomDelay();
     }
     
     public void setMaxRandomDelay(int seconds) {
         prefs.edit().putInt(KEY_MAX_RANDOM_DELAY, seconds).apply();
+        refresh();
     }
     
     // 🧠 Getters e Setters para Configurações de IA
     public AIMode getAIMode() {
-        String modeId = prefs.getString(KEY_AI_MODE, DEFAULT_AI_MODE);
-        for (AIMode mode : AIMode.values()) {
-            if (mode.getId().equals(modeId)) {
-                return mode;
-            }
-        }
-        return AIMode.CHATGPT;
+        return snapshot.getAIMode();
     }
     
     public void setAIMode(AIMode mode) {
         prefs.edit().putString(KEY_AI_MODE, mode.getId()).apply();
+        refresh();
     }
     
     public boolean isContextualLearningEnabled() {
-        return prefs.getBoolean(KEY_ENABLE_CONTEXTUAL_LEARNING, true);
+        return snapshot.isContextualLearningEnabled();
     }
     
     public void setContextualLearningEnabled(boolean enabled) {
         prefs.edit().putBoolean(KEY_ENABLE_CONTEXTUAL_LEARNING, enabled).apply();
+        refresh();
     }
     
     public boolean isTemporalAwarenessEnabled() {
-        return prefs.getBoolean(KEY_ENABLE_TEMPORAL_AWARENESS, true);
+        return snapshot.isTemporalAwarenessEnabled();
     }
     
     public void setTemporalAwarenessEnabled(boolean enabled) {
         prefs.edit().putBoolean(KEY_ENABLE_TEMPORAL_AWARENESS, enabled).apply();
+        refresh();
     }
     
     // 🔐 Getters e Setters para Configurações de Segurança
     public boolean isStealthModeEnabled() {
-        return prefs.getBoolean(KEY_STEALTH_MODE, false);
+        return snapshot.isStealthModeEnabled();
     }
     
     public void setStealthModeEnabled(boolean enabled) {
         prefs.edit().putBoolean(KEY_STEALTH_MODE, enabled).apply();
+        refresh();
     }
     
     public boolean isUserAgentRotationEnabled() {
-        return prefs.getBoolean(KEY_ROTATE_USER_AGENT, false);
+        return snapshot.isUserAgentRotationEnabled();
     }
     
     public void setUserAgentRotationEnabled(boolean enabled) {
         prefs.edit().putBoolean(KEY_ROTATE_USER_AGENT, enabled).apply();
+        refresh();
     }
     
     // 🤖 Getters e Setters para Configurações de Geração de Pesquisa
     public SearchGenerationMode getSearchGenerationMode() {
-        String modeId = prefs.getString(KEY_SEARCH_GENERATION_MODE, "offline");
-        for (SearchGenerationMode mode : SearchGenerationMode.values()) {
-            if (mode.getId().equals(modeId)) {
-                return mode;
-            }
-        }
-        return SearchGenerationMode.OFFLINE;
+        return snapshot.getSearchGenerationMode();
     }
     
     public void setSearchGenerationMode(SearchGenerationMode mode) {
         prefs.edit().putString(KEY_SEARCH_GENERATION_MODE, mode.getId()).apply();
+        refresh();
     }
     
     public String getGeminiApiKey() {
-        return prefs.getString(KEY_GEMINI_API_KEY, "");
+        return snapshot.getGeminiApiKey();
     }
     
     public void setGeminiApiKey(String apiKey) {
         prefs.edit().putString(KEY_GEMINI_API_KEY, apiKey).apply();
+        refresh();
     }
     
     public boolean hasValidGeminiApiKey() {
@@ -348,21 +374,49 @@ public class AppConfig {
         return GeminiSearchGenerator.isValidGeminiApiKey(apiKey);
     }
     
+    public int getQueryLookAhead() {
+        return snapshot.getQueryLookAhead();
+    }
+    
+    public void setQueryLookAhead(int count) {
+        prefs.edit().putInt(KEY_QUERY_LOOK_AHEAD, count).apply();
+        refresh();
+    }
+    
+    public int getGeminiMaxConcurrency() {
+        return snapshot.getGeminiMaxConcurrency();
+    }
+    
+    public void setGeminiMaxConcurrency(int batches) {
+        prefs.edit().putInt(KEY_GEMINI_MAX_CONCURRENCY, batches).apply();
+        refresh();
+    }
+    
+    public int getGeminiRequestsPerMinute() {
+        return snapshot.getGeminiRequestsPerMinute();
+    }
+    
+    public void setGeminiRequestsPerMinute(int requestsPerMinute) {
+        prefs.edit().putInt(KEY_GEMINI_REQUESTS_PER_MINUTE, requestsPerMinute).apply();
+        refresh();
+    }
+    
     // ⏰ Getters e Setters para Configurações de Agendamento
     public boolean isSchedulerEnabled() {
-        return prefs.getBoolean(KEY_SCHEDULER_ENABLED, false);
+        return snapshot.isSchedulerEnabled();
     }
     
     public void setSchedulerEnabled(boolean enabled) {
         prefs.edit().putBoolean(KEY_SCHEDULER_ENABLED, enabled).apply();
+        refresh();
     }
     
     public int getSchedulerHour() {
-        return prefs.getInt(KEY_SCHEDULER_HOUR, 5);
+        return snapshot.getSchedulerHour();
     }
     
     public int getSchedulerMinute() {
-        return prefs.getInt(KEY_SCHEDULER_MINUTE, 0);
+        return snapshot.getSchedulerMinute();
     }
     
     public void setSchedulerTime(int hour, int minute) {
@@ -370,53 +424,40 @@ public class AppConfig {
             .putInt(KEY_SCHEDULER_HOUR, hour)
             .putInt(KEY_SCHEDULER_MINUTE, minute)
             .apply();
+        refresh();
     }
     
     public int getBingSearchCount() {
-        return prefs.getInt(KEY_BING_SEARCH_COUNT, 30);
+        return snapshot.getBingSearchCount();
     }
     
     public void setBingSearchCount(int count) {
         prefs.edit().putInt(KEY_BING_SEARCH_COUNT, count).apply();
+        refresh();
     }
     
     public int getChromeSearchCount() {
-        return prefs.getInt(KEY_CHROME_SEARCH_COUNT, 40);
+        return snapshot.getChromeSearchCount();
     }
     
     public void setChromeSearchCount(int count) {
         prefs.edit().putInt(KEY_CHROME_SEARCH_COUNT, count).apply();
+        refresh();
     }
     
     // 🔧 Métodos utilitários
     public String buildSearchUrl(String query) {
-        SearchEngine engine = getSearchEngine();
-        String template;
-        
-        if (engine == SearchEngine.CUSTOM) {
-            template = getCustomUrlTemplate();
-        } else if (engine == SearchEngine.BING) {
-            // Usar parâmetros personalizáveis para Bing
-            template = String.format("https://www.bing.com/search?q=%%s&PC=%s&FORM=%s", 
-                                   getUrlPcParameter(), getUrlFormParameter());
-        } else {
-            template = engine.getUrlTemplate();
-        }
-        
-        try {
-            return String.format(template, java.net.URLEncoder.encode(query, "UTF-8"));
-        } catch (Exception e) {
-            return String.format(template, query.replaceAll(" ", "+"));
-        }
+        // Template compilado uma vez por fotografia; codificação igual à do URLEncoder
+        return snapshot.getSearchUrl().build(query);
     }
     
     public int getActualSearchInterval() {
-        int baseInterval = getSearchInterval();
+        ConfigSnapshot current = snapshot;
+        int baseInterval = current.getSearchInterval();
         
-        if (isRandomDelayEnabled()) {
-            java.util.Random random = new java.util.Random();
-            int min = getMinRandomDelay();
-            int max = getMaxRandomDelay();
+        if (current.isRandomDelayEnabled()) {
+            int min = current.getMinRandomDelay();
+            int max = current.getMaxRandomDelay();
             int randomDelay = random.nextInt(max - min + 1) + min;
             return baseInterval + randomDelay;
         }
@@ -424,21 +465,29 @@ public class AppConfig {
         return baseInterval;
     }
     
-    // 🏭 Factory method para criar instância
+    // 🏭 Instância única compartilhada pelo processo (serviços e telas)
     public static AppConfig getInstance(Context context) {
-        return new AppConfig(context);
+        if (instance == null) {
+            synchronized (AppConfig.class) {
+                if (instance == null) {
+                    instance = new AppConfig(context.getApplicationContext());
+                }
+            }
+        }
+        return instance;
     }
     
     // 📊 Método para exportar configurações (para backup/debug)
     public String exportConfig() {
+        ConfigSnapshot current = snapshot;
         StringBuilder config = new StringBuilder();
         config.append("=== Microsoft Rewards Bot - Configurações ===\\n");
-        config.append("Intervalo entre pesquisas: ").append(getSearchInterval()).append("s\\n");
-        config.append("Engine de busca: ").append(getSearchEngine().getId()).append("\\n");
-        config.append("App do navegador: ").append(getBrowserApp().getDisplayName()).append("\\n");
-        config.append("Modo IA: ").append(getAIMode().getDisplayName()).append("\\n");
-        config.append("Delay aleatório: ").append(isRandomDelayEnabled() ? "Ativado" : "Desativado").append("\\n");
-        config.append("Modo stealth: ").append(isStealthModeEnabled() ? "Ativado" : "Desativado").append("\\n");
+        config.append("Intervalo entre pesquisas: ").append(current.getSearchInterval()).append("s\\n");
+        config.append("Engine de busca: ").append(current.getSearchEngine().getId()).append("\\n");
+        config.append("App do navegador: ").append(current.getBrowserApp().getDisplayName()).append("\\n");
+        config.append("Modo IA: ").append(current.getAIMode().getDisplayName()).append("\\n");
+        config.append("Delay aleatório: ").append(current.isRandomDelayEnabled() ? "Ativado" : "Desativado").append("\\n");
+        config.append("Modo stealth: ").append(current.isStealthModeEnabled() ? "Ativado" : "Desativado").append("\\n");
         return config.toString();
     }
     
@@ -447,5 +496,6 @@ public class AppConfig {
         SharedPreferences.Editor editor = prefs.edit();
         editor.clear();
         editor.apply();
+        refresh();
     }
 }
\ No newline at end of file
@@ -0,0 +1,88 @@
+package com.deivid22srk.microsoftrewards.utils;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 🧵 Executores do app para rede e geração de pesquisas
+ * Um pool pequeno e limitado, só deste trabalho (o AsyncTask dividia um executor
+ * serial com o resto do processo), um agendador para esperas e prazos, e a thread
+ * principal para os callbacks. Toda tarefa enviada é um NetworkTask: cancelável,
+ * com prazo, e o cancelamento chega às chamadas OkHttp em andamento.
+ */
+public final class AppExecutors {
+
+    // Gerações e streams do Gemini são limitados pela cota da chave, não pela CPU
+    private static final int NETWORK_THREADS = 4;
+    private static final int NETWORK_QUEUE = 64;
+
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger(1);
+
+    private static final ThreadPoolExecutor NETWORK = new ThreadPoolExecutor(
+        NETWORK_THREADS, NETWORK_THREADS, 30, TimeUnit.SECONDS,
+        new LinkedBlockingQueue<Runnable>(NETWORK_QUEUE),
+        runnable -> {
+            Thread thread = new Thread(runnable, "AppNetwork-" + THREAD_COUNT.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    );
+
+    // Esperas do token bucket, backoff e prazos das tarefas (nunca bloqueia)
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "AppScheduler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        NETWORK.allowCoreThreadTimeOut(true);
+    }
+
+    private AppExecutors() {
+    }
+
+    /**
+     * Envia trabalho de rede ao pool; o resultado chega ao callback na thread principal
+     * (nada chega se a tarefa for cancelada por quem a criou)
+     * @param deadlineMs Prazo total a partir de agora (0 = sem prazo); vencido, a tarefa é cancelada
+     * @param callback Pode ser null (quem chamou usa o próprio Future)
+     */
+    public static <T> NetworkTask<T> submit(Callable<T> work, long deadlineMs, NetworkTask.Callback<T> callback) {
+        NetworkTask<T> task = new NetworkTask<>(work, deadlineMs, callback);
+        try {
+            NETWORK.execute(task);
+        } catch (RejectedExecutionException e) {
+            task.reject(e);
+            return task;
+        }
+        task.armDeadline();
+        return task;
+    }
+
+    public static ScheduledExecutorService scheduler() {
+        return SCHEDULER;
+    }
+
+    public static void runOnMain(Runnable runnable) {
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            runnable.run();
+        } else {
+            MainThread.HANDLER.post(runnable);
+        }
+    }
+
+    // Criado só no primeiro callback
+    private static final class MainThread {
+        static final Handler HANDLER = new Handler(Looper.getMainLooper());
+    }
+}
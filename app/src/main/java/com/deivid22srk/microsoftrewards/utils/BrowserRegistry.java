@@ -0,0 +1,283 @@
+package com.deivid22srk.microsoftrewards.utils;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.content.pm.PackageManager;
+import android.net.Uri;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 🌐 Registro de navegadores instalados
+ * Resolve cada navegador uma única vez (instalado ou não, componente de lançamento
+ * e Intent pré-montada) e mantém a cadeia de fallback pronta para cada pesquisa.
+ * O cache é invalidado quando pacotes são instalados, removidos ou atualizados.
+ */
+public class BrowserRegistry {
+
+    private static final String TAG = "BrowserRegistry";
+    private static final String EXTRA_CHROME_INCOGNITO = "com.google.android.apps.chrome.EXTRA_OPEN_NEW_INCOGNITO_TAB";
+
+    private static volatile BrowserRegistry instance;
+
+    private final Context context;
+    private final Map<AppConfig.BrowserApp, BrowserEntry> entries = new EnumMap<>(AppConfig.BrowserApp.class);
+    private final Map<String, List<BrowserEntry>> chains = new HashMap<>();
+    private BrowserEntry defaultBrowser;
+
+    private final BroadcastReceiver packageReceiver = new BroadcastReceiver() {
+        @Override
+        public void onReceive(Context context, Intent intent) {
+            Log.d(TAG, "📦 Pacotes alterados (" + intent.getAction() + "), invalidando navegadores");
+            invalidate();
+        }
+    };
+
+    /**
+     * Navegador resolvido: estado de instalação, alvo para "am start" e Intent base
+     */
+    public static class BrowserEntry {
+        private final AppConfig.BrowserApp browser;
+        private final String displayName;
+        private final String packageName;
+        private final String component;
+        private final boolean installed;
+        private final Intent launchIntent;
+
+        BrowserEntry(AppConfig.BrowserApp browser, String displayName, String packageName,
+                     String component, boolean installed, Intent launchIntent) {
+            this.browser = browser;
+            this.displayName = displayName;
+            this.packageName = packageName;
+            this.component = component;
+            this.installed = installed;
+            this.launchIntent = launchIntent;
+        }
+
+        /** Navegador configurado, ou null para o navegador padrão do sistema */
+        public AppConfig.BrowserApp getBrowser() { return browser; }
+        public String getDisplayName() { return displayName; }
+        public String getPackageName() { return packageName; }
+        public boolean isInstalled() { return installed; }
+
+        /**
+         * Argumento de destino para "am start" (-n componente ou -p pacote; vazio para o
+         * navegador padrão, que o próprio "am start" resolve)
+         */
+        public String getRootTarget() {
+            if (component != null) {
+                return "-n " + component;
+            }
+            return packageName != null ? "-p " + packageName : "";
+        }
+
+        /**
+         * Cria a Intent de abertura a partir da base pré-montada
+         */
+        public Intent createIntent(Uri uri) {
+            Intent intent = new Intent(launchIntent);
+            intent.setData(uri);
+            return intent;
+        }
+    }
+
+    private BrowserRegistry(Context context) {
+        this.context = context;
+
+        IntentFilter filter = new IntentFilter();
+        filter.addAction(Intent.ACTION_PACKAGE_ADDED);
+        filter.addAction(Intent.ACTION_PACKAGE_REMOVED);
+        filter.addAction(Intent.ACTION_PACKAGE_CHANGED);
+        filter.addAction(Intent.ACTION_PACKAGE_REPLACED);
+        filter.addDataScheme("package");
+        context.registerReceiver(packageReceiver, filter);
+    }
+
+    public static BrowserRegistry getInstance(Context context) {
+        if (instance == null) {
+            synchronized (BrowserRegistry.class) {
+                if (instance == null) {
+                    instance = new BrowserRegistry(context.getApplicationContext());
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Retorna o navegador resolvido (consulta o PackageManager apenas na primeira vez)
+     */
+    public synchronized BrowserEntry getEntry(AppConfig.BrowserApp browser) {
+        BrowserEntry entry = entries.get(browser);
+        if (entry == null) {
+            entry = resolve(browser);
+            entries.put(browser, entry);
+        }
+        return entry;
+    }
+
+    /**
+     * Cadeia de abertura pré-calculada: preferido → Chrome (fallback) → navegador padrão.
+     * Contém apenas navegadores instalados, na ordem em que devem ser tentados.
+     */
+    public synchronized List<BrowserEntry> getLaunchChain(AppConfig.BrowserApp preferred, boolean chromeFallback,
+                                                          boolean incognito, boolean stealth) {
+        String key = preferred.name() + '|' + chromeFallback + '|' + incognito + '|' + stealth;
+        List<BrowserEntry> chain = chains.get(key);
+        if (chain == null) {
+            chain = buildChain(preferred, chromeFallback, incognito, stealth);
+            chains.put(key, chain);
+        }
+        return chain;
+    }
+
+    private List<BrowserEntry> buildChain(AppConfig.BrowserApp preferred, boolean chromeFallback,
+                                          boolean incognito, boolean stealth) {
+        List<BrowserEntry> chain = new ArrayList<>();
+
+        addIfInstalled(chain, withConfigExtras(getEntry(preferred), incognito, stealth));
+
+        if (chromeFallback && preferred != AppConfig.BrowserApp.CHROME) {
+            addIfInstalled(chain, withConfigExtras(getEntry(AppConfig.BrowserApp.CHROME), incognito, stealth));
+        }
+
+        addIfInstalled(chain, withConfigExtras(getDefaultBrowser(), incognito, stealth));
+
+        Log.d(TAG, "🔗 Cadeia de navegadores para " + preferred.getDisplayName() + ": " + describe(chain));
+        return Collections.unmodifiableList(chain);
+    }
+
+    private static void addIfInstalled(List<BrowserEntry> chain, BrowserEntry entry) {
+        if (entry.isInstalled()) {
+            chain.add(entry);
+        }
+    }
+
+    /**
+     * Descarta todas as resoluções; a próxima pesquisa resolve novamente
+     */
+    public synchronized void invalidate() {
+        entries.clear();
+        chains.clear();
+        defaultBrowser = null;
+    }
+
+    private BrowserEntry getDefaultBrowser() {
+        if (defaultBrowser == null) {
+            Intent intent = new Intent(Intent.ACTION_VIEW, Uri.parse("https://www.bing.com"));
+            intent.addFlags(Intent.FLAG_ACTIVITY_NEW_TASK);
+            intent.addFlags(Intent.FLAG_ACTIVITY_CLEAR_TOP);
+            intent.addFlags(Intent.FLAG_ACTIVITY_SINGLE_TOP);
+
+            boolean installed = intent.resolveActivity(context.getPackageManager()) != null;
+            if (!installed) {
+                Log.e(TAG, "❌ No browser available to open URL");
+            }
+
+            intent.setData(null);
+            defaultBrowser = new BrowserEntry(null, "Navegador padrão", null, null, installed, intent);
+        }
+        return defaultBrowser;
+    }
+
+    private BrowserEntry resolve(AppConfig.BrowserApp browser) {
+        String packageName = browser.getPackageName();
+        boolean installed = false;
+
+        // Custom package não implementado ainda
+        if (!packageName.isEmpty()) {
+            try {
+                context.getPackageManager().getPackageInfo(packageName, 0);
+                installed = true;
+            } catch (PackageManager.NameNotFoundException e) {
+                Log.w(TAG, "⚠️ Browser not installed: " + browser.getDisplayName());
+            }
+        }
+
+        Intent intent = new Intent(Intent.ACTION_VIEW);
+        intent.addFlags(Intent.FLAG_ACTIVITY_NEW_TASK);
+        intent.addFlags(Intent.FLAG_ACTIVITY_CLEAR_TOP);
+        intent.addFlags(Intent.FLAG_ACTIVITY_SINGLE_TOP);
+        if (installed) {
+            intent.setPackage(packageName);
+        }
+        configureBrowserSpecifics(intent, browser);
+
+        return new BrowserEntry(browser, browser.getDisplayName(), packageName,
+            getComponentForBrowser(browser), installed, intent);
+    }
+
+    /**
+     * Aplica os extras dependentes da configuração sobre a Intent base
+     */
+    private static BrowserEntry withConfigExtras(BrowserEntry entry, boolean incognito, boolean stealth) {
+        if (!incognito && !stealth) {
+            return entry;
+        }
+
+        Intent intent = new Intent(entry.launchIntent);
+
+        // Modo incógnito se habilitado (apenas para Chrome)
+        if (incognito) {
+            intent.putExtra(EXTRA_CHROME_INCOGNITO, true);
+        }
+
+        // Configurações stealth se habilitadas
+        if (stealth) {
+            intent.putExtra("create_new_tab", true);
+        }
+
+        return new BrowserEntry(entry.browser, entry.displayName, entry.packageName,
+            entry.component, entry.installed, intent);
+    }
+
+    private static void configureBrowserSpecifics(Intent intent, AppConfig.BrowserApp browser) {
+        switch (browser) {
+            case BING:
+                // Configurações específicas do Bing
+                intent.putExtra("msrewards", true);
+                break;
+            case EDGE:
+                // Configurações específicas do Edge
+                intent.putExtra("edge_rewards", true);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Retorna o componente específico para cada navegador
+     */
+    private static String getComponentForBrowser(AppConfig.BrowserApp browser) {
+        switch (browser) {
+            case CHROME:
+                return "com.android.chrome/com.google.android.apps.chrome.Main";
+            case BING:
+                return "com.microsoft.bing/com.microsoft.sapphire.app.main.MainActivity";
+            case EDGE:
+                return "com.microsoft.emmx/com.microsoft.ruby.Main";
+            case FIREFOX:
+                return "org.mozilla.firefox/.App";
+            default:
+                return null;
+        }
+    }
+
+    private static String describe(List<BrowserEntry> chain) {
+        StringBuilder builder = new StringBuilder();
+        for (BrowserEntry entry : chain) {
+            if (builder.length() > 0) builder.append(" → ");
+            builder.append(entry.getDisplayName());
+        }
+        return builder.length() > 0 ? builder.toString() : "(nenhum)";
+    }
+}
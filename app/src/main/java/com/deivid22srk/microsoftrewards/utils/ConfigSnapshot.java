@@ -0,0 +1,183 @@
+package com.deivid22srk.microsoftrewards.utils;
+
+import android.content.SharedPreferences;
+
+/**
+ * 📸 Fotografia imutável de todas as configurações
+ * Lida do SharedPreferences uma única vez (enums e templates já resolvidos)
+ * e compartilhada entre serviços e telas até a próxima alteração.
+ */
+public final class ConfigSnapshot {
+
+    // ⏰ Tempo
+    private final int searchInterval;
+    private final int countdownInterval;
+    private final int resultDisplayTime;
+
+    // 🌐 URL
+    private final AppConfig.SearchEngine searchEngine;
+    private final String customUrlTemplate;
+    private final String urlPcParameter;
+    private final String urlFormParameter;
+    private final SearchUrlTemplate searchUrl;
+
+    // 📱 App
+    private final AppConfig.BrowserApp browserApp;
+    private final boolean chromeFallbackEnabled;
+    private final boolean incognitoModeEnabled;
+
+    // 🎯 Automação
+    private final boolean autoCloseTabsEnabled;
+    private final boolean randomDelayEnabled;
+    private final int minRandomDelay;
+    private final int maxRandomDelay;
+
+    // 🧠 IA
+    private final AppConfig.AIMode aiMode;
+    private final boolean contextualLearningEnabled;
+    private final boolean temporalAwarenessEnabled;
+    private final AppConfig.SearchGenerationMode searchGenerationMode;
+    private final String geminiApiKey;
+    private final int queryLookAhead;
+    private final int geminiMaxConcurrency;
+    private final int geminiRequestsPerMinute;
+
+    // 🔐 Segurança
+    private final boolean stealthModeEnabled;
+    private final boolean userAgentRotationEnabled;
+
+    // ⏰ Agendamento
+    private final boolean schedulerEnabled;
+    private final int schedulerHour;
+    private final int schedulerMinute;
+    private final int bingSearchCount;
+    private final int chromeSearchCount;
+
+    ConfigSnapshot(SharedPreferences prefs) {
+        searchInterval = prefs.getInt(AppConfig.KEY_SEARCH_INTERVAL, AppConfig.DEFAULT_SEARCH_INTERVAL);
+        countdownInterval = prefs.getInt(AppConfig.KEY_COUNTDOWN_INTERVAL, AppConfig.DEFAULT_COUNTDOWN_INTERVAL);
+        resultDisplayTime = prefs.getInt(AppConfig.KEY_RESULT_DISPLAY_TIME, AppConfig.DEFAULT_RESULT_DISPLAY_TIME);
+
+        searchEngine = parseSearchEngine(prefs.getString(AppConfig.KEY_SEARCH_ENGINE, AppConfig.DEFAULT_SEARCH_ENGINE));
+        customUrlTemplate = prefs.getString(AppConfig.KEY_CUSTOM_URL_TEMPLATE, AppConfig.SearchEngine.BING.getUrlTemplate());
+        urlPcParameter = prefs.getString(AppConfig.KEY_URL_PC_PARAMETER, "U316");
+        urlFormParameter = prefs.getString(AppConfig.KEY_URL_FORM_PARAMETER, "CHROMN");
+        searchUrl = compileSearchUrl();
+
+        browserApp = parseBrowserApp(prefs.getString(AppConfig.KEY_BROWSER_APP, AppConfig.DEFAULT_BROWSER_APP));
+        chromeFallbackEnabled = prefs.getBoolean(AppConfig.KEY_ENABLE_CHROME_FALLBACK, true);
+        incognitoModeEnabled = prefs.getBoolean(AppConfig.KEY_USE_INCOGNITO_MODE, false);
+
+        autoCloseTabsEnabled = prefs.getBoolean(AppConfig.KEY_AUTO_CLOSE_TABS, false);
+        randomDelayEnabled = prefs.getBoolean(AppConfig.KEY_RANDOM_DELAY_ENABLED, true);
+        minRandomDelay = prefs.getInt(AppConfig.KEY_MIN_RANDOM_DELAY, 3);
+        maxRandomDelay = prefs.getInt(AppConfig.KEY_MAX_RANDOM_DELAY, 8);
+
+        aiMode = parseAIMode(prefs.getString(AppConfig.KEY_AI_MODE, AppConfig.DEFAULT_AI_MODE));
+        contextualLearningEnabled = prefs.getBoolean(AppConfig.KEY_ENABLE_CONTEXTUAL_LEARNING, true);
+        temporalAwarenessEnabled = prefs.getBoolean(AppConfig.KEY_ENABLE_TEMPORAL_AWARENESS, true);
+        searchGenerationMode = parseSearchGenerationMode(prefs.getString(AppConfig.KEY_SEARCH_GENERATION_MODE, "offline"));
+        geminiApiKey = prefs.getString(AppConfig.KEY_GEMINI_API_KEY, "");
+        queryLookAhead = Math.max(1, prefs.getInt(AppConfig.KEY_QUERY_LOOK_AHEAD, AppConfig.DEFAULT_QUERY_LOOK_AHEAD));
+        geminiMaxConcurrency = Math.max(1, prefs.getInt(AppConfig.KEY_GEMINI_MAX_CONCURRENCY, AppConfig.DEFAULT_GEMINI_MAX_CONCURRENCY));
+        geminiRequestsPerMinute = Math.max(0, prefs.getInt(AppConfig.KEY_GEMINI_REQUESTS_PER_MINUTE, AppConfig.DEFAULT_GEMINI_REQUESTS_PER_MINUTE));
+
+        stealthModeEnabled = prefs.getBoolean(AppConfig.KEY_STEALTH_MODE, false);
+        userAgentRotationEnabled = prefs.getBoolean(AppConfig.KEY_ROTATE_USER_AGENT, false);
+
+        schedulerEnabled = prefs.getBoolean(AppConfig.KEY_SCHEDULER_ENABLED, false);
+        schedulerHour = prefs.getInt(AppConfig.KEY_SCHEDULER_HOUR, 5);
+        schedulerMinute = prefs.getInt(AppConfig.KEY_SCHEDULER_MINUTE, 0);
+        bingSearchCount = prefs.getInt(AppConfig.KEY_BING_SEARCH_COUNT, 30);
+        chromeSearchCount = prefs.getInt(AppConfig.KEY_CHROME_SEARCH_COUNT, 40);
+    }
+
+    /**
+     * Template de URL compilado uma única vez, conforme o motor
+     */
+    private SearchUrlTemplate compileSearchUrl() {
+        if (searchEngine == AppConfig.SearchEngine.CUSTOM) {
+            return SearchUrlTemplate.compile(customUrlTemplate);
+        } else if (searchEngine == AppConfig.SearchEngine.BING) {
+            // Usar parâmetros personalizáveis para Bing (inseridos como texto literal)
+            return SearchUrlTemplate.around("https://www.bing.com/search?q=",
+                                            "&PC=" + urlPcParameter + "&FORM=" + urlFormParameter);
+        } else {
+            return SearchUrlTemplate.compile(searchEngine.getUrlTemplate());
+        }
+    }
+
+    private static AppConfig.SearchEngine parseSearchEngine(String engineId) {
+        for (AppConfig.SearchEngine engine : AppConfig.SearchEngine.values()) {
+            if (engine.getId().equals(engineId)) {
+                return engine;
+            }
+        }
+        return AppConfig.SearchEngine.BING;
+    }
+
+    private static AppConfig.BrowserApp parseBrowserApp(String packageName) {
+        for (AppConfig.BrowserApp app : AppConfig.BrowserApp.values()) {
+            if (app.getPackageName().equals(packageName)) {
+                return app;
+            }
+        }
+        return AppConfig.BrowserApp.CHROME;
+    }
+
+    private static AppConfig.AIMode parseAIMode(String modeId) {
+        for (AppConfig.AIMode mode : AppConfig.AIMode.values()) {
+            if (mode.getId().equals(modeId)) {
+                return mode;
+            }
+        }
+        return AppConfig.AIMode.CHATGPT;
+    }
+
+    private static AppConfig.SearchGenerationMode parseSearchGenerationMode(String modeId) {
+        for (AppConfig.SearchGenerationMode mode : AppConfig.SearchGenerationMode.values()) {
+            if (mode.getId().equals(modeId)) {
+                return mode;
+            }
+        }
+        return AppConfig.SearchGenerationMode.OFFLINE;
+    }
+
+    public int getSearchInterval() { return searchInterval; }
+    public int getCountdownInterval() { return countdownInterval; }
+    public int getResultDisplayTime() { return resultDisplayTime; }
+
+    public AppConfig.SearchEngine getSearchEngine() { return searchEngine; }
+    public String getCustomUrlTemplate() { return customUrlTemplate; }
+    public String getUrlPcParameter() { return urlPcParameter; }
+    public String getUrlFormParameter() { return urlFormParameter; }
+    public SearchUrlTemplate getSearchUrl() { return searchUrl; }
+
+    public AppConfig.BrowserApp getBrowserApp() { return browserApp; }
+    public boolean isChromeFallbackEnabled() { return chromeFallbackEnabled; }
+    public boolean isIncognitoModeEnabled() { return incognitoModeEnabled; }
+
+    public boolean isAutoCloseTabsEnabled() { return autoCloseTabsEnabled; }
+    public boolean isRandomDelayEnabled() { return randomDelayEnabled; }
+    public int getMinRandomDelay() { return minRandomDelay; }
+    public int getMaxRandomDelay() { return maxRandomDelay; }
+
+    public AppConfig.AIMode getAIMode() { return aiMode; }
+    public boolean isContextualLearningEnabled() { return contextualLearningEnabled; }
+    public boolean isTemporalAwarenessEnabled() { return temporalAwarenessEnabled; }
+    public AppConfig.SearchGenerationMode getSearchGenerationMode() { return searchGenerationMode; }
+    public String getGeminiApiKey() { return geminiApiKey; }
+    public int getQueryLookAhead() { return queryLookAhead; }
+    public int getGeminiMaxConcurrency() { return geminiMaxConcurrency; }
+    /** Requisições por minuto da chave; 0 = usar a cota gratuita do modelo */
+    public int getGeminiRequestsPerMinute() { return geminiRequestsPerMinute; }
+
+    public boolean isStealthModeEnabled() { return stealthModeEnabled; }
+    public boolean isUserAgentRotationEnabled() { return userAgentRotationEnabled; }
+
+    public boolean isSchedulerEnabled() { return schedulerEnabled; }
+    public int getSchedulerHour() { return schedulerHour; }
+    public int getSchedulerMinute() { return schedulerMinute; }
+    public int getBingSearchCount() { return bingSearchCount; }
+    public int getChromeSearchCount() { return chromeSearchCount; }
+}
@@ -0,0 +1,389 @@
+package com.deivid22srk.microsoftrewards.utils;
+
+import android.util.Log;
+
+import com.deivid22srk.microsoftrewards.model.SearchItem;
+
+import org.json.JSONException;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.OkHttpClient;
+import okhttp3.Response;
+
+/**
+ * 🚀 Lotes do Gemini em paralelo (OkHttp enqueue)
+ *
+ * Uma geração grande vira N lotes de até 25 termos, enviados ao mesmo tempo
+ * até o limite de concorrência, com o token bucket da chave controlando o
+ * ritmo. Respostas 429/503 voltam para a fila após Retry-After (ou o
+ * retryDelay da API) com backoff exponencial e jitter. Cada lote ocupa sua
+ * posição na saída, que é montada em ordem conforme os lotes chegam.
+ */
+public final class GeminiBatchPipeline {
+
+    private static final String TAG = "GeminiBatchPipeline";
+
+    public static final int BATCH_SIZE = 25;
+
+    // Tentativas extras por lote após 429/5xx
+    private static final int MAX_RETRIES = 3;
+    private static final long BACKOFF_BASE_MS = 1000;
+    private static final long BACKOFF_MAX_MS = 30000;
+
+    // Um token bucket por chave + modelo: todas as gerações do processo dividem a cota
+    private static final Map<String, TokenBucket> LIMITERS = new HashMap<>();
+
+    // Envios adiados (espera do token bucket e backoff) sem ocupar threads do OkHttp
+    private static final ScheduledExecutorService SCHEDULER = AppExecutors.scheduler();
+
+    private static final RetryBackoff BACKOFF = new RetryBackoff(BACKOFF_BASE_MS, BACKOFF_MAX_MS, new Random());
+
+    /**
+     * Recebe a saída ordenada sempre que um novo trecho contínuo fica pronto
+     */
+    public interface OnProgressListener {
+        void onProgress(List<SearchItem> ordered, int totalCount);
+    }
+
+    private final OkHttpClient client;
+    private final String apiKey;
+    private final GeminiSearchGenerator.GeminiModel model;
+    private final int maxConcurrency;
+    private final TokenBucket limiter;
+
+    public GeminiBatchPipeline(OkHttpClient client, String apiKey, GeminiSearchGenerator.GeminiModel model,
+                               int maxConcurrency, int requestsPerMinute) {
+        this.client = client;
+        this.apiKey = apiKey;
+        this.model = model;
+        this.maxConcurrency = Math.max(1, maxConcurrency);
+        this.limiter = limiterFor(apiKey, model, this.maxConcurrency, requestsPerMinute);
+    }
+
+    /**
+     * Token bucket compartilhado da chave: taxa = RPM configurado (ou a cota gratuita do modelo),
+     * rajada = limite de concorrência (um lote por vaga já sai no primeiro instante)
+     */
+    static TokenBucket limiterFor(String apiKey, GeminiSearchGenerator.GeminiModel model,
+                                  int burst, int requestsPerMinute) {
+        int rpm = requestsPerMinute > 0 ? requestsPerMinute : model.getFreeTierRequestsPerMinute();
+        int capacity = Math.max(1, Math.min(burst, rpm));
+        String key = model.getModelId() + ":" + apiKey;
+        synchronized (LIMITERS) {
+            TokenBucket limiter = LIMITERS.get(key);
+            if (limiter == null || limiter.getRequestsPerMinute() != rpm || limiter.getCapacity() != capacity) {
+                limiter = new TokenBucket(capacity, rpm);
+                LIMITERS.put(key, limiter);
+            }
+            return limiter;
+        }
+    }
+
+    /**
+     * Gera totalCount pesquisas; retorna os lotes concluídos em ordem (reindexados a partir de 1).
+     * Sem nenhum lote concluído, lança o último erro.
+     */
+    public List<SearchItem> run(int totalCount, long timeoutMs, OnProgressListener listener)
+            throws IOException, InterruptedException {
+        Run run = new Run(totalCount, listener);
+        Log.d(TAG, "🚀 " + totalCount + " pesquisas em " + run.batchCount + " lotes (até "
+            + maxConcurrency + " simultâneos, " + limiter + ")");
+
+        run.pump();
+        boolean finished;
+        try {
+            finished = run.done.await(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            run.cancel();
+            throw e;
+        }
+        if (!finished) {
+            Log.w(TAG, "⏱️ Tempo esgotado: cancelando lotes pendentes");
+            run.cancel();
+        }
+
+        List<SearchItem> result = run.collect();
+        Log.d(TAG, "✅ " + result.size() + "/" + totalCount + " pesquisas de "
+            + run.completedBatches() + "/" + run.batchCount + " lotes");
+        if (result.isEmpty() && run.lastError != null) {
+            throw run.lastError;
+        }
+        return result;
+    }
+
+    /**
+     * Estado de uma geração: fila de lotes, vagas ocupadas e resultados por posição
+     */
+    private final class Run {
+        final int totalCount;
+        final int batchCount;
+        final OnProgressListener listener;
+        final CountDownLatch done = new CountDownLatch(1);
+
+        final ArrayDeque<Integer> queue = new ArrayDeque<>();
+        final List<SearchItem>[] results;
+        final boolean[] finished;
+        final int[] attempts;
+        final Set<Call> calls = new HashSet<>();
+
+        final List<SearchItem> ordered = new ArrayList<>();
+        final Set<String> seen = new HashSet<>();
+        int nextToMerge = 0;
+        int inFlight = 0;
+        int finishedCount = 0;
+        boolean cancelled = false;
+        volatile IOException lastError;
+
+        @SuppressWarnings("unchecked")
+        Run(int totalCount, OnProgressListener listener) {
+            this.totalCount = totalCount;
+            this.batchCount = (totalCount + BATCH_SIZE - 1) / BATCH_SIZE;
+            this.listener = listener;
+            this.results = new List[batchCount];
+            this.finished = new boolean[batchCount];
+            this.attempts = new int[batchCount];
+            for (int i = 0; i < batchCount; i++) {
+                queue.add(i);
+            }
+            if (batchCount == 0) {
+                done.countDown();
+            }
+        }
+
+        int batchSize(int batch) {
+            return Math.min(BATCH_SIZE, totalCount - batch * BATCH_SIZE);
+        }
+
+        /**
+         * Ocupa as vagas livres; cada lote espera a ficha do token bucket antes de sair
+         */
+        synchronized void pump() {
+            while (!cancelled && inFlight < maxConcurrency && !queue.isEmpty()) {
+                int batch = queue.poll();
+                inFlight++;
+                long wait = limiter.reserve();
+                if (wait > 0) {
+                    SCHEDULER.schedule(() -> send(batch), wait, TimeUnit.MILLISECONDS);
+                } else {
+                    send(batch);
+                }
+            }
+        }
+
+        void send(int batch) {
+            Call call;
+            synchronized (this) {
+                if (cancelled) {
+                    return;
+                }
+                try {
+                    call = client.newCall(GeminiSearchGenerator.buildBatchRequest(
+                        batchSize(batch), batch * BATCH_SIZE, totalCount, apiKey, model));
+                } catch (JSONException e) {
+                    fail(batch, new IOException("Falha ao montar o lote " + (batch + 1), e));
+                    return;
+                }
+                calls.add(call);
+            }
+
+            call.enqueue(new Callback() {
+                @Override
+                public void onFailure(Call call, IOException e) {
+                    forget(call);
+                    if (!call.isCanceled()) {
+                        GeminiMetrics.getInstance().recordFailedCall();
+                        Log.w(TAG, "⚠️ Lote " + (batch + 1) + " falhou: " + e.getMessage());
+                        fail(batch, e);
+                    }
+                }
+
+                @Override
+                public void onResponse(Call call, Response response) {
+                    forget(call);
+                    try (Response closing = response) {
+                        if (closing.isSuccessful()) {
+                            complete(batch, closing);
+                            return;
+                        }
+                        GeminiMetrics.getInstance().recordFailedCall();
+                        String body = closing.body() != null ? closing.body().string() : "";
+                        if (isRetryable(closing.code())) {
+                            retry(batch, closing, body);
+                        } else {
+                            Log.e(TAG, "Erro na API (lote " + (batch + 1) + "): " + closing.code() + " - " + body);
+                            fail(batch, new IOException("Erro na API Gemini: " + closing.code() + " - " + body));
+                        }
+                    } catch (IOException e) {
+                        fail(batch, e);
+                    }
+                }
+            });
+        }
+
+        synchronized void forget(Call call) {
+            calls.remove(call);
+        }
+
+        /**
+         * Lê o lote em fluxo (SSE), sem carregar o corpo inteiro
+         */
+        void complete(int batch, Response response) throws IOException {
+            List<SearchItem> items = new ArrayList<>(batchSize(batch));
+            boolean usable = false;
+            try {
+                usable = GeminiSearchGenerator.hasUsableTerms(GeminiSearchGenerator.readStream(response, items::add));
+            } catch (JSONException | RuntimeException e) {
+                Log.w(TAG, "⚠️ Resposta ilegível no lote " + (batch + 1) + ": " + e.getMessage());
+            }
+            if (!usable) {
+                // Sem termos aproveitáveis: o lote conta como falha na regra dos 70%
+                fail(batch, new IOException("Lote " + (batch + 1) + " sem termos válidos"));
+                return;
+            }
+            Log.d(TAG, "📦 Lote " + (batch + 1) + "/" + batchCount + ": " + items.size() + " termos");
+            finish(batch, items);
+        }
+
+        /**
+         * 429/503: devolver o lote à fila depois do prazo pedido (com jitter), pausando a chave
+         */
+        void retry(int batch, Response response, String body) {
+            int attempt;
+            synchronized (this) {
+                attempt = ++attempts[batch];
+            }
+            if (attempt > MAX_RETRIES) {
+                fail(batch, new IOException("Erro na API Gemini: " + response.code() + " após "
+                    + MAX_RETRIES + " tentativas"));
+                return;
+            }
+
+            long serverDelay = RetryBackoff.parseRetryAfterMs(response.header("Retry-After"), System.currentTimeMillis());
+            if (serverDelay < 0) {
+                serverDelay = GeminiResponseParser.retryDelayMs(body);
+            }
+            long delay = BACKOFF.delayMs(attempt, serverDelay);
+            if (response.code() == 429) {
+                limiter.pauseFor(delay);
+            }
+            Log.w(TAG, "⏳ Lote " + (batch + 1) + ": HTTP " + response.code() + ", nova tentativa em "
+                + delay + "ms (" + attempt + "/" + MAX_RETRIES + ")");
+
+            synchronized (this) {
+                inFlight--;
+            }
+            SCHEDULER.schedule(() -> {
+                synchronized (this) {
+                    queue.addFirst(batch);
+                }
+                pump();
+            }, delay, TimeUnit.MILLISECONDS);
+        }
+
+        void fail(int batch, IOException error) {
+            lastError = error;
+            finish(batch, null);
+        }
+
+        /**
+         * Guarda o lote na sua posição e junta à saída o trecho contínuo já pronto
+         */
+        void finish(int batch, List<SearchItem> items) {
+            List<SearchItem> snapshot = null;
+            boolean all;
+            synchronized (this) {
+                if (finished[batch]) {
+                    return;
+                }
+                finished[batch] = true;
+                results[batch] = items;
+                finishedCount++;
+                inFlight--;
+
+                int before = ordered.size();
+                while (nextToMerge < batchCount && finished[nextToMerge]) {
+                    merge(results[nextToMerge]);
+                    nextToMerge++;
+                }
+                if (listener != null && ordered.size() > before) {
+                    snapshot = new ArrayList<>(ordered);
+                }
+                all = finishedCount == batchCount;
+            }
+
+            if (snapshot != null) {
+                listener.onProgress(snapshot, totalCount);
+            }
+            if (all) {
+                // Só depois do último aviso: run() não retorna com progresso pendente
+                done.countDown();
+            } else {
+                pump();
+            }
+        }
+
+        private void merge(List<SearchItem> items) {
+            if (items == null) {
+                return;
+            }
+            for (SearchItem item : items) {
+                if (ordered.size() >= totalCount) {
+                    return;
+                }
+                String text = item.getSearchText();
+                if (seen.add(text.toLowerCase())) {
+                    ordered.add(new SearchItem(text, ordered.size() + 1));
+                }
+            }
+        }
+
+        synchronized void cancel() {
+            cancelled = true;
+            for (Call call : calls) {
+                call.cancel();
+            }
+            calls.clear();
+        }
+
+        /**
+         * Saída final: trecho já montado + lotes concluídos depois de alguma lacuna
+         */
+        synchronized List<SearchItem> collect() {
+            for (int batch = nextToMerge; batch < batchCount; batch++) {
+                if (finished[batch]) {
+                    merge(results[batch]);
+                }
+            }
+            nextToMerge = batchCount;
+            return new ArrayList<>(ordered);
+        }
+
+        synchronized int completedBatches() {
+            int completed = 0;
+            for (List<SearchItem> result : results) {
+                if (result != null) {
+                    completed++;
+                }
+            }
+            return completed;
+        }
+    }
+
+    private static boolean isRetryable(int code) {
+        return code == 429 || code == 500 || code == 503;
+    }
+}
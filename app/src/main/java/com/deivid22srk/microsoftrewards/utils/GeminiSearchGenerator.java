@@ -1,7 +1,6 @@
 package com.deivid22srk.microsoftrewards.utils;
 
 import android.content.Context;
-import android.os.AsyncTask;
 import android.util.Log;
 
 import com.deivid22srk.microsoftrewards.model.SearchItem;
@@ -12,8 +11,10 @@ import org.json.JSONObject;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Random;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
 import okhttp3.MediaType;
@@ -21,6 +22,7 @@ import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.RequestBody;
 import okhttp3.Response;
+import okio.BufferedSource;
 
 /**
  * 🤖 Integração com Gemini AI para geração de pesquisas inteligentes
@@ -30,34 +32,57 @@ import okhttp3.Response;
  * - gemini-2.5-flash: Melhor custo-benefício (padrão)
  * - gemini-2.5-pro: Mais avançado para tarefas complexas
  * - gemini-2.5-flash-lite: Mais rápido e econômico
+ * 
+ * SAÍDA ESTRUTURADA: a resposta é pedida como array JSON de strings
+ * (responseMimeType + responseSchema) e lida em fluxo, termo a termo.
  */
 public class GeminiSearchGenerator {
     
     private static final String TAG = "GeminiSearchGenerator";
-    private static final String BASE_API_URL = "https://generativelanguage.googleapis.com/v1/models";
+    private static final String BASE_API_URL = "https://generativelanguage.googleapis.com/v1beta/models";
     private static final MediaType JSON = MediaType.get("application/json; charset=utf-8");
     
-    // Modelos disponíveis em 2025
+    // Modelos disponíveis em 2025 (com a cota de requisições por minuto do nível gratuito
+    // e o menor orçamento de raciocínio aceito: o Pro não permite desligar o raciocínio)
     public enum GeminiModel {
-        FLASH_2_5("gemini-2.5-flash", "Gemini 2.5 Flash (Recomendado)"),
-        PRO_2_5("gemini-2.5-pro", "Gemini 2.5 Pro (Mais Avançado)"),
-        FLASH_LITE_2_5("gemini-2.5-flash-lite", "Gemini 2.5 Flash-Lite (Mais Rápido)");
+        FLASH_2_5("gemini-2.5-flash", "Gemini 2.5 Flash (Recomendado)", 10, 0),
+        PRO_2_5("gemini-2.5-pro", "Gemini 2.5 Pro (Mais Avançado)", 5, 128),
+        FLASH_LITE_2_5("gemini-2.5-flash-lite", "Gemini 2.5 Flash-Lite (Mais Rápido)", 15, 0);
         
         private final String modelId;
         private final String displayName;
+        private final int freeTierRequestsPerMinute;
+        private final int minThinkingBudget;
         
-        GeminiModel(String modelId, String displayName) {
+        GeminiModel(String modelId, String displayName, int freeTierRequestsPerMinute, int minThinkingBudget) {
             this.modelId = modelId;
             this.displayName = displayName;
+            this.freeTierRequestsPerMinute = freeTierRequestsPerMinute;
+            this.minThinkingBudget = minThinkingBudget;
         }
         
         public String getModelId() { return modelId; }
         public String getDisplayName() { return displayName; }
-        public String getApiUrl() { return BASE_API_URL + "/" + modelId + ":generateContent"; }
+        public int getFreeTierRequestsPerMinute() { return freeTierRequestsPerMinute; }
+        public int getMinThinkingBudget() { return minThinkingBudget; }
+        public String getStreamUrl() { return BASE_API_URL + "/" + modelId + ":streamGenerateContent?alt=sse"; }
     }
     
     // Modelo padrão
-    private static final GeminiModel DEFAULT_MODEL = GeminiModel.FLASH_2_5;
+    static final GeminiModel DEFAULT_MODEL = GeminiModel.FLASH_2_5;
+    
+    // Prazo total de uma geração em lotes (os lotes que não chegarem são descartados)
+    private static final long BATCH_PIPELINE_TIMEOUT_MS = 60000;
+    
+    // Prazo de uma geração assíncrona inteira (lotes + complemento local) e do teste da API
+    private static final long GENERATION_DEADLINE_MS = 75000;
+    private static final long CONNECTION_TEST_DEADLINE_MS = 45000;
+    
+    // Orçamento de saída por lote: um termo de 2 a 6 palavras ocupa ~10 tokens com aspas e
+    // vírgula; 24 por termo deixa folga para o lote nunca terminar em MAX_TOKENS
+    private static final int TOKENS_PER_TERM = 24;
+    private static final int RESPONSE_OVERHEAD_TOKENS = 64;
+    private static final int MAX_OUTPUT_TOKENS = 8192;
     
     // Cliente HTTP configurado para requisições à API
     private static final OkHttpClient client = new OkHttpClient.Builder()
@@ -79,72 +104,55 @@ public class GeminiSearchGenerator {
      * @param count Número de pesquisas a gerar
      * @param context Contexto da aplicação
      * @param apiKey API Key do Gemini
-     * @param listener Callback para resultado
+     * @param listener Callback para resultado (thread principal); pode ser null
+     * @return Tarefa cancelável: cancelar interrompe a geração e as chamadas HTTP em andamento
      */
-    public static void generateSearchesWithGemini(int count, Context context, String apiKey, OnSearchGeneratedListener listener) {
-        generateSearchesWithGemini(count, context, apiKey, DEFAULT_MODEL, listener);
+    public static NetworkTask<List<SearchItem>> generateSearchesWithGemini(int count, Context context, String apiKey, OnSearchGeneratedListener listener) {
+        return generateSearchesWithGemini(count, context, apiKey, DEFAULT_MODEL, listener);
     }
     
     /**
      * Gera pesquisas usando Gemini AI com modelo específico
      */
-    public static void generateSearchesWithGemini(int count, Context context, String apiKey, GeminiModel model, OnSearchGeneratedListener listener) {
-        new GenerateSearchTask(count, context, apiKey, model, listener).execute();
+    public static NetworkTask<List<SearchItem>> generateSearchesWithGemini(int count, Context context, String apiKey, GeminiModel model, OnSearchGeneratedListener listener) {
+        Context appContext = context != null ? context.getApplicationContext() : null;
+        return AppExecutors.submit(() -> generateSingleBatch(count, appContext, apiKey, model),
+                GENERATION_DEADLINE_MS, listener != null ? toCallback(listener) : null);
     }
     
     /**
-     * Task assíncrona para geração de pesquisas
+     * Adapta o listener de geração ao callback da tarefa
      */
-    private static class GenerateSearchTask extends AsyncTask<Void, Void, List<SearchItem>> {
-        
-        private final int count;
-        private final Context context;
-        private final String apiKey;
-        private final GeminiModel model;
-        private final OnSearchGeneratedListener listener;
-        private String errorMessage;
-        
-        public GenerateSearchTask(int count, Context context, String apiKey, GeminiModel model, OnSearchGeneratedListener listener) {
-            this.count = count;
-            this.context = context;
-            this.apiKey = apiKey;
-            this.model = model;
-            this.listener = listener;
-        }
-        
-        @Override
-        protected List<SearchItem> doInBackground(Void... voids) {
-            try {
-                return generateSingleBatch(count, apiKey, model);
-            } catch (Exception e) {
-                Log.e(TAG, "Erro ao gerar pesquisas com Gemini", e);
-                errorMessage = "Erro na comunicação com Gemini AI: " + e.getMessage();
-                return null;
+    private static NetworkTask.Callback<List<SearchItem>> toCallback(OnSearchGeneratedListener listener) {
+        return new NetworkTask.Callback<List<SearchItem>>() {
+            @Override
+            public void onSuccess(List<SearchItem> result) {
+                if (result != null && !result.isEmpty()) {
+                    listener.onSuccess(result);
+                } else {
+                    listener.onError("Falha na geração de pesquisas");
+                }
             }
-        }
-        
-        @Override
-        protected void onPostExecute(List<SearchItem> result) {
-            if (result != null && !result.isEmpty()) {
-                listener.onSuccess(result);
-            } else {
-                String error = errorMessage != null ? errorMessage : "Falha na geração de pesquisas";
-                listener.onError(error);
+            
+            @Override
+            public void onError(Exception error) {
+                Log.e(TAG, "Erro ao gerar pesquisas com Gemini", error);
+                listener.onError("Erro na comunicação com Gemini AI: " + error.getMessage());
             }
-        }
+        };
     }
     
     /**
      * Gera um lote único de pesquisas (método principal)
      */
-    private static List<SearchItem> generateSingleBatch(int count, String apiKey, GeminiModel model) throws IOException, JSONException {
+    private static List<SearchItem> generateSingleBatch(int count, Context context, String apiKey, GeminiModel model) throws IOException, JSONException {
         // Otimizar geração baseada no número solicitado
-        int batchSize = Math.min(count, 25); // Aumentar limite para 25 por lote
+        int batchSize = Math.min(count, GeminiBatchPipeline.BATCH_SIZE);
         
-        if (count > 25) {
+        if (count > GeminiBatchPipeline.BATCH_SIZE) {
             // Para números grandes, usar geração em múltiplos lotes
             Log.d(TAG, "Gerando " + count + " pesquisas em múltiplos lotes (máximo 25 por lote)");
-            return generateMultipleBatches(count, apiKey, model);
+            return generateMultipleBatches(count, context, apiKey, model);
         }
         
         Log.d(TAG, "Gerando " + batchSize + " pesquisas em lote único");
@@ -155,108 +163,41 @@ public class GeminiSearchGenerator {
         Log.d(TAG, "Prompt criado: " + prompt);
         
         // Construir request JSON
-        JSONObject requestBody = buildOptimizedGeminiRequest(prompt);
+        JSONObject requestBody = buildOptimizedGeminiRequest(prompt, batchSize, model);
         
-        // Fazer requisição HTTP
-        String fullUrl = model.getApiUrl() + "?key=" + apiKey;
-        Log.d(TAG, "Fazendo requisição para: " + model.getApiUrl());
+        // Fazer requisição HTTP (resposta em fluxo: termos lidos conforme chegam)
+        Log.d(TAG, "Fazendo requisição para: " + model.getStreamUrl());
+        Request request = buildRequest(model.getStreamUrl(), apiKey, requestBody);
         
-        Request request = new Request.Builder()
-                .url(fullUrl)
-                .post(RequestBody.create(requestBody.toString(), JSON))
-                .addHeader("Content-Type", "application/json")
-                .addHeader("User-Agent", "Microsoft-Rewards-Bot/2.0")
-                .build();
-        
-        try (Response response = client.newCall(request).execute()) {
+        List<SearchItem> searchItems = new ArrayList<>(batchSize);
+        GeminiStreamParser parser;
+        try (Response response = execute(request)) {
             Log.d(TAG, "Resposta recebida: " + response.code() + " " + response.message());
-            
-            if (!response.isSuccessful()) {
-                String errorBody = response.body() != null ? response.body().string() : "Sem corpo na resposta";
-                Log.e(TAG, "Erro na API: " + response.code() + " - " + errorBody);
-                throw new IOException("Erro na API Gemini: " + response.code() + " - " + errorBody);
-            }
-            
-            String responseBody = response.body().string();
-            return parseOptimizedGeminiResponse(responseBody);
+            parser = readStream(response, searchItems::add);
+        }
+        
+        if (hasUsableTerms(parser)) {
+            Log.d(TAG, QueryQualityScorer.getInstance().score(searchItems).toString());
         }
+        // Termos válidos são mantidos; só o que faltou vem da geração local
+        topUp(searchItems, batchSize);
+        GeminiMetrics.getInstance().report();
+        return searchItems;
     }
     
     /**
      * Gera múltiplos lotes para números grandes de pesquisas
      */
-    private static List<SearchItem> generateMultipleBatches(int totalCount, String apiKey, GeminiModel model) throws IOException, JSONException {
-        List<SearchItem> allSearchItems = new ArrayList<>();
-        int batchSize = 25;
-        int remainingCount = totalCount;
-        int currentIndex = 1;
-        
-        Log.d(TAG, "Iniciando geração em lotes: " + totalCount + " pesquisas totais, " + batchSize + " por lote");
-        
-        while (remainingCount > 0 && allSearchItems.size() < totalCount) {
-            int currentBatchSize = Math.min(remainingCount, batchSize);
-            
-            Log.d(TAG, "Gerando lote: " + allSearchItems.size() + "/" + totalCount + " (" + currentBatchSize + " neste lote)");
-            
-            try {
-                // Criar prompt específico para este lote
-                String prompt = createOptimizedPromptForBatch(currentBatchSize, allSearchItems.size(), totalCount);
-                JSONObject requestBody = buildOptimizedGeminiRequest(prompt);
-                
-                // Fazer requisição
-                String fullUrl = model.getApiUrl() + "?key=" + apiKey;
-                Request request = new Request.Builder()
-                        .url(fullUrl)
-                        .post(RequestBody.create(requestBody.toString(), JSON))
-                        .addHeader("Content-Type", "application/json")
-                        .addHeader("User-Agent", "Microsoft-Rewards-Bot/2.0")
-                        .build();
-                
-                try (Response response = client.newCall(request).execute()) {
-                    if (!response.isSuccessful()) {
-                        String errorBody = response.body() != null ? response.body().string() : "Sem corpo na resposta";
-                        Log.e(TAG, "Erro na API (lote): " + response.code() + " - " + errorBody);
-                        throw new IOException("Erro na API Gemini: " + response.code() + " - " + errorBody);
-                    }
-                    
-                    String responseBody = response.body().string();
-                    List<SearchItem> batchResults = parseOptimizedGeminiResponse(responseBody);
-                    
-                    // Reindexar os itens para continuar a sequência
-                    for (SearchItem item : batchResults) {
-                        item = new SearchItem(item.getSearchText(), currentIndex++);
-                        allSearchItems.add(item);
-                    }
-                    
-                    Log.d(TAG, "Lote concluído: " + batchResults.size() + " itens adicionados. Total: " + allSearchItems.size());
-                    
-                    remainingCount -= batchResults.size();
-                    
-                    // Delay entre lotes para evitar rate limiting
-                    if (remainingCount > 0 && allSearchItems.size() < totalCount) {
-                        try {
-                            Thread.sleep(1000); // 1 segundo entre lotes
-                        } catch (InterruptedException e) {
-                            Thread.currentThread().interrupt();
-                        }
-                    }
-                    
-                } catch (IOException e) {
-                    Log.e(TAG, "Erro no lote " + (allSearchItems.size() / batchSize + 1) + ": " + e.getMessage());
-                    if (allSearchItems.size() < 5) {
-                        // Se temos muito poucos resultados, falhar
-                        throw e;
-                    } else {
-                        // Se já temos alguns resultados, continuar com o que temos
-                        Log.w(TAG, "Continuando com " + allSearchItems.size() + " pesquisas parciais");
-                        break;
-                    }
-                }
-                
-            } catch (JSONException e) {
-                Log.e(TAG, "Erro JSON no lote: " + e.getMessage());
-                break;
-            }
+    private static List<SearchItem> generateMultipleBatches(int totalCount, Context context, String apiKey, GeminiModel model) throws IOException {
+        List<SearchItem> allSearchItems;
+        try {
+            allSearchItems = generateConcurrently(context, apiKey, model, totalCount);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Geração em lotes interrompida", e);
+        } catch (IOException e) {
+            Log.e(TAG, "Nenhum lote concluído: " + e.getMessage());
+            throw e;
         }
         
         Log.d(TAG, "Geração em lotes concluída: " + allSearchItems.size() + " pesquisas de " + totalCount + " solicitadas");
@@ -264,12 +205,160 @@ public class GeminiSearchGenerator {
         // Se não conseguimos gerar pelo menos 70% do solicitado, usar fallback
         if (allSearchItems.size() < (totalCount * 0.7)) {
             Log.w(TAG, "Muitas falhas na geração em lotes, usando fallback");
+            GeminiMetrics.getInstance().recordFallback(totalCount);
+            GeminiMetrics.getInstance().report();
             return SmartSearchGenerator.generateSmartSearches(totalCount);
         }
         
+        topUp(allSearchItems, totalCount);
+        GeminiMetrics.getInstance().report();
         return allSearchItems;
     }
     
+    /**
+     * Completa a lista até count com pesquisas locais (sem repetir as do Gemini),
+     * contando cada termo local nas métricas de fallback
+     */
+    private static void topUp(List<SearchItem> items, int count) {
+        int missing = count - items.size();
+        if (missing <= 0) {
+            return;
+        }
+        Log.w(TAG, "Gemini entregou " + items.size() + " de " + count + " pesquisas, completando com " + missing + " locais");
+        
+        Set<String> seen = new HashSet<>(items.size() * 2);
+        for (SearchItem item : items) {
+            seen.add(item.getSearchText().toLowerCase());
+        }
+        int added = 0;
+        // Uma folga pequena cobre as pesquisas locais que coincidirem com as do Gemini
+        for (SearchItem local : SmartSearchGenerator.generateSmartSearches(missing + 5)) {
+            if (added == missing) {
+                break;
+            }
+            if (seen.add(local.getSearchText().toLowerCase())) {
+                items.add(new SearchItem(local.getSearchText(), items.size() + 1));
+                added++;
+            }
+        }
+        GeminiMetrics.getInstance().recordFallback(added);
+    }
+    
+    /**
+     * Geração em lotes paralelos (GeminiBatchPipeline), limitados pela concorrência e pela cota da chave.
+     * Retorna só o que o Gemini entregou, sem completar com geração local.
+     */
+    public static List<SearchItem> generateConcurrently(Context context, String apiKey, int totalCount) throws IOException, InterruptedException {
+        return generateConcurrently(context, apiKey, DEFAULT_MODEL, totalCount);
+    }
+    
+    private static List<SearchItem> generateConcurrently(Context context, String apiKey, GeminiModel model, int totalCount) throws IOException, InterruptedException {
+        int maxConcurrency = AppConfig.DEFAULT_GEMINI_MAX_CONCURRENCY;
+        int requestsPerMinute = AppConfig.DEFAULT_GEMINI_REQUESTS_PER_MINUTE;
+        if (context != null) {
+            ConfigSnapshot config = AppConfig.getInstance(context).getSnapshot();
+            maxConcurrency = config.getGeminiMaxConcurrency();
+            requestsPerMinute = config.getGeminiRequestsPerMinute();
+        }
+        // Dentro de uma tarefa com prazo, os lotes não passam do tempo que resta
+        return new GeminiBatchPipeline(client, apiKey, model, maxConcurrency, requestsPerMinute)
+                .run(totalCount, NetworkTask.remainingOr(BATCH_PIPELINE_TIMEOUT_MS), null);
+    }
+    
+    /**
+     * Requisita um único lote (até 25 termos) como parte de uma geração maior,
+     * entregando cada termo ao listener assim que a sua linha chega
+     * @param currentTotal Quantos termos já foram gerados antes deste lote
+     * @param finalTotal Total de termos da geração
+     */
+    static GeminiStreamParser streamBatch(int batchSize, int currentTotal, int finalTotal, String apiKey, GeminiModel model,
+                                          GeminiStreamParser.TermListener listener) throws IOException, JSONException {
+        Request request = buildBatchRequest(batchSize, currentTotal, finalTotal, apiKey, model);
+        
+        try (Response response = execute(request)) {
+            return readStream(response, listener);
+        }
+    }
+    
+    /**
+     * Executa a chamada (presa ao prazo e ao cancelamento da tarefa atual);
+     * uma falha de rede conta como chamada desperdiçada
+     */
+    private static Response execute(Request request) throws IOException {
+        try {
+            return NetworkTask.track(client.newCall(request)).execute();
+        } catch (IOException e) {
+            GeminiMetrics.getInstance().recordFailedCall();
+            throw e;
+        }
+    }
+    
+    /**
+     * Requisição HTTP de um lote, com prompt específico para a sua posição na geração
+     */
+    static Request buildBatchRequest(int batchSize, int currentTotal, int finalTotal, String apiKey, GeminiModel model) throws JSONException {
+        String prompt = createOptimizedPromptForBatch(batchSize, currentTotal, finalTotal);
+        return buildRequest(model.getStreamUrl(), apiKey, buildOptimizedGeminiRequest(prompt, batchSize, model));
+    }
+    
+    private static Request buildRequest(String url, String apiKey, JSONObject requestBody) {
+        return new Request.Builder()
+                .url(url + (url.indexOf('?') >= 0 ? "&" : "?") + "key=" + apiKey)
+                .post(RequestBody.create(requestBody.toString(), JSON))
+                .addHeader("Content-Type", "application/json")
+                .addHeader("User-Agent", "Microsoft-Rewards-Bot/2.0")
+                .build();
+    }
+    
+    /**
+     * Lê a resposta SSE linha a linha: cada string do array JSON é entregue assim que
+     * fecha, sem guardar o corpo inteiro em memória. Toda chamada lida entra nas métricas.
+     */
+    static GeminiStreamParser readStream(Response response, GeminiStreamParser.TermListener listener) throws IOException, JSONException {
+        GeminiMetrics metrics = GeminiMetrics.getInstance();
+        if (!response.isSuccessful()) {
+            metrics.recordFailedCall();
+            String errorBody = response.body() != null ? response.body().string() : "Sem corpo na resposta";
+            Log.e(TAG, "Erro na API: " + response.code() + " - " + errorBody);
+            throw new IOException("Erro na API Gemini: " + response.code() + " - " + errorBody);
+        }
+        
+        GeminiStreamParser parser = new GeminiStreamParser(listener);
+        try {
+            BufferedSource source = response.body().source();
+            String line;
+            while ((line = source.readUtf8Line()) != null) {
+                parser.onSseLine(line);
+            }
+            parser.finish();
+        } catch (IOException | JSONException | RuntimeException e) {
+            metrics.recordFailedCall();
+            throw e;
+        }
+        metrics.recordCall(parser);
+        return parser;
+    }
+    
+    /**
+     * O fluxo trouxe termos aproveitáveis? (não bloqueado e ao menos um termo válido;
+     * os que faltarem são completados localmente por quem chamou)
+     */
+    static boolean hasUsableTerms(GeminiStreamParser parser) {
+        if (parser.isBlocked()) {
+            Log.w(TAG, "Resposta bloqueada por segurança");
+            return false;
+        }
+        if (parser.getEmitted() == 0) {
+            Log.w(TAG, "Nenhum termo válido extraído (" + parser.getRejected() + " rejeitados)");
+            return false;
+        }
+        if (parser.isTruncated()) {
+            Log.w(TAG, "Resposta cortada por MAX_TOKENS após " + parser.getEmitted() + " termos");
+        }
+        Log.d(TAG, "Sucesso: " + parser.getEmitted() + " termos de pesquisa extraídos (stream)");
+        return true;
+    }
+    
     /**
      * Cria um prompt otimizado específico para lotes
      */
@@ -306,19 +395,21 @@ public class GeminiSearchGenerator {
         
         String batchInfo = "";
         if (finalTotal > batchSize) {
-            batchInfo = String.format(" (Lote %d de %d)", (currentTotal / batchSize) + 1, (finalTotal + batchSize - 1) / batchSize);
+            int fullBatch = GeminiBatchPipeline.BATCH_SIZE;
+            batchInfo = String.format(" (Lote %d de %d)", (currentTotal / fullBatch) + 1, (finalTotal + fullBatch - 1) / fullBatch);
         }
         
         return String.format(
             "Gere %d %s diferentes em português %s%s. " +
-            "Seja muito criativo e original. Evite repetições. Cada linha deve conter apenas um termo único. " +
-            "IMPORTANTE: Responda APENAS com os termos, um por linha, sem numeração, símbolos ou explicações.\n\n" +
+            "Seja muito criativo e original. Evite repetições. Cada termo deve ter de 2 a 6 palavras. " +
+            "IMPORTANTE: Responda APENAS com um array JSON de exatamente %d strings, um termo por string, sem numeração, símbolos ou explicações.\n\n" +
             "Contexto: %s\n" +
             "Batch ID: %d",
             batchSize,
             selectedStyle,
             selectedContext,
             batchInfo,
+            batchSize,
             selectedContext,
             System.currentTimeMillis() + currentTotal
         );
@@ -360,23 +451,25 @@ public class GeminiSearchGenerator {
         
         return String.format(
             "Gere %d %s diferentes em português %s. " +
-            "Seja muito criativo e varie os temas amplamente. Cada linha deve ter apenas um termo único. " +
+            "Seja muito criativo e varie os temas amplamente. Cada termo deve ter de 2 a 6 palavras. " +
             "Evite repetições e seja completamente original. " +
-            "IMPORTANTE: Responda APENAS com os termos, um por linha, sem numeração, símbolos ou explicações.\n\n" +
+            "IMPORTANTE: Responda APENAS com um array JSON de exatamente %d strings, um termo por string, sem numeração, símbolos ou explicações.\n\n" +
             "Contexto atual: %s\n" +
             "Timestamp: %d",
             count,
             selectedStyle,
             selectedContext,
+            count,
             selectedContext,
             System.currentTimeMillis()
         );
     }
     
     /**
-     * Constrói request JSON otimizado
+     * Constrói request JSON otimizado: saída estruturada (array de count strings) e
+     * orçamento de tokens proporcional ao lote
      */
-    private static JSONObject buildOptimizedGeminiRequest(String prompt) throws JSONException {
+    private static JSONObject buildOptimizedGeminiRequest(String prompt, int count, GeminiModel model) throws JSONException {
         JSONObject request = new JSONObject();
         
         JSONArray contents = new JSONArray();
@@ -394,144 +487,38 @@ public class GeminiSearchGenerator {
         // Configuração otimizada para geração de termos de pesquisa
         JSONObject generationConfig = new JSONObject();
         generationConfig.put("temperature", 1.1); // Criatividade alta mas controlada
-        generationConfig.put("maxOutputTokens", 4096); // Limite aumentado para até 25 termos
+        generationConfig.put("maxOutputTokens", outputTokenBudget(count, model));
         generationConfig.put("candidateCount", 1);
         generationConfig.put("topP", 0.9); // Permitir mais diversidade
         generationConfig.put("topK", 50); // Aumentar diversidade de tokens
         
+        // Array JSON de strings: sem numeração, markdown ou texto extra para filtrar
+        generationConfig.put("responseMimeType", "application/json");
+        JSONObject items = new JSONObject();
+        items.put("type", "STRING");
+        JSONObject schema = new JSONObject();
+        schema.put("type", "ARRAY");
+        schema.put("items", items);
+        schema.put("minItems", count);
+        schema.put("maxItems", count);
+        generationConfig.put("responseSchema", schema);
+        
+        // O raciocínio consome o mesmo limite de saída: mínimo possível para o modelo
+        JSONObject thinkingConfig = new JSONObject();
+        thinkingConfig.put("thinkingBudget", model.getMinThinkingBudget());
+        generationConfig.put("thinkingConfig", thinkingConfig);
+        
         request.put("generationConfig", generationConfig);
         
         return request;
     }
     
     /**
-     * Parse otimizado da resposta do Gemini
-     */
-    private static List<SearchItem> parseOptimizedGeminiResponse(String responseBody) throws JSONException {
-        List<SearchItem> searchItems = new ArrayList<>();
-        
-        Log.d(TAG, "Parsing resposta: " + responseBody.substring(0, Math.min(500, responseBody.length())));
-        
-        JSONObject response = new JSONObject(responseBody);
-        
-        if (response.has("error")) {
-            JSONObject error = response.getJSONObject("error");
-            String errorMsg = error.has("message") ? error.getString("message") : "Erro desconhecido";
-            Log.e(TAG, "Erro da API Gemini: " + errorMsg);
-            throw new RuntimeException("Erro da API Gemini: " + errorMsg);
-        }
-        
-        if (!response.has("candidates")) {
-            Log.w(TAG, "Resposta sem candidates - usando fallback");
-            return SmartSearchGenerator.generateSmartSearches(10);
-        }
-        
-        JSONArray candidates = response.getJSONArray("candidates");
-        if (candidates.length() == 0) {
-            Log.w(TAG, "Array de candidates vazio - usando fallback");
-            return SmartSearchGenerator.generateSmartSearches(10);
-        }
-        
-        JSONObject candidate = candidates.getJSONObject(0);
-        
-        // Verificar se a resposta foi bloqueada por segurança
-        if (candidate.has("finishReason")) {
-            String finishReason = candidate.getString("finishReason");
-            Log.d(TAG, "Finish reason: " + finishReason);
-            
-            if ("SAFETY".equals(finishReason) || "BLOCKED".equals(finishReason)) {
-                Log.w(TAG, "Resposta bloqueada por segurança - usando fallback");
-                return SmartSearchGenerator.generateSmartSearches(10);
-            }
-            
-            if ("MAX_TOKENS".equals(finishReason)) {
-                Log.w(TAG, "Resposta truncada - usando fallback");
-                return SmartSearchGenerator.generateSmartSearches(10);
-            }
-        }
-        
-        // Extrair conteúdo
-        if (!candidate.has("content")) {
-            Log.w(TAG, "Candidate sem content - usando fallback");
-            return SmartSearchGenerator.generateSmartSearches(10);
-        }
-        
-        JSONObject content = candidate.getJSONObject("content");
-        
-        if (!content.has("parts")) {
-            Log.w(TAG, "Content sem parts - usando fallback");
-            return SmartSearchGenerator.generateSmartSearches(10);
-        }
-        
-        JSONArray parts = content.getJSONArray("parts");
-        if (parts.length() == 0) {
-            Log.w(TAG, "Parts array vazio - usando fallback");
-            return SmartSearchGenerator.generateSmartSearches(10);
-        }
-        
-        JSONObject part = parts.getJSONObject(0);
-        
-        if (!part.has("text")) {
-            Log.w(TAG, "Part sem text - usando fallback");
-            return SmartSearchGenerator.generateSmartSearches(10);
-        }
-        
-        String generatedText = part.getString("text").trim();
-        Log.d(TAG, "Texto gerado bruto: " + generatedText);
-        
-        if (generatedText.isEmpty()) {
-            Log.w(TAG, "Texto gerado vazio - usando fallback");
-            return SmartSearchGenerator.generateSmartSearches(10);
-        }
-        
-        // Processar o texto linha por linha
-        String[] lines = generatedText.split("\n");
-        int index = 1;
-        
-        for (String line : lines) {
-            String cleanLine = line.trim();
-            
-            // Filtrar linhas válidas
-            if (isValidSearchTerm(cleanLine)) {
-                searchItems.add(new SearchItem(cleanLine, index++));
-                Log.d(TAG, "Termo adicionado: " + cleanLine);
-            } else {
-                Log.d(TAG, "Termo rejeitado: " + cleanLine);
-            }
-        }
-        
-        // Verificar se conseguimos extrair termos suficientes
-        if (searchItems.size() < 3) {
-            Log.w(TAG, "Poucos termos extraídos (" + searchItems.size() + ") - usando fallback");
-            return SmartSearchGenerator.generateSmartSearches(10);
-        }
-        
-        Log.d(TAG, "Sucesso: " + searchItems.size() + " termos de pesquisa extraídos");
-        return searchItems;
-    }
-    
-    /**
-     * Valida se uma linha é um termo de pesquisa válido
+     * Limite de tokens de saída para count termos (mais o raciocínio obrigatório do modelo)
      */
-    private static boolean isValidSearchTerm(String term) {
-        if (term == null || term.isEmpty()) {
-            return false;
-        }
-        
-        // Remover caracteres especiais comuns
-        term = term.replaceAll("^[-*•\\d+\\.\\s]+", "").trim();
-        
-        // Verificações de validade
-        return term.length() >= 2 && 
-               term.length() <= 100 &&
-               !term.contains(":") &&
-               !term.toLowerCase().contains("gere") &&
-               !term.toLowerCase().contains("liste") &&
-               !term.toLowerCase().contains("termos") &&
-               !term.toLowerCase().contains("pesquisa") &&
-               !term.toLowerCase().matches(".*\\b(um|uma|cada|linha|separada|inclua|responda|apenas)\\b.*") &&
-               !term.matches("^\\d+$") && // Evitar apenas números
-               term.matches(".*[a-zA-ZÀ-ÿ]+.*"); // Deve ter pelo menos uma letra
+    static int outputTokenBudget(int count, GeminiModel model) {
+        int budget = RESPONSE_OVERHEAD_TOKENS + count * TOKENS_PER_TERM + model.getMinThinkingBudget();
+        return Math.min(budget, MAX_OUTPUT_TOKENS);
     }
     
     /**
@@ -552,73 +539,57 @@ public class GeminiSearchGenerator {
     }
     
     /**
-     * Testa a conectividade com a API do Gemini
+     * Testa a conectividade com a API do Gemini (lista de modelos e depois uma geração de 3 termos)
+     * @return Tarefa cancelável (por exemplo, quando a tela é fechada)
      */
-    public static void testGeminiConnection(String apiKey, OnSearchGeneratedListener listener) {
-        testApiConnection(apiKey, new ApiTestListener() {
+    public static NetworkTask<List<SearchItem>> testGeminiConnection(String apiKey, OnSearchGeneratedListener listener) {
+        return AppExecutors.submit(() -> {
+            testApiConnection(apiKey);
+            try {
+                return generateSingleBatch(3, null, apiKey, DEFAULT_MODEL);
+            } catch (IOException | JSONException e) {
+                throw new IOException("Teste de geração falhou: " + e.getMessage(), e);
+            }
+        }, CONNECTION_TEST_DEADLINE_MS, new NetworkTask.Callback<List<SearchItem>>() {
             @Override
-            public void onApiWorking() {
-                generateSearchesWithGemini(3, null, apiKey, DEFAULT_MODEL, new OnSearchGeneratedListener() {
-                    @Override
-                    public void onSuccess(List<SearchItem> searches) {
-                        listener.onSuccess(searches);
-                    }
-                    
-                    @Override
-                    public void onError(String errorMessage) {
-                        listener.onError("Teste de geração falhou: " + errorMessage);
-                    }
-                });
+            public void onSuccess(List<SearchItem> searches) {
+                listener.onSuccess(searches);
             }
             
             @Override
-            public void onApiError(String error) {
-                listener.onError("Teste de conexão falhou: " + error);
+            public void onError(Exception error) {
+                listener.onError(error.getMessage());
             }
         });
     }
     
     /**
-     * Interface para callback de teste da API
-     */
-    private interface ApiTestListener {
-        void onApiWorking();
-        void onApiError(String error);
-    }
-    
-    /**
-     * Testa se a API está funcionando
+     * Testa se a API está funcionando (lança IOException com o motivo da falha)
      */
-    private static void testApiConnection(String apiKey, ApiTestListener listener) {
-        new Thread(() -> {
-            try {
-                String testUrl = BASE_API_URL + "?key=" + apiKey;
-                
-                Request request = new Request.Builder()
-                        .url(testUrl)
-                        .get()
-                        .addHeader("User-Agent", "Microsoft-Rewards-Bot/2.0")
-                        .build();
-                
-                try (Response response = client.newCall(request).execute()) {
-                    if (response.isSuccessful()) {
-                        String responseBody = response.body().string();
-                        Log.d(TAG, "Teste de API bem-sucedido");
-                        
-                        if (responseBody.contains("gemini-2.5-flash") || responseBody.contains("gemini-2")) {
-                            listener.onApiWorking();
-                        } else {
-                            listener.onApiError("Modelos Gemini 2.5 não encontrados");
-                        }
-                    } else {
-                        String errorBody = response.body() != null ? response.body().string() : "Sem detalhes";
-                        listener.onApiError("API erro " + response.code() + ": " + errorBody);
-                    }
-                }
-                
-            } catch (Exception e) {
-                listener.onApiError("Erro de conectividade: " + e.getMessage());
-            }
-        }).start();
+    private static void testApiConnection(String apiKey) throws IOException {
+        String testUrl = BASE_API_URL + "?key=" + apiKey;
+        
+        Request request = new Request.Builder()
+                .url(testUrl)
+                .get()
+                .addHeader("User-Agent", "Microsoft-Rewards-Bot/2.0")
+                .build();
+        
+        int code;
+        String responseBody;
+        try (Response response = NetworkTask.track(client.newCall(request)).execute()) {
+            code = response.code();
+            responseBody = response.body() != null ? response.body().string() : "Sem detalhes";
+        } catch (IOException e) {
+            throw new IOException("Teste de conexão falhou: Erro de conectividade: " + e.getMessage(), e);
+        }
+        
+        if (code < 200 || code >= 300) {
+            throw new IOException("Teste de conexão falhou: API erro " + code + ": " + responseBody);
+        }
+        Log.d(TAG, "Teste de API bem-sucedido");
+        if (!responseBody.contains("gemini-2.5-flash") && !responseBody.contains("gemini-2")) {
+            throw new IOException("Teste de conexão falhou: Modelos Gemini 2.5 não encontrados");
+        }
     }
 }
\ No newline at end of file
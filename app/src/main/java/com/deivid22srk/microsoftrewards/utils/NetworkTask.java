@@ -0,0 +1,189 @@
+package com.deivid22srk.microsoftrewards.utils;
+
+import android.util.Log;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import okhttp3.Call;
+
+/**
+ * ⏳ Tarefa de rede cancelável e com prazo (criada por AppExecutors.submit)
+ * Quem executa dentro da tarefa registra cada chamada OkHttp com track(): ela
+ * recebe o tempo que resta do prazo e é cancelada junto com a tarefa. Assim,
+ * uma tela ou serviço que some (cancel) ou um prazo vencido liberam o socket e
+ * a thread na hora, em vez de esperar a resposta que ninguém vai ler.
+ */
+public final class NetworkTask<T> extends FutureTask<T> {
+
+    private static final String TAG = "NetworkTask";
+
+    // Tarefa em execução na thread atual (para track())
+    private static final ThreadLocal<NetworkTask<?>> CURRENT = new ThreadLocal<>();
+
+    /**
+     * Resultado entregue na thread principal
+     */
+    public interface Callback<T> {
+        void onSuccess(T result);
+        void onError(Exception error);
+    }
+
+    private final long deadlineAt;
+    private final Callback<T> callback;
+    private final Set<Call> calls = Collections.newSetFromMap(new ConcurrentHashMap<Call, Boolean>());
+    private volatile boolean expired = false;
+    private ScheduledFuture<?> deadlineTimer;
+
+    NetworkTask(Callable<T> work, long deadlineMs, Callback<T> callback) {
+        super(work);
+        this.deadlineAt = deadlineMs > 0 ? System.currentTimeMillis() + deadlineMs : 0;
+        this.callback = callback;
+    }
+
+    /**
+     * Registra a chamada na tarefa da thread atual (se houver): aplica o prazo restante
+     * e a cancela se a tarefa já tiver sido cancelada
+     */
+    public static Call track(Call call) {
+        NetworkTask<?> task = CURRENT.get();
+        if (task == null) {
+            return call;
+        }
+        long remaining = task.remainingMs();
+        if (remaining > 0) {
+            call.timeout().timeout(remaining, TimeUnit.MILLISECONDS);
+        }
+        task.calls.add(call);
+        if (task.isCancelled()) {
+            call.cancel();
+        }
+        return call;
+    }
+
+    /**
+     * Tempo que resta do prazo da tarefa da thread atual, ou fallbackMs fora de uma tarefa
+     * (ou em uma tarefa sem prazo)
+     */
+    public static long remainingOr(long fallbackMs) {
+        NetworkTask<?> task = CURRENT.get();
+        if (task == null || task.deadlineAt == 0) {
+            return fallbackMs;
+        }
+        return Math.min(fallbackMs, Math.max(1, task.remainingMs()));
+    }
+
+    private long remainingMs() {
+        return deadlineAt == 0 ? 0 : Math.max(1, deadlineAt - System.currentTimeMillis());
+    }
+
+    /**
+     * Aguarda o resultado até o prazo; vencido, cancela a tarefa (e as suas chamadas)
+     */
+    public T await(long timeoutMs) throws ExecutionException, InterruptedException, TimeoutException {
+        try {
+            return get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | InterruptedException e) {
+            cancel(true);
+            throw e;
+        }
+    }
+
+    public boolean isExpired() {
+        return expired;
+    }
+
+    void armDeadline() {
+        if (deadlineAt == 0 || isDone()) {
+            return;
+        }
+        ScheduledFuture<?> timer = AppExecutors.scheduler().schedule(() -> {
+            if (!isDone()) {
+                Log.w(TAG, "⏱️ Prazo vencido, cancelando a tarefa");
+                expired = true;
+                cancel(true);
+            }
+        }, remainingMs(), TimeUnit.MILLISECONDS);
+        synchronized (this) {
+            deadlineTimer = timer;
+        }
+        if (isDone()) {
+            timer.cancel(false);
+        }
+    }
+
+    /**
+     * Pool cheio: a tarefa termina como falha, sem rodar
+     */
+    void reject(Exception error) {
+        setException(error);
+    }
+
+    @Override
+    public void run() {
+        CURRENT.set(this);
+        try {
+            super.run();
+        } finally {
+            CURRENT.remove();
+            calls.clear();
+        }
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        boolean cancelled = super.cancel(mayInterruptIfRunning);
+        if (cancelled) {
+            for (Call call : calls) {
+                call.cancel();
+            }
+        }
+        return cancelled;
+    }
+
+    @Override
+    protected void done() {
+        synchronized (this) {
+            if (deadlineTimer != null) {
+                deadlineTimer.cancel(false);
+            }
+        }
+        if (callback == null) {
+            return;
+        }
+        // Cancelada por quem a criou (tela ou serviço encerrado): ninguém espera o resultado
+        if (isCancelled() && !expired) {
+            return;
+        }
+
+        Exception error = null;
+        T result = null;
+        if (expired) {
+            error = new TimeoutException("Tempo esgotado");
+        } else {
+            try {
+                result = get();
+            } catch (ExecutionException e) {
+                error = e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+            } catch (InterruptedException e) {
+                error = e;
+            }
+        }
+        final Exception finalError = error;
+        final T finalResult = result;
+        AppExecutors.runOnMain(() -> {
+            if (finalError != null) {
+                callback.onError(finalError);
+            } else {
+                callback.onSuccess(finalResult);
+            }
+        });
+    }
+}
@@ -0,0 +1,182 @@
+package com.deivid22srk.microsoftrewards.utils;
+
+import android.app.Notification;
+import android.app.NotificationManager;
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import androidx.core.app.NotificationCompat;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 🔔 Publicador de notificações compartilhado pelos serviços em foreground
+ * Mantém um Builder por canal, altera apenas os campos que mudaram, descarta
+ * atualizações sem mudança visível e agrupa rajadas respeitando uma taxa máxima.
+ * Todas as chamadas a notify() acontecem na main thread.
+ */
+public class NotificationPublisher {
+
+    public static final long DEFAULT_MIN_UPDATE_INTERVAL_MS = 1000;
+
+    private static volatile NotificationPublisher instance;
+
+    private final NotificationManager manager;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Map<String, Channel> channels = new HashMap<>();
+    private volatile long minUpdateIntervalMs = DEFAULT_MIN_UPDATE_INTERVAL_MS;
+
+    /**
+     * Estado de um canal: o que está publicado e o que foi pedido por último
+     */
+    private class Channel implements Runnable {
+        final String channelId;
+        final int notificationId;
+        final NotificationCompat.Builder builder;
+
+        String postedText;
+        long postedChronometerWhen;
+        long lastPostUptime;
+
+        String pendingText;
+        long pendingChronometerWhen;
+        boolean flushScheduled;
+
+        Channel(String channelId, int notificationId, NotificationCompat.Builder builder) {
+            this.channelId = channelId;
+            this.notificationId = notificationId;
+            this.builder = builder;
+        }
+
+        boolean hasChanges() {
+            return !sameText(pendingText, postedText) || pendingChronometerWhen != postedChronometerWhen;
+        }
+
+        /**
+         * Aplica ao Builder apenas os campos que diferem do que já foi publicado
+         */
+        Notification buildPending() {
+            if (!sameText(pendingText, postedText)) {
+                builder.setContentText(pendingText);
+                postedText = pendingText;
+            }
+
+            if (pendingChronometerWhen != postedChronometerWhen) {
+                boolean countdown = pendingChronometerWhen > 0;
+                builder.setUsesChronometer(countdown)
+                    .setChronometerCountDown(countdown)
+                    .setShowWhen(countdown)
+                    .setWhen(countdown ? pendingChronometerWhen : System.currentTimeMillis());
+                postedChronometerWhen = pendingChronometerWhen;
+            }
+
+            return builder.build();
+        }
+
+        @Override
+        public void run() {
+            // Sob o lock para que unregister() nunca seja seguido de um notify atrasado
+            synchronized (NotificationPublisher.this) {
+                flushScheduled = false;
+                if (channels.get(channelId) != this || !hasChanges()) {
+                    return;
+                }
+                manager.notify(notificationId, buildPending());
+                lastPostUptime = SystemClock.uptimeMillis();
+            }
+        }
+    }
+
+    private NotificationPublisher(Context context) {
+        manager = (NotificationManager) context.getSystemService(Context.NOTIFICATION_SERVICE);
+    }
+
+    public static NotificationPublisher getInstance(Context context) {
+        if (instance == null) {
+            synchronized (NotificationPublisher.class) {
+                if (instance == null) {
+                    instance = new NotificationPublisher(context.getApplicationContext());
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Define o intervalo mínimo entre duas publicações do mesmo canal
+     */
+    public void setMinUpdateIntervalMs(long intervalMs) {
+        minUpdateIntervalMs = Math.max(0, intervalMs);
+    }
+
+    /**
+     * Registra o Builder base do canal e retorna a notificação inicial (para startForeground)
+     */
+    public synchronized Notification register(String channelId, int notificationId,
+                                              NotificationCompat.Builder builder, String initialText) {
+        Channel previous = channels.remove(channelId);
+        if (previous != null) {
+            mainHandler.removeCallbacks(previous);
+        }
+
+        Channel channel = new Channel(channelId, notificationId, builder);
+        channel.pendingText = initialText;
+        channel.postedText = null;
+        channel.postedChronometerWhen = -1;
+        Notification notification = channel.buildPending();
+        channel.lastPostUptime = SystemClock.uptimeMillis();
+
+        channels.put(channelId, channel);
+        return notification;
+    }
+
+    /**
+     * Publica um novo texto (sem cronômetro)
+     */
+    public void publish(String channelId, String contentText) {
+        update(channelId, contentText, 0);
+    }
+
+    /**
+     * Publica um texto com cronômetro regressivo até o horário (wall clock) informado
+     */
+    public void publishCountdown(String channelId, String contentText, long deadlineWallMs) {
+        update(channelId, contentText, deadlineWallMs);
+    }
+
+    /**
+     * Remove o canal; atualizações pendentes são descartadas para não ressuscitar a notificação
+     */
+    public synchronized void unregister(String channelId) {
+        Channel channel = channels.remove(channelId);
+        if (channel != null) {
+            mainHandler.removeCallbacks(channel);
+        }
+    }
+
+    private synchronized void update(String channelId, String contentText, long chronometerWhen) {
+        Channel channel = channels.get(channelId);
+        if (channel == null) {
+            return;
+        }
+
+        channel.pendingText = contentText;
+        channel.pendingChronometerWhen = chronometerWhen;
+
+        // Sem mudança visível: nada a publicar
+        if (!channel.hasChanges() || channel.flushScheduled) {
+            return;
+        }
+
+        long earliest = channel.lastPostUptime + minUpdateIntervalMs;
+        channel.flushScheduled = true;
+        mainHandler.postAtTime(channel, Math.max(earliest, SystemClock.uptimeMillis()));
+    }
+
+    private static boolean sameText(String a, String b) {
+        return a == null ? b == null : a.equals(b);
+    }
+}
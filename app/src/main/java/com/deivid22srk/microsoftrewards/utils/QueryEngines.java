@@ -0,0 +1,389 @@
+package com.deivid22srk.microsoftrewards.utils;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.deivid22srk.microsoftrewards.model.SearchItem;
+import com.deivid22srk.microsoftrewards.service.QueryPoolRefillService;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 🗂️ Registro dos motores de geração
+ * A geração local (SmartSearchGenerator offline), o Gemini e a reserva do Gemini
+ * em disco expostos como QueryEngine, e a escolha conforme
+ * AppConfig.SearchGenerationMode / AIMode. Quando há mais de um motor possível,
+ * a decisão é tomada em tempo de execução pelo CompositeQueryEngine.
+ */
+public final class QueryEngines {
+
+    private static final String TAG = "QueryEngines";
+
+    // Prazo para um motor entregar cada lote antes de passarmos ao próximo
+    public static final long DEFAULT_LATENCY_BUDGET_MS = 20000;
+
+    // Latências típicas medidas até o primeiro lote
+    private static final long POOL_LATENCY_MS = 1;
+    private static final long OFFLINE_LATENCY_MS = 50;
+    private static final long GEMINI_LATENCY_MS = 4000;
+
+    // Lotes do Gemini (em fluxo: os primeiros termos chegam antes de o lote terminar)
+    private static final int GEMINI_MAX_BATCH = GeminiBatchPipeline.BATCH_SIZE;
+
+    // Prazo de leitura de um lote em fluxo (no pool de rede do app, fora da thread que consome)
+    private static final long GEMINI_STREAM_DEADLINE_MS = 45000;
+
+    private QueryEngines() {
+    }
+
+    /**
+     * Motor para execuções sem ninguém olhando (agendador): ver forConfig(Context, boolean)
+     */
+    public static QueryEngine forConfig(Context context) {
+        return forConfig(context, false);
+    }
+
+    /**
+     * Motor conforme as configurações atuais: reserva do Gemini com a geração local como reserva,
+     * ou só a geração local (sem seed do dispositivo no modo básico).
+     * Só quando "interactive" (a tela pediu as pesquisas) e a reserva está vazia o Gemini é chamado
+     * na hora, em fluxo: cada pesquisa chega à tela assim que a sua linha termina. O agendador
+     * nunca espera pela rede; para ele o Gemini só gera em segundo plano, ao recarregar a reserva.
+     */
+    public static QueryEngine forConfig(Context context, boolean interactive) {
+        // Abrir o filtro de pesquisas recentes e o estado dos geradores:
+        // até os geradores sem Context passam a usá-los
+        AndroidPlatform.recentQueries(context);
+        AndroidPlatform.generatorState(context);
+
+        AppConfig config = AppConfig.getInstance(context);
+        ConfigSnapshot current = config.getSnapshot();
+
+        QueryEngine local = current.getAIMode() == AppConfig.AIMode.BASIC
+            ? offline(null)
+            : offline(context);
+
+        if (current.getSearchGenerationMode() == AppConfig.SearchGenerationMode.ONLINE_GEMINI) {
+            if (interactive) {
+                // Indisponível sem chave válida: a cadeia passa direto para a geração local
+                return CompositeQueryEngine.chain(DEFAULT_LATENCY_BUDGET_MS,
+                    pool(context), gemini(context, current.getGeminiApiKey()), local);
+            }
+            return CompositeQueryEngine.chain(DEFAULT_LATENCY_BUDGET_MS, pool(context), local);
+        }
+        return local;
+    }
+
+    /**
+     * 💻 SmartSearchGenerator offline: pesquisas geradas uma a uma pela sequência permutada
+     */
+    public static QueryEngine offline(Context context) {
+        return new OfflineEngine(context != null ? context.getApplicationContext() : null);
+    }
+
+    /**
+     * 🏦 Reserva em disco de pesquisas do Gemini (QueryPool): entrega imediata,
+     * indisponível quando vazia; abaixo do nível mínimo pede uma recarga
+     */
+    public static QueryEngine pool(Context context) {
+        Context appContext = context.getApplicationContext();
+        QueryPool pool = AndroidPlatform.queryPool(appContext);
+        if (pool.needsRefill()) {
+            QueryPoolRefillService.requestRefill(appContext);
+        }
+        return new PoolEngine(appContext, pool, AndroidPlatform.recentQueries(appContext));
+    }
+
+    /**
+     * 🤖 Gemini em lotes sob demanda, lidos em fluxo (indisponível sem chave de API válida)
+     */
+    public static QueryEngine gemini(Context context, String apiKey) {
+        ConfigSnapshot config = AppConfig.getInstance(context).getSnapshot();
+        // Mesma cota (token bucket) das gerações em lotes com esta chave
+        TokenBucket limiter = GeminiBatchPipeline.limiterFor(apiKey, GeminiSearchGenerator.DEFAULT_MODEL,
+            config.getGeminiMaxConcurrency(), config.getGeminiRequestsPerMinute());
+        return new GeminiEngine(AndroidPlatform.recentQueries(context), apiKey, limiter);
+    }
+
+    private static final class OfflineEngine implements QueryEngine {
+        private static final EngineCapabilities CAPABILITIES =
+            new EngineCapabilities(true, OFFLINE_LATENCY_MS, EngineCapabilities.UNLIMITED_BATCH);
+
+        private final Context context;
+
+        OfflineEngine(Context context) {
+            this.context = context;
+        }
+
+        @Override
+        public String getName() {
+            return "💻 Local";
+        }
+
+        @Override
+        public EngineCapabilities getCapabilities() {
+            return CAPABILITIES;
+        }
+
+        @Override
+        public boolean isAvailable() {
+            return true;
+        }
+
+        @Override
+        public QuerySource.Producer open(int totalCount) {
+            return new OfflineProducer(context);
+        }
+    }
+
+    private static final class OfflineProducer implements QuerySource.Producer {
+        private final Context context;
+        private OfflineQueryGenerator.OfflineSequence sequence;
+
+        OfflineProducer(Context context) {
+            this.context = context;
+        }
+
+        @Override
+        public List<String> produce(int maxCount) {
+            if (sequence == null) {
+                sequence = SmartSearchGenerator.openOfflineSequence(context);
+            }
+            List<String> chunk = new ArrayList<>(maxCount);
+            for (int i = 0; i < maxCount; i++) {
+                chunk.add(sequence.next());
+            }
+            return chunk;
+        }
+    }
+
+    private static final class PoolEngine implements QueryEngine {
+        private static final EngineCapabilities CAPABILITIES =
+            new EngineCapabilities(true, POOL_LATENCY_MS, EngineCapabilities.UNLIMITED_BATCH);
+
+        private final Context context;
+        private final QueryPool pool;
+        private final RecentQueryFilter recentQueries;
+
+        PoolEngine(Context context, QueryPool pool, RecentQueryFilter recentQueries) {
+            this.context = context;
+            this.pool = pool;
+            this.recentQueries = recentQueries;
+        }
+
+        @Override
+        public String getName() {
+            return "🏦 Reserva Gemini";
+        }
+
+        @Override
+        public EngineCapabilities getCapabilities() {
+            return CAPABILITIES;
+        }
+
+        @Override
+        public boolean isAvailable() {
+            return pool.size() > 0;
+        }
+
+        @Override
+        public QuerySource.Producer open(int totalCount) {
+            return maxCount -> {
+                List<String> chunk = new ArrayList<>(maxCount);
+                // Retiradas até completar o pedido: as usadas nos últimos dias são descartadas
+                while (chunk.size() < maxCount) {
+                    List<String> taken = pool.take(maxCount - chunk.size());
+                    if (taken.isEmpty()) {
+                        break;
+                    }
+                    for (String query : taken) {
+                        if (recentQueries.putIfAbsent(query)) {
+                            chunk.add(query);
+                        }
+                    }
+                }
+                if (pool.needsRefill()) {
+                    QueryPoolRefillService.requestRefill(context);
+                }
+                return chunk;
+            };
+        }
+    }
+
+    private static final class GeminiEngine implements QueryEngine {
+        private static final EngineCapabilities CAPABILITIES =
+            new EngineCapabilities(false, GEMINI_LATENCY_MS, GEMINI_MAX_BATCH);
+
+        private final RecentQueryFilter recentQueries;
+        private final String apiKey;
+        private final TokenBucket limiter;
+
+        GeminiEngine(RecentQueryFilter recentQueries, String apiKey, TokenBucket limiter) {
+            this.recentQueries = recentQueries;
+            this.apiKey = apiKey;
+            this.limiter = limiter;
+        }
+
+        @Override
+        public String getName() {
+            return "🤖 " + GeminiSearchGenerator.DEFAULT_MODEL.getDisplayName();
+        }
+
+        @Override
+        public EngineCapabilities getCapabilities() {
+            return CAPABILITIES;
+        }
+
+        @Override
+        public boolean isAvailable() {
+            return GeminiSearchGenerator.isValidGeminiApiKey(apiKey);
+        }
+
+        @Override
+        public QuerySource.Producer open(int totalCount) {
+            return new GeminiProducer(apiKey, totalCount, recentQueries, limiter);
+        }
+    }
+
+    /**
+     * Um lote da API em fluxo por vez: as pesquisas são entregues conforme as linhas
+     * chegam, sem esperar o lote inteiro. Falha ou lote vazio encerram o gerador
+     * (o CompositeQueryEngine passa então ao próximo motor).
+     */
+    private static final class GeminiProducer implements QuerySource.Producer {
+        // Marca de fim do lote na fila de chegadas (comparada por identidade)
+        private static final SearchItem END_OF_BATCH = new SearchItem("", 0);
+
+        private final String apiKey;
+        private final int totalCount;
+        private final RecentQueryFilter recentQueries;
+        private final TokenBucket limiter;
+        private final Set<String> produced = new HashSet<>();
+        private final BlockingQueue<SearchItem> arrivals = new LinkedBlockingQueue<>();
+        private volatile String batchError;
+        private NetworkTask<Void> stream;
+        private boolean streaming = false;
+        private boolean failed = false;
+        private int batchDelivered = 0;
+        private int batchRepeated = 0;
+
+        GeminiProducer(String apiKey, int totalCount, RecentQueryFilter recentQueries, TokenBucket limiter) {
+            this.apiKey = apiKey;
+            this.totalCount = totalCount;
+            this.recentQueries = recentQueries;
+            this.limiter = limiter;
+        }
+
+        @Override
+        public List<String> produce(int maxCount) throws InterruptedException {
+            List<String> chunk = new ArrayList<>(maxCount);
+            while (chunk.isEmpty() && !failed) {
+                if (!streaming && !startNextBatch()) {
+                    break;
+                }
+                // Esperar o primeiro termo (ou o fim do lote); depois levar só o que já chegou
+                SearchItem item;
+                try {
+                    item = arrivals.take();
+                } catch (InterruptedException e) {
+                    // Fonte fechada: ninguém vai ler o resto do lote, liberar a conexão
+                    stream.cancel(true);
+                    failed = true;
+                    throw e;
+                }
+                do {
+                    accept(item, chunk);
+                } while (chunk.size() < maxCount && streaming && (item = arrivals.poll()) != null);
+            }
+            return chunk;
+        }
+
+        private void accept(SearchItem item, List<String> chunk) {
+            if (item == END_OF_BATCH) {
+                streaming = false;
+                if (batchRepeated > 0) {
+                    Log.d(TAG, "🧮 " + batchRepeated + " pesquisas do Gemini descartadas (usadas recentemente)");
+                }
+                if (batchError != null || batchDelivered == 0) {
+                    Log.w(TAG, "⚠️ Falha no Gemini: " + (batchError != null ? batchError : "Lote vazio"));
+                    failed = true;
+                } else {
+                    Log.d(TAG, "🤖 Lote Gemini: " + batchDelivered + " pesquisas (" + produced.size() + "/" + totalCount + ")");
+                }
+                return;
+            }
+
+            String query = item.getSearchText();
+            if (!recentQueries.putIfAbsent(query)) {
+                // Já usada nos últimos dias
+                batchRepeated++;
+            } else if (produced.add(query)) {
+                chunk.add(query);
+                batchDelivered++;
+            }
+        }
+
+        private boolean startNextBatch() throws InterruptedException {
+            // Em fluxo o primeiro termo chega logo, então todo lote já usa o tamanho máximo da API
+            int batchSize = Math.min(totalCount - produced.size(), GEMINI_MAX_BATCH);
+            if (batchSize <= 0) {
+                return false;
+            }
+
+            // Aguardar a ficha da cota da chave (em vez de um intervalo fixo entre lotes)
+            long wait = limiter.reserve();
+            if (wait > 0) {
+                Thread.sleep(wait);
+            }
+
+            streaming = true;
+            batchDelivered = 0;
+            batchRepeated = 0;
+            batchError = null;
+            int currentTotal = produced.size();
+            // Quem encerra o lote: o próprio lote, se chegar a rodar, ou o callback de erro, se não rodar
+            AtomicBoolean claimed = new AtomicBoolean(false);
+            stream = AppExecutors.submit(() -> {
+                if (!claimed.compareAndSet(false, true)) {
+                    return null;
+                }
+                try {
+                    GeminiStreamParser parser = GeminiSearchGenerator.streamBatch(batchSize, currentTotal, totalCount,
+                        apiKey, GeminiSearchGenerator.DEFAULT_MODEL, arrivals::add);
+                    if (parser.isBlocked()) {
+                        batchError = "Resposta bloqueada por segurança";
+                    }
+                } catch (Exception e) {
+                    batchError = e.getMessage() != null ? e.getMessage() : e.toString();
+                } finally {
+                    arrivals.add(END_OF_BATCH);
+                }
+                return null;
+            }, GEMINI_STREAM_DEADLINE_MS, new NetworkTask.Callback<Void>() {
+                @Override
+                public void onSuccess(Void result) {
+                }
+
+                @Override
+                public void onError(Exception error) {
+                    // O lote nem começou (pool de rede cheio, ou prazo vencido ainda na fila):
+                    // sem isto, produce() esperaria o fim do lote para sempre
+                    if (claimed.compareAndSet(false, true)) {
+                        batchError = error instanceof RejectedExecutionException
+                            ? "Pool de rede ocupado"
+                            : "Lote não começou: " + error.getMessage();
+                        arrivals.add(END_OF_BATCH);
+                    }
+                }
+            });
+            return true;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.deivid22srk.microsoftrewards.utils;
+
+import android.content.Context;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 🏭 Fontes a partir dos motores (QueryEngine) + registro em memória
+ * A tela (ou o agendador) cria a fonte, registra e passa o ID no Intent;
+ * o SearchAutomationService retira a fonte pelo ID e passa a consumi-la.
+ */
+public final class QuerySources {
+
+    public static final String EXTRA_SOURCE_ID = "querySourceId";
+
+    private static final AtomicLong NEXT_ID = new AtomicLong(1);
+    private static final Map<String, QuerySource> REGISTERED = new ConcurrentHashMap<>();
+
+    private QuerySources() {
+    }
+
+    /**
+     * Fonte de count pesquisas geradas pelo motor, já começando a encher o buffer
+     */
+    public static QuerySource open(QueryEngine engine, int count, int lookAhead) {
+        return new QuerySource(engine.getName(), count, lookAhead, engine.open(count)).prefetch();
+    }
+
+    /**
+     * Fonte conforme as configurações (reserva do Gemini ou geração local), usada pelo agendador
+     */
+    public static QuerySource forConfig(Context context, int count, int lookAhead) {
+        return open(QueryEngines.forConfig(context), count, lookAhead);
+    }
+
+    /**
+     * Registra a fonte para ser entregue a um serviço; passe o ID com EXTRA_SOURCE_ID
+     */
+    public static String register(QuerySource source) {
+        String id = "source-" + NEXT_ID.getAndIncrement();
+        REGISTERED.put(id, source);
+        return id;
+    }
+
+    /**
+     * Retira a fonte registrada (cada ID só pode ser consumido uma vez)
+     */
+    public static QuerySource take(String id) {
+        return id != null ? REGISTERED.remove(id) : null;
+    }
+}
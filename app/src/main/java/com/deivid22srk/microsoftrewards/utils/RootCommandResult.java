@@ -0,0 +1,25 @@
+package com.deivid22srk.microsoftrewards.utils;
+
+/**
+ * 📦 Resultado de um comando executado no shell ROOT
+ */
+public class RootCommandResult {
+
+    private final int exitCode;
+    private final String output;
+    private final String error;
+
+    public RootCommandResult(int exitCode, String output, String error) {
+        this.exitCode = exitCode;
+        this.output = output;
+        this.error = error;
+    }
+
+    public int getExitCode() { return exitCode; }
+    public String getOutput() { return output; }
+    public String getError() { return error; }
+
+    public boolean isSuccess() {
+        return exitCode == 0;
+    }
+}
@@ -5,6 +5,17 @@ import android.util.Log;
 import java.io.BufferedReader;
 import java.io.DataOutputStream;
 import java.io.InputStreamReader;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * 🔐 Gerenciador de Permissões ROOT
@@ -18,8 +29,34 @@ public class RootManager {
     private boolean isRootGranted = false;
     private boolean hasChecked = false;
     
+    // Um único processo "su" reutilizado por todos os comandos
+    private final RootShell shell = new RootShell();
+    
+    // Executor pequeno e limitado: o shell serializa os comandos, a fila absorve rajadas
+    private final ThreadPoolExecutor executor;
+    
+    // Sessões abertas: o shell só é encerrado quando a última é liberada
+    private int openSessions = 0;
+    
+    private static final String[] WAKE_COMMANDS = {
+        "input keyevent KEYCODE_WAKEUP",
+        "input keyevent KEYCODE_MENU"
+    };
+    private static final String DISABLE_DOZE_COMMAND = "dumpsys deviceidle disable";
+    private static final String ENABLE_DOZE_COMMAND = "dumpsys deviceidle enable";
+    
     private RootManager() {
         // Não verificar ROOT no construtor para não bloquear
+        executor = new ThreadPoolExecutor(
+            1, 2, 30, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<Runnable>(32),
+            runnable -> {
+                Thread thread = new Thread(runnable, "RootManager-worker");
+                thread.setDaemon(true);
+                return thread;
+            }
+        );
+        executor.allowCoreThreadTimeOut(true);
     }
     
     public static synchronized RootManager getInstance() {
@@ -150,113 +187,263 @@ public class RootManager {
     }
     
     /**
-     * Executa comando como ROOT
+     * Callback para comandos ROOT assíncronos (chamado na thread do executor)
      */
-    public String executeRootCommand(String command) {
+    public interface OnRootCommandListener {
+        void onRootCommandComplete(RootCommandResult result);
+    }
+    
+    /**
+     * Executa comandos como ROOT de forma assíncrona no shell persistente.
+     * O prazo é aplicado por comando; o Future pode ser cancelado a qualquer momento.
+     * O resultado é null se o comando falhar, estourar o prazo ou for cancelado.
+     */
+    public Future<RootCommandResult> executeRootCommandAsync(long timeoutMs, OnRootCommandListener listener, String... commands) {
+        return submit(null, timeoutMs, listener, commands);
+    }
+    
+    /**
+     * Enfileira os comandos; se houver dono, o comando fica registrado na sessão dele
+     */
+    private Future<RootCommandResult> submit(Session owner, long timeoutMs, OnRootCommandListener listener, String... commands) {
         if (!isRootGranted) {
-            Log.w(TAG, "⚠️ Tentando executar comando sem ROOT: " + command);
-            return null;
+            Log.w(TAG, "⚠️ ROOT não concedido, não é possível executar comandos");
+            FutureTask<RootCommandResult> rejected = new FutureTask<>(() -> null);
+            rejected.run();
+            if (listener != null) {
+                listener.onRootCommandComplete(null);
+            }
+            return rejected;
         }
         
-        try {
-            Log.d(TAG, "🔧 Executando comando ROOT: " + command);
-            
-            Process process = Runtime.getRuntime().exec("su");
-            DataOutputStream os = new DataOutputStream(process.getOutputStream());
-            BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()));
-            
-            os.writeBytes(command + "\n");
-            os.writeBytes("exit\n");
-            os.flush();
-            
-            // Aguardar com timeout de 5 segundos
-            boolean finished = process.waitFor(5, java.util.concurrent.TimeUnit.SECONDS);
+        FutureTask<RootCommandResult> task = new FutureTask<RootCommandResult>(() -> {
+            for (String command : commands) {
+                Log.d(TAG, "🔧 Executando: " + command);
+            }
             
-            if (!finished) {
-                Log.w(TAG, "⚠️ Timeout ao executar comando");
-                process.destroy();
+            try {
+                return shell.run(timeoutMs, commands);
+            } catch (TimeoutException e) {
+                Log.w(TAG, "⚠️ Timeout ao executar comando ROOT");
+                return null;
+            } catch (InterruptedException e) {
+                Log.w(TAG, "🛑 Comando ROOT cancelado");
+                return null;
+            } catch (Exception e) {
+                Log.e(TAG, "❌ Erro ao executar comando ROOT: " + e.getMessage());
                 return null;
             }
-            
-            StringBuilder output = new StringBuilder();
-            String line;
-            while ((line = reader.readLine()) != null) {
-                output.append(line).append("\n");
+        }) {
+            @Override
+            protected void done() {
+                if (owner != null) {
+                    owner.inFlight.remove(this);
+                }
+                if (listener != null) {
+                    listener.onRootCommandComplete(resultOf(this));
+                }
             }
-            
-            String result = output.toString().trim();
-            Log.d(TAG, "✅ Resultado: " + result);
-            return result;
-            
+        };
+        
+        if (owner != null) {
+            owner.inFlight.add(task);
+        }
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            Log.w(TAG, "⚠️ Fila de comandos ROOT cheia, descartando: " + e.getMessage());
+            task.cancel(false);
+        }
+        return task;
+    }
+    
+    private static RootCommandResult resultOf(Future<RootCommandResult> task) {
+        if (task.isCancelled()) {
+            return null;
+        }
+        try {
+            return task.get();
+        } catch (Exception e) {
+            return null;
+        }
+    }
+    
+    /**
+     * Aguarda um comando assíncrono; usado pelos métodos síncronos legados
+     */
+    private RootCommandResult await(Future<RootCommandResult> task) {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            task.cancel(true);
+            Thread.currentThread().interrupt();
+            return null;
         } catch (Exception e) {
-            Log.e(TAG, "❌ Erro ao executar comando ROOT: " + e.getMessage());
             return null;
         }
     }
     
     /**
-     * Executa múltiplos comandos como ROOT em sequência
+     * Executa comando como ROOT (bloqueia a thread chamadora; evite na main thread)
+     */
+    public String executeRootCommand(String command) {
+        return executeRootCommand(null, command);
+    }
+    
+    private String executeRootCommand(Session owner, String command) {
+        if (!isRootGranted) {
+            Log.w(TAG, "⚠️ Tentando executar comando sem ROOT: " + command);
+            return null;
+        }
+        
+        // Timeout de 5 segundos
+        RootCommandResult result = await(submit(owner, 5000, null, command));
+        if (result == null) {
+            return null;
+        }
+        
+        Log.d(TAG, "✅ Resultado: " + result.getOutput());
+        return result.getOutput();
+    }
+    
+    /**
+     * Executa múltiplos comandos como ROOT em sequência (bloqueia a thread chamadora)
      */
     public boolean executeRootCommands(String... commands) {
+        return executeRootCommands(null, commands);
+    }
+    
+    private boolean executeRootCommands(Session owner, String... commands) {
         if (!isRootGranted) {
             Log.w(TAG, "⚠️ ROOT não concedido, não é possível executar comandos");
             return false;
         }
         
-        try {
-            Process process = Runtime.getRuntime().exec("su");
-            DataOutputStream os = new DataOutputStream(process.getOutputStream());
-            
-            for (String command : commands) {
-                Log.d(TAG, "🔧 Executando: " + command);
-                os.writeBytes(command + "\n");
-            }
-            
-            os.writeBytes("exit\n");
-            os.flush();
-            
-            // Aguardar com timeout de 10 segundos
-            boolean finished = process.waitFor(10, java.util.concurrent.TimeUnit.SECONDS);
-            
-            if (!finished) {
-                Log.w(TAG, "⚠️ Timeout ao executar comandos");
-                process.destroy();
-                return false;
+        // Timeout de 10 segundos
+        RootCommandResult result = await(submit(owner, 10000, null, commands));
+        
+        if (result == null) {
+            return false;
+        } else if (result.isSuccess()) {
+            Log.d(TAG, "✅ Comandos executados com sucesso");
+            return true;
+        } else {
+            Log.w(TAG, "⚠️ Comandos executados com código: " + result.getExitCode());
+            return false;
+        }
+    }
+    
+    /**
+     * Abre uma sessão para um serviço: os comandos dela podem ser cancelados sem afetar
+     * os de outros serviços, e o shell persistente continua aberto até a última ser liberada
+     */
+    public synchronized Session openSession(String owner) {
+        openSessions++;
+        return new Session(owner);
+    }
+    
+    private synchronized void releaseSession(Session session) {
+        openSessions--;
+        Log.d(TAG, "🔓 Sessão ROOT liberada: " + session.owner + " (" + openSessions + " abertas)");
+        // Encerrar sob o lock: uma nova sessão espera o "exit" e depois abre outro shell
+        if (openSessions == 0) {
+            shell.close();
+        }
+    }
+    
+    /**
+     * 🔑 Comandos ROOT de um único dono
+     * Cancelar a sessão só afeta os comandos enviados por ela; liberar a sessão
+     * (fora da main thread: pode esperar o "exit" do shell) encerra o shell se ela era a última.
+     */
+    public final class Session {
+        private final String owner;
+        private final Set<Future<RootCommandResult>> inFlight =
+            Collections.newSetFromMap(new ConcurrentHashMap<Future<RootCommandResult>, Boolean>());
+        private final AtomicBoolean released = new AtomicBoolean(false);
+        
+        private Session(String owner) {
+            this.owner = owner;
+        }
+        
+        public Future<RootCommandResult> executeRootCommandAsync(long timeoutMs, OnRootCommandListener listener, String... commands) {
+            return submit(this, timeoutMs, listener, commands);
+        }
+        
+        public String executeRootCommand(String command) {
+            return RootManager.this.executeRootCommand(this, command);
+        }
+        
+        public boolean executeRootCommands(String... commands) {
+            return RootManager.this.executeRootCommands(this, commands);
+        }
+        
+        public boolean wakeDevice() {
+            return executeRootCommands(WAKE_COMMANDS);
+        }
+        
+        public boolean disableDozeMode() {
+            return executeRootCommands(DISABLE_DOZE_COMMAND);
+        }
+        
+        public boolean enableDozeMode() {
+            return executeRootCommands(ENABLE_DOZE_COMMAND);
+        }
+        
+        public Future<RootCommandResult> disableBatteryOptimization(String packageName, OnRootCheckResultListener listener) {
+            return RootManager.this.disableBatteryOptimization(this, packageName, listener);
+        }
+        
+        /**
+         * Cancela só os comandos pendentes ou em execução desta sessão
+         */
+        public void cancelPendingCommands() {
+            for (Future<RootCommandResult> task : inFlight) {
+                task.cancel(true);
             }
-            
-            int exitCode = process.exitValue();
-            
-            if (exitCode == 0) {
-                Log.d(TAG, "✅ Comandos executados com sucesso");
-                return true;
-            } else {
-                Log.w(TAG, "⚠️ Comandos executados com código: " + exitCode);
-                return false;
+            inFlight.clear();
+        }
+        
+        /**
+         * Cancela os comandos da sessão e devolve o shell (chamadas repetidas são ignoradas)
+         */
+        public void release() {
+            if (released.compareAndSet(false, true)) {
+                cancelPendingCommands();
+                releaseSession(this);
             }
-            
-        } catch (Exception e) {
-            Log.e(TAG, "❌ Erro ao executar comandos ROOT: " + e.getMessage());
-            return false;
         }
     }
     
     /**
-     * Desabilita otimização de bateria usando ROOT
+     * Callback para verificações ROOT que retornam verdadeiro/falso
+     */
+    public interface OnRootCheckResultListener {
+        void onResult(boolean result);
+    }
+    
+    /**
+     * Desabilita otimização de bateria usando ROOT (assíncrono)
      */
-    public boolean disableBatteryOptimization(String packageName) {
+    public Future<RootCommandResult> disableBatteryOptimization(String packageName, OnRootCheckResultListener listener) {
+        return disableBatteryOptimization(null, packageName, listener);
+    }
+    
+    private Future<RootCommandResult> disableBatteryOptimization(Session owner, String packageName, OnRootCheckResultListener listener) {
         String command = "dumpsys deviceidle whitelist +" + packageName;
-        String result = executeRootCommand(command);
-        return result != null && !result.contains("error");
+        return submit(owner, 5000, result -> {
+            boolean success = result != null && !result.getOutput().contains("error");
+            if (listener != null) {
+                listener.onResult(success);
+            }
+        }, command);
     }
     
     /**
      * Acorda o dispositivo usando ROOT
      */
     public boolean wakeDevice() {
-        return executeRootCommands(
-            "input keyevent KEYCODE_WAKEUP",
-            "input keyevent KEYCODE_MENU"
-        );
+        return executeRootCommands(WAKE_COMMANDS);
     }
     
     /**
@@ -292,11 +479,14 @@ public class RootManager {
     }
     
     /**
-     * Verifica se o dispositivo está em Doze mode
+     * Verifica se o dispositivo está em Doze mode (assíncrono)
      */
-    public boolean isInDozeMode() {
-        String result = executeRootCommand("dumpsys deviceidle get deep");
-        return result != null && result.contains("IDLE");
+    public Future<RootCommandResult> isInDozeMode(OnRootCheckResultListener listener) {
+        return executeRootCommandAsync(5000, result -> {
+            if (listener != null) {
+                listener.onResult(result != null && result.getOutput().contains("IDLE"));
+            }
+        }, "dumpsys deviceidle get deep");
     }
     
     /**
@@ -313,18 +503,14 @@ public class RootManager {
      * Desabilita Doze mode temporariamente
      */
     public boolean disableDozeMode() {
-        return executeRootCommands(
-            "dumpsys deviceidle disable"
-        );
+        return executeRootCommands(DISABLE_DOZE_COMMAND);
     }
     
     /**
      * Habilita Doze mode novamente
      */
     public boolean enableDozeMode() {
-        return executeRootCommands(
-            "dumpsys deviceidle enable"
-        );
+        return executeRootCommands(ENABLE_DOZE_COMMAND);
     }
     
     /**
@@ -0,0 +1,214 @@
+package com.deivid22srk.microsoftrewards.utils;
+
+import android.util.Log;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 🐚 Shell ROOT persistente
+ * Mantém um único processo "su" aberto e troca comandos/respostas por pipe,
+ * usando marcadores de fim de saída que carregam o código de retorno.
+ * stdout e stderr são drenados continuamente por threads próprias, então
+ * comandos com muita saída nunca travam o pipe.
+ */
+class RootShell {
+
+    private static final String TAG = "RootShell";
+    private static final String END_MARKER = "__MRB_END__";
+
+    // Linha sentinela colocada na fila quando o stream termina
+    private static final String EOF = new String("<eof>");
+
+    private Process process;
+    private BufferedWriter stdin;
+    private BlockingQueue<String> stdoutLines;
+    private BlockingQueue<String> stderrLines;
+    private long sequence = 0;
+
+    /**
+     * Falha antes de os comandos chegarem ao pipe: nenhum deles rodou
+     */
+    private static final class ShellUnavailableException extends IOException {
+        ShellUnavailableException(IOException cause) {
+            super(cause.getMessage(), cause);
+        }
+    }
+
+    /**
+     * Executa os comandos em sequência no shell persistente.
+     * Se o shell já estava morto (falha ao iniciá-lo ou ao enviar os comandos), ele é
+     * reiniciado e a execução é repetida uma vez. Se ele cair depois do envio, os comandos
+     * podem já ter rodado (um "am start" ou "input keyevent" repetido duplicaria a ação),
+     * então a falha é devolvida sem repetir.
+     * Em timeout ou interrupção o shell é descartado, pois o estado do comando é desconhecido.
+     */
+    synchronized RootCommandResult run(long timeoutMs, String... commands)
+            throws IOException, TimeoutException, InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+
+        try {
+            return runOnce(deadline, commands);
+        } catch (ShellUnavailableException e) {
+            Log.w(TAG, "⚠️ Shell ROOT caiu, reiniciando: " + e.getMessage());
+            destroy();
+            return runOnce(deadline, commands);
+        } catch (IOException e) {
+            Log.w(TAG, "⚠️ Shell ROOT caiu durante o comando, sem repetir: " + e.getMessage());
+            destroy();
+            throw e;
+        } catch (TimeoutException | InterruptedException e) {
+            destroy();
+            throw e;
+        }
+    }
+
+    private RootCommandResult runOnce(long deadline, String... commands)
+            throws IOException, TimeoutException, InterruptedException {
+        String marker = END_MARKER + (++sequence);
+        StringBuilder script = new StringBuilder();
+        for (String command : commands) {
+            script.append(command).append('\n');
+        }
+        // O marcador sai em linha própria mesmo que o comando não termine com \n
+        script.append("__mrb_rc=$?; echo \"\"; echo \"").append(marker).append(" $__mrb_rc\"; ")
+            .append("echo \"\" >&2; echo \"").append(marker).append("\" >&2\n");
+
+        // Um pipe quebrado aqui é um shell que já tinha morrido: o script não foi lido
+        try {
+            ensureStarted();
+            stdin.write(script.toString());
+            stdin.flush();
+        } catch (IOException e) {
+            throw new ShellUnavailableException(e);
+        }
+
+        StringBuilder output = new StringBuilder();
+        String statusLine = readUntilMarker(stdoutLines, marker, deadline, output);
+
+        StringBuilder error = new StringBuilder();
+        readUntilMarker(stderrLines, marker, deadline, error);
+
+        int exitCode = parseExitCode(statusLine.substring(marker.length()).trim());
+        return new RootCommandResult(exitCode, output.toString().trim(), error.toString().trim());
+    }
+
+    private static String readUntilMarker(BlockingQueue<String> lines, String marker, long deadline, StringBuilder out)
+            throws IOException, TimeoutException, InterruptedException {
+        while (true) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                throw new TimeoutException("Timeout aguardando resposta do shell ROOT");
+            }
+
+            String line = lines.poll(remaining, TimeUnit.NANOSECONDS);
+            if (line == null) {
+                throw new TimeoutException("Timeout aguardando resposta do shell ROOT");
+            }
+            if (line == EOF) {
+                throw new IOException("Shell ROOT encerrado antes do fim do comando");
+            }
+            if (line.startsWith(marker)) {
+                return line;
+            }
+            out.append(line).append("\n");
+        }
+    }
+
+    private void ensureStarted() throws IOException {
+        if (process != null && isAlive(process)) {
+            return;
+        }
+
+        destroy();
+        Log.d(TAG, "🐚 Iniciando shell ROOT persistente");
+
+        process = new ProcessBuilder("su").start();
+        stdin = new BufferedWriter(new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8));
+        stdoutLines = new LinkedBlockingQueue<>();
+        stderrLines = new LinkedBlockingQueue<>();
+
+        startDrain(process.getInputStream(), stdoutLines, "RootShell-stdout");
+        startDrain(process.getErrorStream(), stderrLines, "RootShell-stderr");
+    }
+
+    /**
+     * Lê o stream continuamente até o processo terminar
+     */
+    private static void startDrain(InputStream stream, BlockingQueue<String> lines, String name) {
+        Thread thread = new Thread(() -> {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    lines.offer(line);
+                }
+            } catch (IOException ignored) {
+                // Stream fechado ao destruir o processo
+            } finally {
+                lines.offer(EOF);
+            }
+        }, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private static boolean isAlive(Process process) {
+        try {
+            process.exitValue();
+            return false;
+        } catch (IllegalThreadStateException e) {
+            return true;
+        }
+    }
+
+    private static int parseExitCode(String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Encerra o shell de forma limpa (exit) e libera o processo
+     */
+    synchronized void close() {
+        if (process == null) {
+            return;
+        }
+
+        try {
+            stdin.write("exit\n");
+            stdin.flush();
+            process.waitFor(1, TimeUnit.SECONDS);
+        } catch (Exception ignored) {
+            // O processo será destruído abaixo de qualquer forma
+        }
+
+        destroy();
+        Log.d(TAG, "🛑 Shell ROOT encerrado");
+    }
+
+    /**
+     * Descarta o processo atual; o próximo comando inicia um shell novo
+     */
+    private void destroy() {
+        Process current = process;
+        if (current != null) {
+            current.destroy();
+        }
+        process = null;
+        stdin = null;
+        stdoutLines = null;
+        stderrLines = null;
+    }
+}
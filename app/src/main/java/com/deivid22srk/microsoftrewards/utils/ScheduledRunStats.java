@@ -0,0 +1,125 @@
+package com.deivid22srk.microsoftrewards.utils;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 📊 Estatísticas persistentes de cada execução agendada
+ * Guarda o custo de bateria (tempo de WakeLock) e o resultado das últimas execuções.
+ */
+public class ScheduledRunStats {
+
+    private static final String TAG = "ScheduledRunStats";
+    private static final String PREFS_NAME = "ScheduledRunStats";
+    private static final String KEY_RUNS = "runs";
+    private static final int MAX_RECORDS = 30;
+
+    private final long startedAt;
+    private final long plannedMs;
+    private final long heldMs;
+    private final int acquisitions;
+    private final int extensions;
+    private final boolean releasedEarly;
+    private final int completedSearches;
+    private final int failedSearches;
+    private final boolean success;
+
+    public ScheduledRunStats(long startedAt, long plannedMs, long heldMs, int acquisitions, int extensions,
+                             boolean releasedEarly, int completedSearches, int failedSearches, boolean success) {
+        this.startedAt = startedAt;
+        this.plannedMs = plannedMs;
+        this.heldMs = heldMs;
+        this.acquisitions = acquisitions;
+        this.extensions = extensions;
+        this.releasedEarly = releasedEarly;
+        this.completedSearches = completedSearches;
+        this.failedSearches = failedSearches;
+        this.success = success;
+    }
+
+    public long getStartedAt() { return startedAt; }
+    public long getPlannedMs() { return plannedMs; }
+    public long getHeldMs() { return heldMs; }
+    public int getAcquisitions() { return acquisitions; }
+    public int getExtensions() { return extensions; }
+    public boolean wasReleasedEarly() { return releasedEarly; }
+    public int getCompletedSearches() { return completedSearches; }
+    public int getFailedSearches() { return failedSearches; }
+    public boolean isSuccess() { return success; }
+
+    /**
+     * Acrescenta o registro ao histórico, mantendo apenas os mais recentes
+     */
+    public static synchronized void record(Context context, ScheduledRunStats stats) {
+        SharedPreferences prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+
+        try {
+            JSONArray runs = new JSONArray(prefs.getString(KEY_RUNS, "[]"));
+            JSONArray trimmed = new JSONArray();
+            for (int i = Math.max(0, runs.length() - (MAX_RECORDS - 1)); i < runs.length(); i++) {
+                trimmed.put(runs.get(i));
+            }
+            trimmed.put(stats.toJson());
+
+            prefs.edit().putString(KEY_RUNS, trimmed.toString()).apply();
+            Log.d(TAG, "📊 Execução registrada: " + stats.toJson());
+        } catch (JSONException e) {
+            Log.e(TAG, "❌ Erro ao registrar estatísticas: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Histórico das execuções, da mais antiga para a mais recente
+     */
+    public static synchronized List<ScheduledRunStats> load(Context context) {
+        SharedPreferences prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        List<ScheduledRunStats> result = new ArrayList<>();
+
+        try {
+            JSONArray runs = new JSONArray(prefs.getString(KEY_RUNS, "[]"));
+            for (int i = 0; i < runs.length(); i++) {
+                result.add(fromJson(runs.getJSONObject(i)));
+            }
+        } catch (JSONException e) {
+            Log.e(TAG, "❌ Histórico de estatísticas inválido: " + e.getMessage());
+        }
+
+        return result;
+    }
+
+    private JSONObject toJson() throws JSONException {
+        JSONObject json = new JSONObject();
+        json.put("startedAt", startedAt);
+        json.put("plannedMs", plannedMs);
+        json.put("heldMs", heldMs);
+        json.put("acquisitions", acquisitions);
+        json.put("extensions", extensions);
+        json.put("releasedEarly", releasedEarly);
+        json.put("completed", completedSearches);
+        json.put("failed", failedSearches);
+        json.put("success", success);
+        return json;
+    }
+
+    private static ScheduledRunStats fromJson(JSONObject json) {
+        return new ScheduledRunStats(
+            json.optLong("startedAt"),
+            json.optLong("plannedMs"),
+            json.optLong("heldMs"),
+            json.optInt("acquisitions"),
+            json.optInt("extensions"),
+            json.optBoolean("releasedEarly"),
+            json.optInt("completed"),
+            json.optInt("failed"),
+            json.optBoolean("success")
+        );
+    }
+}
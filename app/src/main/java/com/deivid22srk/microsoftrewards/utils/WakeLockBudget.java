@@ -0,0 +1,118 @@
+package com.deivid22srk.microsoftrewards.utils;
+
+import android.os.PowerManager;
+import android.os.SystemClock;
+import android.util.Log;
+
+/**
+ * 🔋 WakeLock com orçamento de tempo
+ * O timeout vem do plano da execução e é estendido em blocos medidos conforme
+ * o progresso; o tempo realmente segurado é contabilizado para as estatísticas.
+ */
+public class WakeLockBudget {
+
+    private static final String TAG = "WakeLockBudget";
+
+    private final PowerManager.WakeLock wakeLock;
+
+    // Intervalo atual em que o lock está segurado (SystemClock.elapsedRealtime)
+    private long heldSince = -1;
+    private long expiresAt = -1;
+
+    private long heldMs = 0;
+    private int acquisitions = 0;
+    private int extensions = 0;
+    private boolean releasedEarly = false;
+
+    public WakeLockBudget(PowerManager.WakeLock wakeLock) {
+        this.wakeLock = wakeLock;
+        // Cada acquire substitui o timeout anterior em vez de empilhar referências
+        this.wakeLock.setReferenceCounted(false);
+    }
+
+    /**
+     * Segura o lock pelo tempo informado
+     */
+    public synchronized void acquire(long timeoutMs) {
+        long now = SystemClock.elapsedRealtime();
+        settleExpired(now);
+
+        wakeLock.acquire(timeoutMs);
+        if (heldSince < 0) {
+            heldSince = now;
+        }
+        expiresAt = now + timeoutMs;
+        acquisitions++;
+
+        Log.d(TAG, "🔋 WakeLock adquirido por " + timeoutMs / 1000 + "s");
+    }
+
+    /**
+     * Garante que o lock cubra pelo menos o tempo restante informado.
+     * Só re-arma quando o prazo atual é insuficiente.
+     */
+    public synchronized void ensureCovered(long remainingMs) {
+        long now = SystemClock.elapsedRealtime();
+        settleExpired(now);
+
+        if (heldSince >= 0 && expiresAt >= now + remainingMs) {
+            return;
+        }
+
+        boolean wasHeld = heldSince >= 0;
+        wakeLock.acquire(remainingMs);
+        if (!wasHeld) {
+            heldSince = now;
+            acquisitions++;
+        } else {
+            extensions++;
+        }
+        expiresAt = now + remainingMs;
+
+        Log.d(TAG, "🔋 WakeLock estendido: +" + remainingMs / 1000 + "s");
+    }
+
+    /**
+     * Libera o lock; se ainda restava prazo, conta como liberação antecipada
+     */
+    public synchronized void release() {
+        long now = SystemClock.elapsedRealtime();
+        settleExpired(now);
+
+        if (heldSince < 0) {
+            return;
+        }
+
+        if (expiresAt > now) {
+            releasedEarly = true;
+        }
+        if (wakeLock.isHeld()) {
+            wakeLock.release();
+        }
+        heldMs += now - heldSince;
+        heldSince = -1;
+        expiresAt = -1;
+
+        Log.d(TAG, "🔋 WakeLock liberado (segurado por " + heldMs / 1000 + "s no total)");
+    }
+
+    /**
+     * Contabiliza um lock que expirou sozinho pelo timeout
+     */
+    private void settleExpired(long now) {
+        if (heldSince >= 0 && expiresAt <= now) {
+            heldMs += expiresAt - heldSince;
+            heldSince = -1;
+            expiresAt = -1;
+        }
+    }
+
+    public synchronized long getHeldMs() {
+        long now = SystemClock.elapsedRealtime();
+        return heldSince >= 0 ? heldMs + Math.min(now, expiresAt) - heldSince : heldMs;
+    }
+
+    public synchronized int getAcquisitions() { return acquisitions; }
+    public synchronized int getExtensions() { return extensions; }
+    public synchronized boolean wasReleasedEarly() { return releasedEarly; }
+}
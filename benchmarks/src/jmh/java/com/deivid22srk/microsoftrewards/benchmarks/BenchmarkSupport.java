@@ -0,0 +1,49 @@
+package com.deivid22srk.microsoftrewards.benchmarks;
+
+import com.deivid22srk.microsoftrewards.core.CoreLog;
+import com.deivid22srk.microsoftrewards.core.LogSink;
+import com.deivid22srk.microsoftrewards.utils.KnowledgeBase;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 🧰 Utilidades comuns dos benchmarks
+ */
+final class BenchmarkSupport {
+
+    private BenchmarkSupport() {
+    }
+
+    /**
+     * Logs de depuração do core distorceriam as medições: descartar tudo
+     */
+    static void silenceLogs() {
+        CoreLog.setSink(new LogSink() {
+            @Override
+            public void d(String tag, String message) {
+            }
+
+            @Override
+            public void w(String tag, String message) {
+            }
+
+            @Override
+            public void e(String tag, String message, Throwable error) {
+            }
+        });
+    }
+
+    /**
+     * Resposta gravada da API (src/jmh/resources/gemini)
+     */
+    static String readResource(String path) throws IOException {
+        try (InputStream stream = BenchmarkSupport.class.getClassLoader().getResourceAsStream(path)) {
+            if (stream == null) {
+                throw new IOException("Recurso não encontrado: " + path);
+            }
+            return new String(KnowledgeBase.readFully(stream), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.deivid22srk.microsoftrewards.benchmarks;
+
+import com.deivid22srk.microsoftrewards.utils.GeminiStreamParser;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 🧾 Leitura em fluxo (GeminiStreamParser) das respostas gravadas do Gemini
+ * As respostas gravadas viram o que a API envia com saída estruturada: o array JSON
+ * dos termos, cortado em eventos SSE, com o finishReason no último. A validação
+ * dos termos sozinha é medida em SearchTermValidatorBenchmark.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class GeminiResponseBenchmark {
+
+    // Tamanho de cada pedaço de texto em um evento, próximo do que a API envia
+    private static final int CHUNK_CHARS = 48;
+
+    @Param({"batch_25", "batch_10_numbered", "safety_blocked"})
+    public String response;
+
+    private String[] sseLines;
+
+    @Setup
+    public void setUp() throws IOException {
+        BenchmarkSupport.silenceLogs();
+        sseLines = toSseLines(new JSONObject(BenchmarkSupport.readResource("gemini/" + response + ".json")));
+    }
+
+    @Benchmark
+    public int parseStream(Blackhole blackhole) throws JSONException {
+        GeminiStreamParser parser = new GeminiStreamParser(blackhole::consume);
+        for (String line : sseLines) {
+            parser.onSseLine(line);
+        }
+        parser.finish();
+        return parser.getEmitted();
+    }
+
+    private static String[] toSseLines(JSONObject recorded) throws JSONException {
+        JSONObject candidate = recorded.getJSONArray("candidates").getJSONObject(0);
+        JSONObject content = candidate.optJSONObject("content");
+        if (content == null) {
+            // Resposta bloqueada: um único evento, sem texto
+            return new String[] {"data: " + recorded};
+        }
+
+        JSONArray terms = new JSONArray();
+        for (String line : content.getJSONArray("parts").getJSONObject(0).getString("text").split("\n")) {
+            if (!line.trim().isEmpty()) {
+                terms.put(line.trim());
+            }
+        }
+        String json = terms.toString();
+
+        List<String> events = new ArrayList<>();
+        for (int start = 0; start < json.length(); start += CHUNK_CHARS) {
+            int end = Math.min(json.length(), start + CHUNK_CHARS);
+            JSONObject part = new JSONObject().put("text", json.substring(start, end));
+            JSONObject chunk = new JSONObject()
+                .put("content", new JSONObject().put("parts", new JSONArray().put(part)));
+            if (end == json.length()) {
+                chunk.put("finishReason", candidate.optString("finishReason", "STOP"));
+            }
+            events.add("data: " + new JSONObject().put("candidates", new JSONArray().put(chunk)));
+        }
+        return events.toArray(new String[0]);
+    }
+}
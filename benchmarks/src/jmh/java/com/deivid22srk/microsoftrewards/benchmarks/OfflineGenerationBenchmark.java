@@ -0,0 +1,52 @@
+package com.deivid22srk.microsoftrewards.benchmarks;
+
+import com.deivid22srk.microsoftrewards.model.SearchItem;
+import com.deivid22srk.microsoftrewards.utils.KnowledgeBase;
+import com.deivid22srk.microsoftrewards.utils.OfflineQueryGenerator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 💻 Geração offline (o que SmartSearchGenerator.generateOfflineIntelligentSearches faz,
+ * sem o seed do dispositivo nem o filtro de recentes, que dependem do Android)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class OfflineGenerationBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int count;
+
+    private long seed;
+
+    @Setup
+    public void setUp() {
+        BenchmarkSupport.silenceLogs();
+        // Base e índice carregados fora da medição (custo único por processo)
+        KnowledgeBase.getInstance();
+        OfflineQueryGenerator.open(0, null).next();
+    }
+
+    @Benchmark
+    public List<SearchItem> generateOfflineSearches() {
+        // Seed novo a cada chamada, como o contador global faz no app
+        OfflineQueryGenerator.OfflineSequence sequence = OfflineQueryGenerator.open(seed++, null);
+        List<SearchItem> searches = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            searches.add(new SearchItem(sequence.next(), i + 1));
+        }
+        return searches;
+    }
+}
@@ -0,0 +1,50 @@
+package com.deivid22srk.microsoftrewards.benchmarks;
+
+import com.deivid22srk.microsoftrewards.model.SearchItem;
+import com.deivid22srk.microsoftrewards.utils.OfflineQueryGenerator;
+import com.deivid22srk.microsoftrewards.utils.QueryQualityScorer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 📊 calculateQualityScore (QueryQualityScorer) sobre lotes gerados offline
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class QualityScoreBenchmark {
+
+    @Param({"30", "1000"})
+    public int count;
+
+    private QueryQualityScorer scorer;
+    private List<SearchItem> searches;
+
+    @Setup
+    public void setUp() {
+        BenchmarkSupport.silenceLogs();
+        scorer = QueryQualityScorer.getInstance();
+
+        OfflineQueryGenerator.OfflineSequence sequence = OfflineQueryGenerator.open(42, null);
+        searches = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            searches.add(new SearchItem(sequence.next(), i + 1));
+        }
+    }
+
+    @Benchmark
+    public double calculateQualityScore() {
+        return scorer.score(searches).getScore();
+    }
+}
@@ -0,0 +1,41 @@
+package com.deivid22srk.microsoftrewards.benchmarks;
+
+import com.deivid22srk.microsoftrewards.utils.SearchGenerator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 📝 SearchGenerator clássico
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SearchGeneratorBenchmark {
+
+    @Param({"10", "100"})
+    public int count;
+
+    private SearchGenerator generator;
+
+    @Setup
+    public void setUp() {
+        BenchmarkSupport.silenceLogs();
+        generator = new SearchGenerator();
+        generator.generateSearches(1);
+    }
+
+    @Benchmark
+    public List<String> generateSearches() {
+        return generator.generateSearches(count);
+    }
+}
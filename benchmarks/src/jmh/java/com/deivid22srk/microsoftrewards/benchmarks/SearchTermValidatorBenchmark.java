@@ -0,0 +1,88 @@
+package com.deivid22srk.microsoftrewards.benchmarks;
+
+import com.deivid22srk.microsoftrewards.utils.SearchTermValidator;
+
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ✅ SearchTermValidator (uma passada) vs. as expressões regulares anteriores,
+ * sobre as linhas das respostas gravadas do Gemini
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SearchTermValidatorBenchmark {
+
+    @Param({"batch_25", "batch_10_numbered"})
+    public String response;
+
+    private String[] lines;
+
+    @Setup
+    public void setUp() throws IOException {
+        BenchmarkSupport.silenceLogs();
+        String text = new JSONObject(BenchmarkSupport.readResource("gemini/" + response + ".json"))
+            .getJSONArray("candidates").getJSONObject(0)
+            .getJSONObject("content").getJSONArray("parts").getJSONObject(0)
+            .getString("text");
+        lines = text.split("\n");
+        for (int i = 0; i < lines.length; i++) {
+            lines[i] = lines[i].trim();
+        }
+    }
+
+    @Benchmark
+    public void validate(Blackhole blackhole) {
+        for (String line : lines) {
+            blackhole.consume(SearchTermValidator.validate(line));
+        }
+    }
+
+    @Benchmark
+    public void isValid(Blackhole blackhole) {
+        for (String line : lines) {
+            blackhole.consume(SearchTermValidator.isValid(line));
+        }
+    }
+
+    /**
+     * Referência: a implementação anterior (replaceAll, toLowerCase() a cada regra e matches)
+     */
+    @Benchmark
+    public void regexBaseline(Blackhole blackhole) {
+        for (String line : lines) {
+            blackhole.consume(regexIsValid(line));
+        }
+    }
+
+    private static boolean regexIsValid(String term) {
+        if (term == null || term.isEmpty()) {
+            return false;
+        }
+
+        term = term.replaceAll("^[-*•\\d+\\.\\s]+", "").trim();
+
+        return term.length() >= 2 &&
+               term.length() <= 100 &&
+               !term.contains(":") &&
+               !term.toLowerCase().contains("gere") &&
+               !term.toLowerCase().contains("liste") &&
+               !term.toLowerCase().contains("termos") &&
+               !term.toLowerCase().contains("pesquisa") &&
+               !term.toLowerCase().matches(".*\\b(um|uma|cada|linha|separada|inclua|responda|apenas)\\b.*") &&
+               !term.matches("^\\d+$") &&
+               term.matches(".*[a-zA-ZÀ-ÿ]+.*");
+    }
+}
@@ -0,0 +1,52 @@
+package com.deivid22srk.microsoftrewards.benchmarks;
+
+import com.deivid22srk.microsoftrewards.utils.SearchUrlTemplate;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 🔗 AppConfig.buildSearchUrl: template compilado da ConfigSnapshot (Bing) vs. URLEncoder
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SearchUrlBenchmark {
+
+    private static final String BING_PREFIX = "https://www.bing.com/search?q=";
+    private static final String BING_SUFFIX = "&PC=U316&FORM=CHROMN";
+
+    @Param({"receitas de bolo", "previsão do tempo são paulo amanhã", "c++ vs java: qual é melhor?"})
+    public String query;
+
+    private SearchUrlTemplate bing;
+
+    @Setup
+    public void setUp() {
+        // Mesmo template que a ConfigSnapshot compila para o Bing
+        bing = SearchUrlTemplate.around(BING_PREFIX, BING_SUFFIX);
+    }
+
+    @Benchmark
+    public String buildSearchUrl() {
+        return bing.build(query);
+    }
+
+    /**
+     * Referência: a implementação anterior (String.format + URLEncoder)
+     */
+    @Benchmark
+    public String urlEncoderBaseline() throws UnsupportedEncodingException {
+        return String.format(BING_PREFIX + "%s" + BING_SUFFIX, URLEncoder.encode(query, "UTF-8"));
+    }
+}
@@ -0,0 +1,15 @@
+package com.deivid22srk.microsoftrewards.core;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * 📦 Acesso aos assets empacotados (no app: AssetManager, com mapeamento em memória)
+ */
+public interface AssetSource {
+
+    /**
+     * Conteúdo completo do asset; lança IOException se ele não existir
+     */
+    ByteBuffer open(String name) throws IOException;
+}
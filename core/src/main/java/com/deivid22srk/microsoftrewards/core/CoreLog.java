@@ -0,0 +1,54 @@
+package com.deivid22srk.microsoftrewards.core;
+
+/**
+ * 📝 Logs do módulo core
+ * Sem plataforma instalada, escreve no console (JVM, testes e benchmarks);
+ * o app instala um LogSink sobre o android.util.Log ao iniciar.
+ */
+public final class CoreLog {
+
+    private static volatile LogSink sink = new LogSink() {
+        @Override
+        public void d(String tag, String message) {
+            System.out.println("D/" + tag + ": " + message);
+        }
+
+        @Override
+        public void w(String tag, String message) {
+            System.err.println("W/" + tag + ": " + message);
+        }
+
+        @Override
+        public void e(String tag, String message, Throwable error) {
+            System.err.println("E/" + tag + ": " + message);
+            if (error != null) {
+                error.printStackTrace();
+            }
+        }
+    };
+
+    private CoreLog() {
+    }
+
+    public static void setSink(LogSink logSink) {
+        if (logSink != null) {
+            sink = logSink;
+        }
+    }
+
+    public static void d(String tag, String message) {
+        sink.d(tag, message);
+    }
+
+    public static void w(String tag, String message) {
+        sink.w(tag, message);
+    }
+
+    public static void e(String tag, String message) {
+        sink.e(tag, message, null);
+    }
+
+    public static void e(String tag, String message, Throwable error) {
+        sink.e(tag, message, error);
+    }
+}
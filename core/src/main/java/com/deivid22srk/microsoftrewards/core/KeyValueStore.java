@@ -0,0 +1,16 @@
+package com.deivid22srk.microsoftrewards.core;
+
+/**
+ * 🗄️ Armazenamento chave-valor persistente (no app: SharedPreferences)
+ * As gravações podem ser assíncronas, como o apply() do SharedPreferences.
+ */
+public interface KeyValueStore {
+
+    String getString(String key, String defaultValue);
+
+    int getInt(String key, int defaultValue);
+
+    void putString(String key, String value);
+
+    void putInt(String key, int value);
+}
@@ -0,0 +1,13 @@
+package com.deivid22srk.microsoftrewards.core;
+
+/**
+ * 📝 Destino dos logs do módulo core (no app: android.util.Log)
+ */
+public interface LogSink {
+
+    void d(String tag, String message);
+
+    void w(String tag, String message);
+
+    void e(String tag, String message, Throwable error);
+}
@@ -0,0 +1,190 @@
+package com.deivid22srk.microsoftrewards.utils;
+
+import com.deivid22srk.microsoftrewards.core.CoreLog;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 🔀 Combina motores em cadeia sob um orçamento de latência
+ * Usa o primeiro motor disponível; se ele falhar, acabar ou estourar o prazo de
+ * um lote, passa ao próximo. Motores indisponíveis (ex.: reserva vazia, sem chave)
+ * ou cuja latência esperada não cabe no orçamento nem são tentados, então o motor
+ * usado é decidido a cada execução.
+ */
+public final class CompositeQueryEngine implements QueryEngine {
+
+    private static final String TAG = "CompositeQueryEngine";
+
+    // Chamadas aos motores rodam aqui para que o prazo possa ser aplicado. Uma chamada
+    // que estoura o prazo é cancelada (interrompida); o limite de threads evita que
+    // motores lentos acumulem threads sem fim, e uma chamada presa na fila só estoura o prazo
+    private static final int ENGINE_THREADS = 4;
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger(1);
+    private static final ThreadPoolExecutor EXECUTOR = new ThreadPoolExecutor(
+        ENGINE_THREADS, ENGINE_THREADS, 30, TimeUnit.SECONDS,
+        new LinkedBlockingQueue<Runnable>(),
+        runnable -> {
+            Thread thread = new Thread(runnable, "QueryEngine-" + THREAD_COUNT.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    );
+
+    static {
+        EXECUTOR.allowCoreThreadTimeOut(true);
+    }
+
+    private final long latencyBudgetMs;
+    private final List<QueryEngine> engines;
+
+    private CompositeQueryEngine(long latencyBudgetMs, QueryEngine... engines) {
+        this.latencyBudgetMs = Math.max(1, latencyBudgetMs);
+        this.engines = Collections.unmodifiableList(new ArrayList<>(Arrays.asList(engines)));
+    }
+
+    public static CompositeQueryEngine chain(long latencyBudgetMs, QueryEngine... engines) {
+        return new CompositeQueryEngine(latencyBudgetMs, engines);
+    }
+
+    public long getLatencyBudgetMs() {
+        return latencyBudgetMs;
+    }
+
+    @Override
+    public String getName() {
+        // O nome é o do motor que seria usado primeiro
+        List<QueryEngine> candidates = candidates();
+        return candidates.isEmpty() ? "—" : candidates.get(0).getName();
+    }
+
+    @Override
+    public EngineCapabilities getCapabilities() {
+        // Funciona offline se algum motor funcionar; a latência é a do primeiro
+        List<QueryEngine> candidates = candidates();
+        boolean offline = false;
+        long latency = candidates.isEmpty() ? 0 : candidates.get(0).getCapabilities().getExpectedLatencyMs();
+        int maxBatch = 1;
+        for (QueryEngine engine : candidates) {
+            EngineCapabilities capabilities = engine.getCapabilities();
+            offline |= capabilities.isOffline();
+            maxBatch = Math.max(maxBatch, capabilities.getMaxBatch());
+        }
+        return new EngineCapabilities(offline, latency, maxBatch);
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return !candidates().isEmpty();
+    }
+
+    @Override
+    public QuerySource.Producer open(int totalCount) {
+        return new CompositeProducer(candidates(), totalCount);
+    }
+
+    /**
+     * Motores disponíveis que cabem no orçamento; se nenhum couber, o mais rápido disponível
+     */
+    private List<QueryEngine> candidates() {
+        List<QueryEngine> candidates = new ArrayList<>();
+        QueryEngine fastest = null;
+        for (QueryEngine engine : engines) {
+            if (!engine.isAvailable()) {
+                continue;
+            }
+            if (engine.getCapabilities().fits(latencyBudgetMs)) {
+                candidates.add(engine);
+            }
+            if (fastest == null || engine.getCapabilities().getExpectedLatencyMs()
+                    < fastest.getCapabilities().getExpectedLatencyMs()) {
+                fastest = engine;
+            }
+        }
+        if (candidates.isEmpty() && fastest != null) {
+            candidates.add(fastest);
+        }
+        return candidates;
+    }
+
+    private final class CompositeProducer implements QuerySource.Producer {
+        private final List<QueryEngine> candidates;
+        private final QuerySource.Producer[] producers;
+        private final int totalCount;
+        private final Set<String> produced = new HashSet<>();
+        private int current = 0;
+
+        CompositeProducer(List<QueryEngine> candidates, int totalCount) {
+            this.candidates = candidates;
+            this.totalCount = totalCount;
+            this.producers = new QuerySource.Producer[candidates.size()];
+        }
+
+        @Override
+        public List<String> produce(int maxCount) throws Exception {
+            while (current < candidates.size()) {
+                List<String> chunk = unique(callWithBudget(current, maxCount));
+                if (!chunk.isEmpty()) {
+                    return chunk;
+                }
+                current++;
+                if (current < candidates.size()) {
+                    CoreLog.w(TAG, "⚠️ " + candidates.get(current - 1).getName() + " sem pesquisas, usando "
+                        + candidates.get(current).getName());
+                }
+            }
+            return Collections.emptyList();
+        }
+
+        private QuerySource.Producer producer(int index) {
+            if (producers[index] == null) {
+                producers[index] = candidates.get(index).open(totalCount);
+            }
+            return producers[index];
+        }
+
+        /**
+         * Chama o motor com prazo; estourar o prazo ou falhar conta como "sem pesquisas"
+         */
+        private List<String> callWithBudget(int index, int maxCount) throws InterruptedException {
+            QuerySource.Producer producer = producer(index);
+            int request = Math.min(maxCount, candidates.get(index).getCapabilities().getMaxBatch());
+            Future<List<String>> future = EXECUTOR.submit(() -> producer.produce(request));
+            try {
+                return future.get(latencyBudgetMs, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                CoreLog.w(TAG, "⏱️ " + candidates.get(index).getName() + " excedeu " + latencyBudgetMs + "ms");
+            } catch (ExecutionException e) {
+                CoreLog.w(TAG, "⚠️ Falha em " + candidates.get(index).getName() + ": " + e.getCause());
+            } catch (InterruptedException e) {
+                future.cancel(true);
+                throw e;
+            }
+            future.cancel(true);
+            // O gerador abandonado pode continuar ocupado; não é reaproveitado
+            producers[index] = null;
+            return Collections.emptyList();
+        }
+
+        private List<String> unique(List<String> chunk) {
+            List<String> result = new ArrayList<>(chunk.size());
+            for (String query : chunk) {
+                if (query != null && produced.add(query)) {
+                    result.add(query);
+                }
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.deivid22srk.microsoftrewards.utils;
+
+/**
+ * 🏷️ O que um QueryEngine oferece: funciona sem internet? quanto demora o
+ * primeiro lote? quantas pesquisas cabem em uma chamada?
+ */
+public final class EngineCapabilities {
+
+    public static final int UNLIMITED_BATCH = Integer.MAX_VALUE;
+
+    private final boolean offline;
+    private final long expectedLatencyMs;
+    private final int maxBatch;
+
+    public EngineCapabilities(boolean offline, long expectedLatencyMs, int maxBatch) {
+        this.offline = offline;
+        this.expectedLatencyMs = Math.max(0, expectedLatencyMs);
+        this.maxBatch = Math.max(1, maxBatch);
+    }
+
+    public boolean isOffline() {
+        return offline;
+    }
+
+    /**
+     * Tempo típico até o primeiro lote, em milissegundos
+     */
+    public long getExpectedLatencyMs() {
+        return expectedLatencyMs;
+    }
+
+    public int getMaxBatch() {
+        return maxBatch;
+    }
+
+    /**
+     * Cabe no orçamento de latência informado?
+     */
+    public boolean fits(long latencyBudgetMs) {
+        return expectedLatencyMs <= latencyBudgetMs;
+    }
+
+    @Override
+    public String toString() {
+        return (offline ? "offline" : "online") + ", ~" + expectedLatencyMs + "ms, lote "
+            + (maxBatch == UNLIMITED_BATCH ? "ilimitado" : String.valueOf(maxBatch));
+    }
+}
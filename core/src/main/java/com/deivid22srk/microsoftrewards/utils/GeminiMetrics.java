@@ -0,0 +1,178 @@
+package com.deivid22srk.microsoftrewards.utils;
+
+import com.deivid22srk.microsoftrewards.core.CoreLog;
+import com.deivid22srk.microsoftrewards.core.KeyValueStore;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 📊 Contadores de desperdício das chamadas ao Gemini
+ * Uma chamada desperdiçada gastou cota sem entregar nenhum termo aproveitável
+ * (erro HTTP, falha de rede, bloqueio, resposta vazia ou ilegível); um termo de
+ * fallback é uma pesquisa local entregue no lugar de uma do Gemini. Os dois
+ * devem ficar perto de zero. Os totais acumulados são lidos do armazenamento
+ * (no app, SharedPreferences) quando ele é ligado e regravados a cada report(),
+ * que também registra os motivos de rejeição contados pelo SearchTermValidator.
+ */
+public final class GeminiMetrics {
+
+    private static final String TAG = "GeminiMetrics";
+    public static final String PREFS_NAME = "GeminiMetrics";
+
+    private static final String KEY_CALLS = "calls";
+    private static final String KEY_WASTED_CALLS = "wasted_calls";
+    private static final String KEY_TRUNCATED_CALLS = "truncated_calls";
+    private static final String KEY_BLOCKED_CALLS = "blocked_calls";
+    private static final String KEY_TERMS_ACCEPTED = "terms_accepted";
+    private static final String KEY_TERMS_REJECTED = "terms_rejected";
+    private static final String KEY_FALLBACK_EVENTS = "fallback_events";
+    private static final String KEY_FALLBACK_TERMS = "fallback_terms";
+
+    private static volatile GeminiMetrics instance;
+
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong wastedCalls = new AtomicLong();
+    private final AtomicLong truncatedCalls = new AtomicLong();
+    private final AtomicLong blockedCalls = new AtomicLong();
+    private final AtomicLong termsAccepted = new AtomicLong();
+    private final AtomicLong termsRejected = new AtomicLong();
+    private final AtomicLong fallbackEvents = new AtomicLong();
+    private final AtomicLong fallbackTerms = new AtomicLong();
+
+    private volatile KeyValueStore store;
+
+    private GeminiMetrics() {
+    }
+
+    public static GeminiMetrics getInstance() {
+        if (instance == null) {
+            synchronized (GeminiMetrics.class) {
+                if (instance == null) {
+                    instance = new GeminiMetrics();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Liga o armazenamento dos totais (arquivo PREFS_NAME), somando o que já foi contado
+     */
+    public void setStore(KeyValueStore store) {
+        calls.addAndGet(store.getInt(KEY_CALLS, 0));
+        wastedCalls.addAndGet(store.getInt(KEY_WASTED_CALLS, 0));
+        truncatedCalls.addAndGet(store.getInt(KEY_TRUNCATED_CALLS, 0));
+        blockedCalls.addAndGet(store.getInt(KEY_BLOCKED_CALLS, 0));
+        termsAccepted.addAndGet(store.getInt(KEY_TERMS_ACCEPTED, 0));
+        termsRejected.addAndGet(store.getInt(KEY_TERMS_REJECTED, 0));
+        fallbackEvents.addAndGet(store.getInt(KEY_FALLBACK_EVENTS, 0));
+        fallbackTerms.addAndGet(store.getInt(KEY_FALLBACK_TERMS, 0));
+        this.store = store;
+    }
+
+    /**
+     * Chamada que chegou ao fim do fluxo; desperdiçada se não rendeu nenhum termo
+     */
+    public void recordCall(GeminiStreamParser parser) {
+        calls.incrementAndGet();
+        termsAccepted.addAndGet(parser.getEmitted());
+        termsRejected.addAndGet(parser.getRejected());
+        if (parser.isTruncated()) {
+            truncatedCalls.incrementAndGet();
+        }
+        if (parser.isBlocked()) {
+            blockedCalls.incrementAndGet();
+        }
+        if (parser.getEmitted() == 0) {
+            wastedCalls.incrementAndGet();
+        }
+    }
+
+    /**
+     * Chamada sem resposta aproveitável (erro HTTP, 429 que será repetido, falha de rede ou fluxo ilegível)
+     */
+    public void recordFailedCall() {
+        calls.incrementAndGet();
+        wastedCalls.incrementAndGet();
+    }
+
+    /**
+     * Pesquisas locais entregues no lugar das do Gemini
+     */
+    public void recordFallback(int terms) {
+        if (terms <= 0) {
+            return;
+        }
+        fallbackEvents.incrementAndGet();
+        fallbackTerms.addAndGet(terms);
+    }
+
+    public long getCalls() {
+        return calls.get();
+    }
+
+    public long getWastedCalls() {
+        return wastedCalls.get();
+    }
+
+    public long getTruncatedCalls() {
+        return truncatedCalls.get();
+    }
+
+    public long getBlockedCalls() {
+        return blockedCalls.get();
+    }
+
+    public long getTermsAccepted() {
+        return termsAccepted.get();
+    }
+
+    public long getTermsRejected() {
+        return termsRejected.get();
+    }
+
+    public long getFallbackEvents() {
+        return fallbackEvents.get();
+    }
+
+    public long getFallbackTerms() {
+        return fallbackTerms.get();
+    }
+
+    /**
+     * Registra o resumo no log e grava os totais (ao fim de cada geração)
+     */
+    public void report() {
+        CoreLog.d(TAG, "📊 " + this + " | rejeições: " + SearchTermValidator.rejectionSummary());
+        KeyValueStore target = store;
+        if (target == null) {
+            return;
+        }
+        target.putInt(KEY_CALLS, clamp(calls.get()));
+        target.putInt(KEY_WASTED_CALLS, clamp(wastedCalls.get()));
+        target.putInt(KEY_TRUNCATED_CALLS, clamp(truncatedCalls.get()));
+        target.putInt(KEY_BLOCKED_CALLS, clamp(blockedCalls.get()));
+        target.putInt(KEY_TERMS_ACCEPTED, clamp(termsAccepted.get()));
+        target.putInt(KEY_TERMS_REJECTED, clamp(termsRejected.get()));
+        target.putInt(KEY_FALLBACK_EVENTS, clamp(fallbackEvents.get()));
+        target.putInt(KEY_FALLBACK_TERMS, clamp(fallbackTerms.get()));
+    }
+
+    private static int clamp(long value) {
+        return (int) Math.min(value, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public String toString() {
+        long total = calls.get();
+        long wasted = wastedCalls.get();
+        return String.format(Locale.US,
+            "Gemini: %d chamadas, %d desperdiçadas (%.1f%%), %d truncadas, %d bloqueadas | "
+                + "termos: %d aceitos, %d rejeitados | fallback: %d vezes, %d termos locais",
+            total, wasted, total > 0 ? 100.0 * wasted / total : 0.0,
+            truncatedCalls.get(), blockedCalls.get(),
+            termsAccepted.get(), termsRejected.get(),
+            fallbackEvents.get(), fallbackTerms.get());
+    }
+}
@@ -0,0 +1,45 @@
+package com.deivid22srk.microsoftrewards.utils;
+
+import com.deivid22srk.microsoftrewards.core.CoreLog;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * 🧾 Leitura das respostas de erro do Gemini; os termos chegam pelo fluxo (ver GeminiStreamParser)
+ */
+public final class GeminiResponseParser {
+    
+    private static final String TAG = "GeminiSearchGenerator";
+    
+    private GeminiResponseParser() {
+    }
+    
+    /**
+     * Prazo sugerido pela API em uma resposta de erro (RetryInfo.retryDelay, ex.: "17s"),
+     * em milissegundos; -1 quando não informado
+     */
+    public static long retryDelayMs(String errorBody) {
+        if (errorBody == null || errorBody.isEmpty()) {
+            return -1;
+        }
+        try {
+            JSONObject error = new JSONObject(errorBody).optJSONObject("error");
+            JSONArray details = error != null ? error.optJSONArray("details") : null;
+            if (details == null) {
+                return -1;
+            }
+            for (int i = 0; i < details.length(); i++) {
+                JSONObject detail = details.optJSONObject(i);
+                String delay = detail != null ? detail.optString("retryDelay", null) : null;
+                if (delay != null && delay.endsWith("s")) {
+                    return (long) (Double.parseDouble(delay.substring(0, delay.length() - 1)) * 1000);
+                }
+            }
+        } catch (JSONException | NumberFormatException e) {
+            CoreLog.d(TAG, "Erro sem retryDelay legível: " + e.getMessage());
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,230 @@
+package com.deivid22srk.microsoftrewards.utils;
+
+import com.deivid22srk.microsoftrewards.core.CoreLog;
+import com.deivid22srk.microsoftrewards.model.SearchItem;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * 🌊 Leitura incremental de :streamGenerateContent?alt=sse
+ * Cada evento "data:" traz um pedaço do texto gerado, um array JSON de strings
+ * (saída estruturada, responseMimeType application/json). Um leitor de estados
+ * percorre o array caractere a caractere; cada termo completo e válido vira um
+ * SearchItem entregue na hora e só o termo ainda incompleto fica em memória.
+ */
+public final class GeminiStreamParser {
+
+    private static final String TAG = "GeminiSearchGenerator";
+    private static final String DATA_PREFIX = "data:";
+
+    /**
+     * Recebe cada termo assim que a sua string fecha
+     */
+    public interface TermListener {
+        void onTerm(SearchItem item);
+    }
+
+    // Estados do leitor de array JSON
+    private static final int BEFORE_ARRAY = 0;
+    private static final int IN_ARRAY = 1;
+    private static final int IN_STRING = 2;
+    private static final int ESCAPE = 3;
+    private static final int UNICODE = 4;
+    private static final int AFTER_ARRAY = 5;
+
+    private final TermListener listener;
+    private final StringBuilder partialTerm = new StringBuilder();
+    private int emitted = 0;
+    private int rejected = 0;
+    private String finishReason;
+    private boolean finished = false;
+
+    private int state = BEFORE_ARRAY;
+    private int unicodeDigits = 0;
+    private int unicodeValue = 0;
+
+    public GeminiStreamParser(TermListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Uma linha crua do fluxo SSE (linhas vazias, comentários e outros campos são ignorados)
+     */
+    public void onSseLine(String line) throws JSONException {
+        if (line == null || !line.startsWith(DATA_PREFIX)) {
+            return;
+        }
+        String payload = line.substring(DATA_PREFIX.length()).trim();
+        if (!payload.isEmpty() && !"[DONE]".equals(payload)) {
+            onChunk(payload);
+        }
+    }
+
+    /**
+     * Um evento (GenerateContentResponse parcial). Um erro informado pela API é lançado
+     * como RuntimeException.
+     */
+    public void onChunk(String json) throws JSONException {
+        if (finished) {
+            return;
+        }
+        JSONObject chunk = new JSONObject(json);
+
+        if (chunk.has("error")) {
+            JSONObject error = chunk.getJSONObject("error");
+            String errorMsg = error.optString("message", "Erro desconhecido");
+            CoreLog.e(TAG, "Erro da API Gemini (stream): " + errorMsg);
+            throw new RuntimeException("Erro da API Gemini: " + errorMsg);
+        }
+
+        JSONArray candidates = chunk.optJSONArray("candidates");
+        if (candidates == null || candidates.length() == 0) {
+            return;
+        }
+        JSONObject candidate = candidates.getJSONObject(0);
+
+        JSONObject content = candidate.optJSONObject("content");
+        JSONArray parts = content != null ? content.optJSONArray("parts") : null;
+        if (parts != null) {
+            for (int i = 0; i < parts.length(); i++) {
+                JSONObject part = parts.optJSONObject(i);
+                if (part != null && part.has("text")) {
+                    scanJson(part.getString("text"));
+                }
+            }
+        }
+
+        String reason = candidate.optString("finishReason", null);
+        if (reason != null && !reason.isEmpty() && !"FINISH_REASON_UNSPECIFIED".equals(reason)) {
+            finishReason = reason;
+            CoreLog.d(TAG, "Finish reason (stream): " + reason);
+            finish();
+        }
+    }
+
+    /**
+     * Percorre o array de strings; cada string fechada é um termo
+     */
+    private void scanJson(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (state) {
+                case BEFORE_ARRAY:
+                    if (c == '[') {
+                        state = IN_ARRAY;
+                    }
+                    break;
+                case IN_ARRAY:
+                    if (c == '"') {
+                        state = IN_STRING;
+                    } else if (c == ']') {
+                        state = AFTER_ARRAY;
+                    }
+                    break;
+                case IN_STRING:
+                    if (c == '"') {
+                        state = IN_ARRAY;
+                        completeTerm();
+                    } else if (c == '\\') {
+                        state = ESCAPE;
+                    } else {
+                        partialTerm.append(c);
+                    }
+                    break;
+                case ESCAPE:
+                    state = IN_STRING;
+                    switch (c) {
+                        case 'n':
+                        case 'r':
+                        case 't':
+                            partialTerm.append(' ');
+                            break;
+                        case 'b':
+                        case 'f':
+                            break;
+                        case 'u':
+                            state = UNICODE;
+                            unicodeDigits = 0;
+                            unicodeValue = 0;
+                            break;
+                        default:
+                            // \" \\ \/
+                            partialTerm.append(c);
+                    }
+                    break;
+                case UNICODE:
+                    unicodeValue = (unicodeValue << 4) + Character.digit(c, 16);
+                    if (++unicodeDigits == 4) {
+                        partialTerm.append((char) unicodeValue);
+                        state = IN_STRING;
+                    }
+                    break;
+                default:
+                    // Depois do array: ignorar o restante
+                    return;
+            }
+        }
+    }
+
+    private void completeTerm() {
+        String cleanTerm = partialTerm.toString().trim();
+        partialTerm.setLength(0);
+        if (cleanTerm.isEmpty()) {
+            return;
+        }
+        SearchTermValidator.Result result = SearchTermValidator.validate(cleanTerm);
+        if (result.isValid()) {
+            emitted++;
+            listener.onTerm(new SearchItem(result.getTerm(), emitted));
+        } else {
+            rejected++;
+            CoreLog.d(TAG, "Termo rejeitado (" + result.getRejection().getDescription() + "): " + cleanTerm);
+        }
+    }
+
+    /**
+     * Fim do fluxo: uma string sem aspas de fechamento está incompleta e é descartada,
+     * qualquer que seja o motivo do término
+     */
+    public void finish() {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        partialTerm.setLength(0);
+        if (finishReason != null && !"STOP".equals(finishReason)) {
+            CoreLog.w(TAG, "Geração interrompida (" + finishReason + ") com " + emitted + " termos completos");
+        }
+    }
+
+    public int getEmitted() {
+        return emitted;
+    }
+
+    public int getRejected() {
+        return rejected;
+    }
+
+    /**
+     * A geração foi cortada pelo limite de tokens?
+     */
+    public boolean isTruncated() {
+        return "MAX_TOKENS".equals(finishReason);
+    }
+
+    /**
+     * Motivo de término informado pela API, ou null se o fluxo acabou sem informar
+     */
+    public String getFinishReason() {
+        return finishReason;
+    }
+
+    /**
+     * Resposta bloqueada por segurança?
+     */
+    public boolean isBlocked() {
+        return "SAFETY".equals(finishReason) || "BLOCKED".equals(finishReason);
+    }
+}
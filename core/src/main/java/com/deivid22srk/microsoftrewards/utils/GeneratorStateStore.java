@@ -0,0 +1,124 @@
+package com.deivid22srk.microsoftrewards.utils;
+
+import com.deivid22srk.microsoftrewards.core.CoreLog;
+import com.deivid22srk.microsoftrewards.core.KeyValueStore;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 🧬 Estado dos geradores: seed do dispositivo + contador global de gerações
+ * Lidos do armazenamento (no app, SharedPreferences) uma única vez por processo. Cada geração reserva
+ * seu número do contador com um AtomicLong, então geradores simultâneos (tela e
+ * agendador) nunca recebem o mesmo seed; a gravação acontece em segundo plano.
+ */
+public final class GeneratorStateStore {
+
+    private static final String TAG = "GeneratorStateStore";
+    public static final String PREFS_NAME = "SmartSearchAI";
+    private static final String KEY_DEVICE_SEED = "device_seed";
+    private static final String KEY_SEARCH_COUNT = "total_search_count";
+
+    private static volatile GeneratorStateStore instance;
+
+    // Gravações agrupadas: enquanto uma estiver pendente, novas reservas só atualizam o valor
+    private static final ExecutorService FLUSH_EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "GeneratorState-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final KeyValueStore prefs;
+    private final String deviceSeed;
+    private final AtomicLong counter;
+    private final AtomicBoolean flushPending = new AtomicBoolean(false);
+
+    private GeneratorStateStore(KeyValueStore prefs, Callable<String> deviceFingerprint) {
+        this.prefs = prefs;
+        deviceSeed = loadDeviceSeed(deviceFingerprint);
+        counter = new AtomicLong(prefs.getInt(KEY_SEARCH_COUNT, 0));
+    }
+
+    /**
+     * @param prefs Armazenamento do seed e do contador (arquivo PREFS_NAME)
+     * @param deviceFingerprint Identificação do aparelho, consultada só se ainda não houver seed
+     */
+    public static GeneratorStateStore getInstance(KeyValueStore prefs, Callable<String> deviceFingerprint) {
+        if (instance == null) {
+            synchronized (GeneratorStateStore.class) {
+                if (instance == null) {
+                    instance = new GeneratorStateStore(prefs, deviceFingerprint);
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Instância já carregada, ou null (para geradores que não conhecem o armazenamento)
+     */
+    public static GeneratorStateStore peekInstance() {
+        return instance;
+    }
+
+    public String getDeviceSeed() {
+        return deviceSeed;
+    }
+
+    public long getCounter() {
+        return counter.get();
+    }
+
+    /**
+     * Reserva count números consecutivos do contador e devolve o primeiro
+     */
+    public long reserve(int count) {
+        long first = counter.getAndAdd(count);
+        scheduleFlush();
+        return first;
+    }
+
+    private void scheduleFlush() {
+        if (flushPending.compareAndSet(false, true)) {
+            FLUSH_EXECUTOR.execute(() -> {
+                flushPending.set(false);
+                // Sempre grava o valor mais recente, mesmo que várias reservas tenham se acumulado
+                prefs.putInt(KEY_SEARCH_COUNT, (int) counter.get());
+            });
+        }
+    }
+
+    private String loadDeviceSeed(Callable<String> deviceFingerprint) {
+        String seed = prefs.getString(KEY_DEVICE_SEED, null);
+        if (seed != null) {
+            return seed;
+        }
+
+        try {
+            String rawSeed = deviceFingerprint.call();
+
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(rawSeed.getBytes(StandardCharsets.UTF_8));
+
+            StringBuilder hexString = new StringBuilder();
+            for (byte b : hash) {
+                String hex = Integer.toHexString(0xff & b);
+                if (hex.length() == 1) hexString.append('0');
+                hexString.append(hex);
+            }
+
+            seed = hexString.toString().substring(0, 16);
+        } catch (Exception e) {
+            CoreLog.w(TAG, "⚠️ Falha ao derivar seed do dispositivo: " + e.getMessage());
+            seed = String.valueOf(System.currentTimeMillis() % 1000000);
+        }
+
+        prefs.putString(KEY_DEVICE_SEED, seed);
+        return seed;
+    }
+}
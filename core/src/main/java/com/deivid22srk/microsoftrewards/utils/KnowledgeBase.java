@@ -0,0 +1,194 @@
+package com.deivid22srk.microsoftrewards.utils;
+
+import com.deivid22srk.microsoftrewards.core.AssetSource;
+import com.deivid22srk.microsoftrewards.core.CoreLog;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 📚 Base de conhecimento em asset binário (assets/knowledge_base.bin)
+ * Gerada por create_knowledge_base.py: tabela de strings deduplicada + índice de seções.
+ * O arquivo vem do AssetSource instalado (no app, mapeado em memória direto do APK;
+ * na JVM, lido do classpath) e cada string só é decodificada no primeiro acesso.
+ */
+public final class KnowledgeBase {
+
+    private static final String TAG = "KnowledgeBase";
+    private static final String ASSET_NAME = "knowledge_base.bin";
+    private static final int MAGIC = 0x4D524B42; // "MRKB"
+    private static final int SUPPORTED_VERSION = 1;
+
+    public static final String GROUP_SMART = "smart";
+    public static final String GROUP_CLASSIC = "classic";
+
+    private static volatile KnowledgeBase instance;
+    private static volatile AssetSource assetSource;
+
+    private final ByteBuffer buffer;
+    private final int stringCount;
+    private final int stringOffsetsStart;
+    private final int entriesStart;
+    private final int stringDataStart;
+    private final String[] decoded;
+
+    // nome da seção → {primeira entrada, quantidade}
+    private final Map<String, int[]> sections = new LinkedHashMap<>();
+    private final Map<String, String[]> sectionCache = new LinkedHashMap<>();
+
+    private KnowledgeBase(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+
+        if (buffer.getInt(0) != MAGIC) {
+            throw new IOException("Asset da base de conhecimento inválido");
+        }
+        int version = buffer.getShort(4) & 0xFFFF;
+        if (version != SUPPORTED_VERSION) {
+            throw new IOException("Versão da base de conhecimento não suportada: " + version);
+        }
+
+        stringCount = buffer.getInt(6);
+        int sectionCount = buffer.getInt(10);
+        int entryCount = buffer.getInt(14);
+
+        stringOffsetsStart = 18;
+        int sectionsStart = stringOffsetsStart + (stringCount + 1) * 4;
+        entriesStart = sectionsStart + sectionCount * 12;
+        stringDataStart = entriesStart + entryCount * 4;
+        decoded = new String[stringCount];
+
+        for (int i = 0; i < sectionCount; i++) {
+            int position = sectionsStart + i * 12;
+            String name = string(buffer.getInt(position));
+            sections.put(name, new int[]{buffer.getInt(position + 4), buffer.getInt(position + 8)});
+        }
+    }
+
+    /**
+     * Origem do asset; sem ela, o asset é lido pelo ClassLoader (o APK contém "assets/")
+     */
+    public static void setAssetSource(AssetSource source) {
+        assetSource = source;
+    }
+
+    /**
+     * Instância compartilhada, carregada no primeiro uso
+     */
+    public static KnowledgeBase getInstance() {
+        if (instance == null) {
+            synchronized (KnowledgeBase.class) {
+                if (instance == null) {
+                    instance = load();
+                }
+            }
+        }
+        return instance;
+    }
+
+    private static KnowledgeBase load() {
+        try {
+            long start = System.nanoTime();
+            KnowledgeBase knowledgeBase = new KnowledgeBase(open());
+            CoreLog.d(TAG, String.format("📚 Base carregada: %d seções, %d strings em %dms",
+                knowledgeBase.sections.size(), knowledgeBase.stringCount, (System.nanoTime() - start) / 1000000));
+            return knowledgeBase;
+        } catch (IOException e) {
+            throw new IllegalStateException("Não foi possível carregar " + ASSET_NAME, e);
+        }
+    }
+
+    private static ByteBuffer open() throws IOException {
+        AssetSource source = assetSource;
+        if (source != null) {
+            return source.open(ASSET_NAME);
+        }
+
+        try (InputStream stream = KnowledgeBase.class.getClassLoader().getResourceAsStream("assets/" + ASSET_NAME)) {
+            if (stream == null) {
+                throw new IOException("Asset não encontrado no classpath: assets/" + ASSET_NAME);
+            }
+            return ByteBuffer.wrap(readFully(stream));
+        }
+    }
+
+    /**
+     * Lê o stream inteiro (assets comprimidos não podem ser mapeados)
+     */
+    public static byte[] readFully(InputStream stream) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(16 * 1024);
+        byte[] chunk = new byte[8192];
+        int read;
+        while ((read = stream.read(chunk)) != -1) {
+            out.write(chunk, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Decodifica (uma única vez) a string com o id informado
+     */
+    private synchronized String string(int id) {
+        String value = decoded[id];
+        if (value == null) {
+            int start = buffer.getInt(stringOffsetsStart + id * 4);
+            int end = buffer.getInt(stringOffsetsStart + (id + 1) * 4);
+
+            byte[] bytes = new byte[end - start];
+            ByteBuffer view = buffer.duplicate();
+            view.position(stringDataStart + start);
+            view.get(bytes);
+
+            value = new String(bytes, StandardCharsets.UTF_8);
+            decoded[id] = value;
+        }
+        return value;
+    }
+
+    /**
+     * Entradas da seção ("grupo/nome"), ou um array vazio se ela não existir
+     */
+    public synchronized String[] getSection(String name) {
+        String[] cached = sectionCache.get(name);
+        if (cached != null) {
+            return cached.clone();
+        }
+
+        int[] range = sections.get(name);
+        if (range == null) {
+            return new String[0];
+        }
+
+        String[] values = new String[range[1]];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = string(buffer.getInt(entriesStart + (range[0] + i) * 4));
+        }
+        sectionCache.put(name, values);
+        return values.clone();
+    }
+
+    /**
+     * Todas as seções de um grupo, na ordem do asset
+     */
+    public synchronized List<String[]> getGroup(String group) {
+        String prefix = group + "/";
+        List<String[]> result = new ArrayList<>();
+        for (String name : sections.keySet()) {
+            if (name.startsWith(prefix)) {
+                result.add(getSection(name));
+            }
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    public synchronized List<String> getSectionNames() {
+        return Collections.unmodifiableList(new ArrayList<>(sections.keySet()));
+    }
+}
@@ -0,0 +1,159 @@
+package com.deivid22srk.microsoftrewards.utils;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 💻 Estratégias da geração offline (templates × tópicos × modificadores)
+ * Sem dependências de Android: o seed vem de quem chama (no app, o
+ * SmartSearchGenerator com o GeneratorStateStore).
+ */
+public final class OfflineQueryGenerator {
+    
+    // 🎨 TEMPLATES VARIADOS
+    private static final String[] QUESTION_TEMPLATES = {
+        "como %s", "o que é %s", "por que %s", "quando %s", "onde %s", "quem %s", "qual %s",
+        "como usar %s", "como funciona %s", "como fazer %s", "como aprender %s", "como escolher %s",
+        "benefícios de %s", "vantagens %s", "desvantagens %s", "prós e contras %s",
+        "história de %s", "origem %s", "evolução %s", "futuro %s", "tendências %s",
+        "tipos de %s", "categorias %s", "exemplos %s", "casos %s", "aplicações %s",
+        "curso %s", "tutorial %s", "guia %s", "dicas %s", "truques %s", "segredos %s",
+        "melhores %s", "piores %s", "top %s", "ranking %s", "comparação %s", "versus %s"
+    };
+    
+    private static final String[] ACTION_TEMPLATES = {
+        "%s para iniciantes", "%s avançado", "%s profissional", "%s empresarial", "%s pessoal",
+        "aprender %s", "dominar %s", "especializar %s", "certificação %s", "carreira %s",
+        "trabalhar com %s", "negócio %s", "empresa %s", "startup %s", "freelance %s",
+        "investir %s", "ganhar dinheiro %s", "monetizar %s", "vender %s", "comprar %s",
+        "grátis %s", "barato %s", "premium %s", "melhor %s", "novo %s", "moderno %s"
+    };
+    
+    private static final String[] CONTEXTUAL_MODIFIERS = {
+        "2024", "2025", "atual", "novo", "moderno", "inovador", "revolucionário", "trending",
+        "popular", "viral", "famoso", "conhecido", "recomendado", "aprovado", "testado",
+        "Brasil", "brasileiro", "nacional", "internacional", "mundial", "global", "local",
+        "online", "digital", "virtual", "remoto", "presencial", "híbrido", "móvel", "web"
+    };
+    
+    private static final String[] COMPARATIVE_TEMPLATES = {
+        "%s vs %s", "%s ou %s", "diferença %s %s", "comparar %s %s",
+        "melhor %s %s", "escolher %s %s", "%s contra %s"
+    };
+    
+    private static final String[] TRENDING_TEMPLATES = {
+        "%s %s", "tendências %s %s", "novidades %s %s", 
+        "%s para %s", "%s em %s", "%s mais %s"
+    };
+    
+    private static final String[] PRACTICAL_TEMPLATES = {
+        "tutorial %s", "passo a passo %s", "guia completo %s",
+        "dicas %s", "truques %s", "segredos %s", "técnicas %s",
+        "estratégias %s", "métodos %s", "ferramentas %s"
+    };
+    
+    // 🗂️ Índice do espaço de pesquisas, montado apenas no primeiro uso
+    // 📚 Tópicos: seções "smart/*" do asset knowledge_base.bin (ver KnowledgeBase)
+    private static volatile QueryIndex queryIndex;
+    
+    static QueryIndex getQueryIndex() {
+        if (queryIndex == null) {
+            synchronized (OfflineQueryGenerator.class) {
+                if (queryIndex == null) {
+                    queryIndex = new QueryIndex(
+                        KnowledgeBase.getInstance().getGroup(KnowledgeBase.GROUP_SMART),
+                        CONTEXTUAL_MODIFIERS, QUESTION_TEMPLATES, ACTION_TEMPLATES,
+                        COMPARATIVE_TEMPLATES, TRENDING_TEMPLATES, PRACTICAL_TEMPLATES);
+                }
+            }
+        }
+        return queryIndex;
+    }
+    
+    private OfflineQueryGenerator() {
+    }
+    
+    /**
+     * Abre uma sequência offline: pesquisas inéditas geradas uma a uma, sob demanda
+     *
+     * @param recentQueries Pesquisas dos últimos dias, que não são repetidas (pode ser null)
+     */
+    public static OfflineSequence open(long seed, RecentQueryFilter recentQueries) {
+        return new OfflineSequence(getQueryIndex(), seed, recentQueries);
+    }
+    
+    /**
+     * Sequência de pesquisas offline sem repetição.
+     * Uma permutação por estratégia: cada posição consumida é uma pesquisa inédita.
+     */
+    public static final class OfflineSequence {
+        private final QueryIndex index;
+        private final long seed;
+        private final RecentQueryFilter recentQueries;
+        private final SeededPermutation[] permutations = new SeededPermutation[QueryIndex.STRATEGY_COUNT];
+        private final long[] cursors = new long[QueryIndex.STRATEGY_COUNT];
+        private final Set<String> usedQueries = new HashSet<>();
+        private int position = 0;
+        
+        private OfflineSequence(QueryIndex index, long seed, RecentQueryFilter recentQueries) {
+            this.index = index;
+            this.seed = seed;
+            this.recentQueries = recentQueries;
+        }
+        
+        public String next() {
+            int i = position++;
+            String query = nextQuery(index, permutations, cursors, seed, i % QueryIndex.STRATEGY_COUNT,
+                                     usedQueries, recentQueries);
+            
+            if (query == null) {
+                // Espaço inteiro esgotado: fallback com sufixo numérico
+                query = generateFallbackQuery(index.getTopics(), index.getModifiers(), i);
+            }
+            if (recentQueries != null) {
+                recentQueries.put(query);
+            }
+            return query;
+        }
+    }
+    
+    /**
+     * Próxima pesquisa da estratégia preferida (ou da seguinte, se ela se esgotou).
+     * Estratégias diferentes raramente geram o mesmo texto; nesse caso a posição é apenas pulada,
+     * assim como as pesquisas já usadas nos últimos dias e as que o validador recusaria.
+     */
+    private static String nextQuery(QueryIndex index, SeededPermutation[] permutations, long[] cursors,
+                                    long seed, int preferredStrategy, Set<String> usedQueries,
+                                    RecentQueryFilter recentQueries) {
+        for (int offset = 0; offset < QueryIndex.STRATEGY_COUNT; offset++) {
+            int strategy = (preferredStrategy + offset) % QueryIndex.STRATEGY_COUNT;
+            long size = index.size(strategy);
+            
+            while (cursors[strategy] < size) {
+                if (permutations[strategy] == null) {
+                    permutations[strategy] = new SeededPermutation(size, seed * 31 + strategy);
+                }
+                
+                String query = index.render(strategy, permutations[strategy].get(cursors[strategy]++));
+                if (recentQueries != null && recentQueries.mightContain(query)) {
+                    continue;
+                }
+                // Sem contar: as rejeições contadas são as das respostas do Gemini
+                if (!SearchTermValidator.accepts(query)) {
+                    continue;
+                }
+                if (usedQueries.add(query)) {
+                    return query;
+                }
+            }
+        }
+        return null;
+    }
+    
+    // 🔄 Fallback para garantir que sempre gera algo
+    private static String generateFallbackQuery(String[] topics, String[] modifiers, int index) {
+        String topic = topics[index % topics.length];
+        String modifier = modifiers[index % modifiers.length];
+        return topic + " " + modifier + " " + (index + 1);
+    }
+}
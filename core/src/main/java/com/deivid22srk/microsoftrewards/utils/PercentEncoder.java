@@ -0,0 +1,64 @@
+package com.deivid22srk.microsoftrewards.utils;
+
+/**
+ * 🔤 Codificador percent (UTF-8) orientado a tabela
+ * Produz exatamente a mesma saída de URLEncoder.encode(texto, "UTF-8"),
+ * mas escreve direto no StringBuilder do chamador, sem buffers intermediários.
+ */
+final class PercentEncoder {
+
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+    // Caracteres ASCII que o URLEncoder mantém como estão
+    private static final boolean[] SAFE = new boolean[128];
+
+    static {
+        for (char c = 'a'; c <= 'z'; c++) SAFE[c] = true;
+        for (char c = 'A'; c <= 'Z'; c++) SAFE[c] = true;
+        for (char c = '0'; c <= '9'; c++) SAFE[c] = true;
+        SAFE['.'] = true;
+        SAFE['-'] = true;
+        SAFE['*'] = true;
+        SAFE['_'] = true;
+    }
+
+    private PercentEncoder() {
+    }
+
+    static void encode(CharSequence text, StringBuilder out) {
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+
+            if (c < 0x80) {
+                if (SAFE[c]) {
+                    out.append(c);
+                } else if (c == ' ') {
+                    out.append('+');
+                } else {
+                    appendByte(out, c);
+                }
+            } else if (c < 0x800) {
+                appendByte(out, 0xC0 | (c >> 6));
+                appendByte(out, 0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(text.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, text.charAt(++i));
+                appendByte(out, 0xF0 | (codePoint >> 18));
+                appendByte(out, 0x80 | ((codePoint >> 12) & 0x3F));
+                appendByte(out, 0x80 | ((codePoint >> 6) & 0x3F));
+                appendByte(out, 0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                // Surrogate sem par: o encoder UTF-8 do Java substitui por '?'
+                appendByte(out, '?');
+            } else {
+                appendByte(out, 0xE0 | (c >> 12));
+                appendByte(out, 0x80 | ((c >> 6) & 0x3F));
+                appendByte(out, 0x80 | (c & 0x3F));
+            }
+        }
+    }
+
+    private static void appendByte(StringBuilder out, int b) {
+        out.append('%').append(HEX[(b >> 4) & 0xF]).append(HEX[b & 0xF]);
+    }
+}
@@ -0,0 +1,26 @@
+package com.deivid22srk.microsoftrewards.utils;
+
+/**
+ * 🔌 Motor de geração de pesquisas (offline, reserva em disco, Gemini ou cadeias deles)
+ * Todos têm o mesmo formato: cada execução abre um QuerySource.Producer próprio,
+ * que entrega as pesquisas em lotes sob demanda (ver QuerySources.open).
+ */
+public interface QueryEngine {
+
+    /**
+     * Rótulo exibido na interface
+     */
+    String getName();
+
+    EngineCapabilities getCapabilities();
+
+    /**
+     * Pode ser usado agora? (ex.: Gemini exige chave de API válida)
+     */
+    boolean isAvailable();
+
+    /**
+     * Novo gerador para uma execução de totalCount pesquisas
+     */
+    QuerySource.Producer open(int totalCount);
+}
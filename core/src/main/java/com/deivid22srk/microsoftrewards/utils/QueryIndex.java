@@ -0,0 +1,158 @@
+package com.deivid22srk.microsoftrewards.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 🗂️ Índice imutável do espaço de pesquisas offline
+ * Tópicos e templates deduplicados, templates já divididos nos pontos "%s".
+ * Cada estratégia é um espaço numerado (template × tópico × modificador):
+ * render(estratégia, n) monta diretamente a n-ésima pesquisa, sem String.format.
+ */
+final class QueryIndex {
+
+    static final int STRATEGY_QUESTION = 0;
+    static final int STRATEGY_ACTION = 1;
+    static final int STRATEGY_COMPARATIVE = 2;
+    static final int STRATEGY_TRENDING = 3;
+    static final int STRATEGY_PRACTICAL = 4;
+    static final int STRATEGY_MIXED = 5;
+    static final int STRATEGY_COUNT = 6;
+
+    // A estratégia mista gera "tópico modificador", igual a este template de tendência
+    private static final String TOPIC_MODIFIER_TEMPLATE = "%s %s";
+
+    private final String[] topics;
+    private final String[] modifiers;
+    private final String[][] questionTemplates;
+    private final String[][] actionTemplates;
+    private final String[][] comparativeTemplates;
+    private final String[][] trendingTemplates;
+    private final String[][] practicalTemplates;
+    private final long[] sizes = new long[STRATEGY_COUNT];
+
+    QueryIndex(Collection<String[]> topicGroups, String[] modifiers, String[] questionTemplates,
+               String[] actionTemplates, String[] comparativeTemplates, String[] trendingTemplates,
+               String[] practicalTemplates) {
+        Set<String> uniqueTopics = new LinkedHashSet<>();
+        for (String[] group : topicGroups) {
+            Collections.addAll(uniqueTopics, group);
+        }
+        this.topics = uniqueTopics.toArray(new String[0]);
+        this.modifiers = new LinkedHashSet<>(Arrays.asList(modifiers)).toArray(new String[0]);
+
+        // Templates de um único tópico compartilham o conjunto de vistos para não gerar a mesma pesquisa
+        Set<String> singleTopicSeen = new HashSet<>();
+        this.questionTemplates = split(questionTemplates, singleTopicSeen);
+        this.actionTemplates = split(actionTemplates, singleTopicSeen);
+        this.practicalTemplates = split(practicalTemplates, singleTopicSeen);
+        this.comparativeTemplates = split(comparativeTemplates, new HashSet<String>());
+        this.trendingTemplates = split(trendingTemplates,
+            new HashSet<>(Collections.singleton(TOPIC_MODIFIER_TEMPLATE)));
+
+        long topicCount = this.topics.length;
+        long modifierCount = this.modifiers.length;
+        sizes[STRATEGY_QUESTION] = this.questionTemplates.length * topicCount;
+        sizes[STRATEGY_ACTION] = this.actionTemplates.length * topicCount;
+        sizes[STRATEGY_COMPARATIVE] = this.comparativeTemplates.length * topicCount * Math.max(0, topicCount - 1);
+        sizes[STRATEGY_TRENDING] = this.trendingTemplates.length * topicCount * modifierCount;
+        sizes[STRATEGY_PRACTICAL] = this.practicalTemplates.length * topicCount;
+        sizes[STRATEGY_MIXED] = 2 * topicCount * modifierCount;
+    }
+
+    /**
+     * Divide cada template nos pontos "%s", descartando repetidos
+     */
+    private static String[][] split(String[] templates, Set<String> seen) {
+        List<String[]> result = new ArrayList<>();
+        for (String template : templates) {
+            if (seen.add(template)) {
+                result.add(template.split("%s", -1));
+            }
+        }
+        return result.toArray(new String[0][]);
+    }
+
+    String[] getTopics() {
+        return topics;
+    }
+
+    String[] getModifiers() {
+        return modifiers;
+    }
+
+    /**
+     * Quantidade de pesquisas distintas que a estratégia pode gerar
+     */
+    long size(int strategy) {
+        return sizes[strategy];
+    }
+
+    /**
+     * Monta a pesquisa número index (0 <= index < size) da estratégia
+     */
+    String render(int strategy, long index) {
+        switch (strategy) {
+            case STRATEGY_QUESTION:
+                return renderSingle(questionTemplates, index);
+            case STRATEGY_ACTION:
+                return renderSingle(actionTemplates, index);
+            case STRATEGY_COMPARATIVE:
+                return renderComparative(index);
+            case STRATEGY_TRENDING:
+                return renderTrending(index);
+            case STRATEGY_PRACTICAL:
+                return renderSingle(practicalTemplates, index);
+            default:
+                return renderMixed(index);
+        }
+    }
+
+    private String renderSingle(String[][] templates, long index) {
+        String[] parts = templates[(int) (index % templates.length)];
+        String topic = topics[(int) (index / templates.length)];
+        return fill(parts, topic, null);
+    }
+
+    private String renderComparative(long index) {
+        String[] parts = comparativeTemplates[(int) (index % comparativeTemplates.length)];
+        long rest = index / comparativeTemplates.length;
+
+        int first = (int) (rest % topics.length);
+        int second = (int) (rest / topics.length);
+        // Pula o próprio tópico: o segundo é sempre diferente do primeiro
+        if (second >= first) {
+            second++;
+        }
+        return fill(parts, topics[first], topics[second]);
+    }
+
+    private String renderTrending(long index) {
+        String[] parts = trendingTemplates[(int) (index % trendingTemplates.length)];
+        long rest = index / trendingTemplates.length;
+        return fill(parts, topics[(int) (rest % topics.length)], modifiers[(int) (rest / topics.length)]);
+    }
+
+    private String renderMixed(long index) {
+        boolean modifierFirst = (index & 1) == 0;
+        long rest = index >>> 1;
+        String topic = topics[(int) (rest % topics.length)];
+        String modifier = modifiers[(int) (rest / topics.length)];
+        return modifierFirst ? modifier + " " + topic : topic + " " + modifier;
+    }
+
+    private static String fill(String[] parts, String first, String second) {
+        StringBuilder query = new StringBuilder(64);
+        query.append(parts[0]);
+        for (int i = 1; i < parts.length; i++) {
+            query.append(i == 1 ? first : second).append(parts[i]);
+        }
+        return query.toString();
+    }
+}
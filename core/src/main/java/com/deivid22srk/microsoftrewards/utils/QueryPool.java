@@ -0,0 +1,373 @@
+package com.deivid22srk.microsoftrewards.utils;
+
+import com.deivid22srk.microsoftrewards.core.CoreLog;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 🏦 Reserva em disco de pesquisas geradas de antemão (files/query_pool.bin)
+ * Enchida em segundo plano, em boas condições (QueryPoolRefillService), e
+ * esvaziada instantaneamente por quem precisa de pesquisas: nenhuma chamada
+ * de rede no caminho da automação. Os registros só são acrescentados ao fim
+ * do arquivo; consumir apenas avança o cursor do cabeçalho. O arquivo é
+ * reescrito (compactado) quando a parte consumida passa da metade.
+ *
+ * Formato (big-endian):
+ *   magic "MRQP" | u16 versão | u16 reservado | i64 posição do primeiro registro não consumido
+ *   registros: i32 minuto de criação (desde a época) | u16 bytes | texto UTF-8
+ */
+public final class QueryPool {
+
+    private static final String TAG = "QueryPool";
+    private static final String FILE_NAME = "query_pool.bin";
+    private static final int MAGIC = 0x4D525150; // "MRQP"
+    private static final int VERSION = 1;
+
+    private static final int OFFSET_HEAD = 8;
+    private static final int HEADER_SIZE = 16;
+    private static final int RECORD_OVERHEAD = 6;
+    private static final int MAX_QUERY_BYTES = 0xFFFF;
+
+    // Cerca de três execuções diárias (30 Bing + 40 Chrome); recarregar abaixo de uma
+    public static final int TARGET_SIZE = 200;
+    public static final int LOW_WATERMARK = 70;
+
+    // Pesquisas "de época" envelhecem: descartadas depois de alguns dias
+    public static final long MAX_AGE_MS = TimeUnit.DAYS.toMillis(3);
+
+    // Compactar só quando valer a pena (evita reescrever a cada consumo)
+    private static final long COMPACT_MIN_BYTES = 8 * 1024;
+
+    private static volatile QueryPool instance;
+
+    private final File file;
+    private final ArrayDeque<Entry> entries = new ArrayDeque<>();
+    private final Set<String> contents = new HashSet<>();
+    private long head = HEADER_SIZE;
+    private long end = HEADER_SIZE;
+    private boolean persistent = true;
+
+    private QueryPool(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Instância compartilhada, carregada na primeira chamada (arquivo em filesDir)
+     */
+    public static QueryPool getInstance(File filesDir) {
+        if (instance == null) {
+            synchronized (QueryPool.class) {
+                if (instance == null) {
+                    instance = open(new File(filesDir, FILE_NAME));
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Reserva avulsa sobre um arquivo qualquer (testes)
+     */
+    static QueryPool open(File file) {
+        QueryPool pool = new QueryPool(file);
+        pool.load();
+        return pool;
+    }
+
+    /**
+     * Pesquisas disponíveis (sem contar as vencidas)
+     */
+    public synchronized int size() {
+        expire(System.currentTimeMillis());
+        return entries.size();
+    }
+
+    /**
+     * Abaixo do nível de recarga?
+     */
+    public synchronized boolean needsRefill() {
+        return size() < LOW_WATERMARK;
+    }
+
+    /**
+     * Quantas pesquisas faltam para encher a reserva
+     */
+    public synchronized int deficit() {
+        return Math.max(0, TARGET_SIZE - size());
+    }
+
+    /**
+     * Retira até maxCount pesquisas, das mais antigas para as mais novas
+     */
+    public synchronized List<String> take(int maxCount) {
+        expire(System.currentTimeMillis());
+        List<String> taken = new ArrayList<>(Math.min(maxCount, entries.size()));
+        while (taken.size() < maxCount && !entries.isEmpty()) {
+            Entry entry = entries.poll();
+            contents.remove(entry.normalized);
+            taken.add(entry.text);
+            head = entry.end;
+        }
+        if (!taken.isEmpty()) {
+            commitHead();
+        }
+        return taken;
+    }
+
+    /**
+     * Acrescenta pesquisas ao fim do arquivo (ignorando as que já estão na reserva);
+     * retorna quantas foram acrescentadas
+     */
+    public synchronized int addAll(List<String> queries) {
+        int createdMinute = (int) TimeUnit.MILLISECONDS.toMinutes(System.currentTimeMillis());
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(buffer);
+        List<Entry> added = new ArrayList<>();
+        long position = end;
+
+        try {
+            for (String query : queries) {
+                String text = query != null ? query.trim() : "";
+                byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+                if (text.isEmpty() || bytes.length > MAX_QUERY_BYTES) {
+                    continue;
+                }
+                String normalized = text.toLowerCase();
+                if (contents.contains(normalized)) {
+                    continue;
+                }
+                out.writeInt(createdMinute);
+                out.writeShort(bytes.length);
+                out.write(bytes);
+                position += RECORD_OVERHEAD + bytes.length;
+                contents.add(normalized);
+                added.add(new Entry(text, normalized, createdMinute, position));
+            }
+        } catch (IOException e) {
+            // ByteArrayOutputStream não lança; mantido pelo contrato de DataOutputStream
+            throw new IllegalStateException(e);
+        }
+        if (added.isEmpty()) {
+            return 0;
+        }
+
+        if (persistent) {
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                raf.seek(end);
+                raf.write(buffer.toByteArray());
+            } catch (IOException e) {
+                CoreLog.w(TAG, "⚠️ Falha ao gravar a reserva, mantendo em memória: " + e.getMessage());
+                persistent = false;
+            }
+        }
+        entries.addAll(added);
+        end = position;
+        CoreLog.d(TAG, "🏦 +" + added.size() + " pesquisas na reserva (" + entries.size() + ")");
+        return added.size();
+    }
+
+    /**
+     * Remove da frente as pesquisas vencidas (as mais antigas estão sempre na frente)
+     */
+    private void expire(long nowMs) {
+        int expired = 0;
+        while (!entries.isEmpty() && isExpired(entries.peek(), nowMs)) {
+            Entry entry = entries.poll();
+            contents.remove(entry.normalized);
+            head = entry.end;
+            expired++;
+        }
+        if (expired > 0) {
+            CoreLog.d(TAG, "🗑️ " + expired + " pesquisas vencidas descartadas da reserva");
+            commitHead();
+        }
+    }
+
+    private static boolean isExpired(Entry entry, long nowMs) {
+        return nowMs - TimeUnit.MINUTES.toMillis(entry.createdMinute) > MAX_AGE_MS;
+    }
+
+    /**
+     * Grava o novo cursor (8 bytes) ou compacta o arquivo se a parte consumida dominar
+     */
+    private void commitHead() {
+        if (!persistent) {
+            return;
+        }
+        long consumed = head - HEADER_SIZE;
+        if (consumed >= COMPACT_MIN_BYTES && consumed > end - head) {
+            compact();
+            return;
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(OFFSET_HEAD);
+            raf.writeLong(head);
+        } catch (IOException e) {
+            CoreLog.w(TAG, "⚠️ Falha ao gravar o cursor da reserva: " + e.getMessage());
+            persistent = false;
+        }
+    }
+
+    /**
+     * Reescreve só os registros não consumidos em um arquivo novo e troca os arquivos
+     */
+    private void compact() {
+        File temp = new File(file.getPath() + ".tmp");
+        long position = HEADER_SIZE;
+        List<Entry> moved = new ArrayList<>(entries.size());
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+            writeHeader(out, HEADER_SIZE);
+            for (Entry entry : entries) {
+                byte[] bytes = entry.text.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(entry.createdMinute);
+                out.writeShort(bytes.length);
+                out.write(bytes);
+                position += RECORD_OVERHEAD + bytes.length;
+                moved.add(new Entry(entry.text, entry.normalized, entry.createdMinute, position));
+            }
+        } catch (IOException e) {
+            CoreLog.w(TAG, "⚠️ Falha ao compactar a reserva: " + e.getMessage());
+            temp.delete();
+            return;
+        }
+        if (!temp.renameTo(file)) {
+            CoreLog.w(TAG, "⚠️ Falha ao substituir " + file);
+            temp.delete();
+            return;
+        }
+        entries.clear();
+        entries.addAll(moved);
+        head = HEADER_SIZE;
+        end = position;
+    }
+
+    private static void writeHeader(DataOutputStream out, long head) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        out.writeShort(0);
+        out.writeLong(head);
+    }
+
+    /**
+     * Lê os registros a partir do cursor; um registro final incompleto (gravação
+     * interrompida) é descartado e o arquivo é truncado no último registro íntegro
+     */
+    private void load() {
+        if (!file.exists() || file.length() < HEADER_SIZE) {
+            resetFile();
+            return;
+        }
+
+        long length = file.length();
+        boolean knownFormat;
+        try {
+            knownFormat = readRecords(length);
+        } catch (IOException e) {
+            CoreLog.w(TAG, "⚠️ Não foi possível ler " + file + ", usando reserva em memória: " + e.getMessage());
+            persistent = false;
+            return;
+        }
+        if (!knownFormat) {
+            // Recriado só depois de o arquivo lido ser fechado
+            CoreLog.w(TAG, "⚠️ Reserva com formato desconhecido, recriando");
+            resetFile();
+            return;
+        }
+
+        if (end < length) {
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                raf.setLength(end);
+            } catch (IOException e) {
+                CoreLog.w(TAG, "⚠️ Falha ao truncar a reserva: " + e.getMessage());
+            }
+        }
+        expire(System.currentTimeMillis());
+        CoreLog.d(TAG, "🏦 Reserva carregada: " + entries.size() + " pesquisas");
+    }
+
+    /**
+     * Registros íntegros a partir do cursor (false se o cabeçalho não for desta versão)
+     */
+    private boolean readRecords(long length) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readUnsignedShort() != VERSION) {
+                return false;
+            }
+            in.readUnsignedShort();
+            long storedHead = in.readLong();
+            if (storedHead < HEADER_SIZE || storedHead > length) {
+                storedHead = HEADER_SIZE;
+            }
+
+            in.skipBytes((int) (storedHead - HEADER_SIZE));
+            head = storedHead;
+            end = storedHead;
+            long position = storedHead;
+            while (position + RECORD_OVERHEAD <= length) {
+                int createdMinute = in.readInt();
+                int size = in.readUnsignedShort();
+                if (position + RECORD_OVERHEAD + size > length) {
+                    break;
+                }
+                byte[] bytes = new byte[size];
+                in.readFully(bytes);
+                position += RECORD_OVERHEAD + size;
+
+                String text = new String(bytes, StandardCharsets.UTF_8);
+                String normalized = text.toLowerCase();
+                if (contents.add(normalized)) {
+                    entries.add(new Entry(text, normalized, createdMinute, position));
+                }
+                end = position;
+            }
+        } catch (EOFException e) {
+            CoreLog.w(TAG, "⚠️ Reserva truncada, mantendo os registros íntegros");
+        }
+        return true;
+    }
+
+    private void resetFile() {
+        entries.clear();
+        contents.clear();
+        head = HEADER_SIZE;
+        end = HEADER_SIZE;
+        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(file))) {
+            writeHeader(out, HEADER_SIZE);
+        } catch (IOException e) {
+            CoreLog.w(TAG, "⚠️ Não foi possível criar " + file + ", usando reserva em memória: " + e.getMessage());
+            persistent = false;
+        }
+    }
+
+    private static final class Entry {
+        final String text;
+        final String normalized;
+        final int createdMinute;
+        // Posição logo após o registro: vira o cursor quando ele é consumido
+        final long end;
+
+        Entry(String text, String normalized, int createdMinute, long end) {
+            this.text = text;
+            this.normalized = normalized;
+            this.createdMinute = createdMinute;
+            this.end = end;
+        }
+    }
+}
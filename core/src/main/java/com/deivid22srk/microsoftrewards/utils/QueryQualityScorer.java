@@ -0,0 +1,445 @@
+package com.deivid22srk.microsoftrewards.utils;
+
+import com.deivid22srk.microsoftrewards.model.SearchItem;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 📊 Avaliação de qualidade das pesquisas em uma única passada por pesquisa
+ * Os tópicos da base de conhecimento (seções "smart/*") viram um autômato
+ * Aho–Corasick montado uma vez: cada caractere da pesquisa avança o autômato e
+ * todos os tópicos presentes (palavras inteiras) são encontrados juntos, sem
+ * percorrer o vocabulário. Na mesma passada são contadas palavras e bigramas.
+ *
+ * Serve para lotes (antes de executar) e para o histórico, incrementalmente via Session.
+ */
+public final class QueryQualityScorer {
+
+    private static volatile QueryQualityScorer instance;
+
+    // Autômato compilado: arestas de cada nó ordenadas por caractere (busca binária)
+    private final int[] edgeStart;
+    private final char[] edgeChars;
+    private final int[] edgeTargets;
+    private final int[] fail;
+    // Tópico que termina no nó (-1 se nenhum) e próximo nó de saída pela cadeia de falhas
+    private final int[] topicAtNode;
+    private final int[] outputLink;
+
+    private final int[][] topicCategories;
+    private final int topicCount;
+    private final int categoryCount;
+
+    QueryQualityScorer(List<String[]> categories) {
+        categoryCount = categories.size();
+
+        // Trie dos tópicos normalizados, com espaços nas pontas (casamento de palavras inteiras)
+        List<TreeMap<Character, Integer>> trie = new ArrayList<>();
+        List<Integer> terminal = new ArrayList<>();
+        trie.add(new TreeMap<>());
+        terminal.add(-1);
+
+        Map<String, Integer> topicIds = new HashMap<>();
+        List<List<Integer>> categoriesByTopic = new ArrayList<>();
+        for (int category = 0; category < categories.size(); category++) {
+            for (String topic : categories.get(category)) {
+                String pattern = normalize(topic);
+                if (pattern.length() <= 2) {
+                    continue;
+                }
+                Integer id = topicIds.get(pattern);
+                if (id == null) {
+                    id = topicIds.size();
+                    topicIds.put(pattern, id);
+                    categoriesByTopic.add(new ArrayList<>());
+
+                    int node = 0;
+                    for (int i = 0; i < pattern.length(); i++) {
+                        Integer next = trie.get(node).get(pattern.charAt(i));
+                        if (next == null) {
+                            next = trie.size();
+                            trie.add(new TreeMap<>());
+                            terminal.add(-1);
+                            trie.get(node).put(pattern.charAt(i), next);
+                        }
+                        node = next;
+                    }
+                    terminal.set(node, id);
+                }
+                if (!categoriesByTopic.get(id).contains(category)) {
+                    categoriesByTopic.get(id).add(category);
+                }
+            }
+        }
+
+        topicCount = topicIds.size();
+        topicCategories = new int[topicCount][];
+        for (int id = 0; id < topicCount; id++) {
+            List<Integer> list = categoriesByTopic.get(id);
+            topicCategories[id] = new int[list.size()];
+            for (int i = 0; i < list.size(); i++) {
+                topicCategories[id][i] = list.get(i);
+            }
+        }
+
+        // Compactar as arestas em arrays
+        int nodeCount = trie.size();
+        int edgeCount = nodeCount - 1;
+        edgeStart = new int[nodeCount + 1];
+        edgeChars = new char[edgeCount];
+        edgeTargets = new int[edgeCount];
+        topicAtNode = new int[nodeCount];
+        int edge = 0;
+        for (int node = 0; node < nodeCount; node++) {
+            edgeStart[node] = edge;
+            for (Map.Entry<Character, Integer> entry : trie.get(node).entrySet()) {
+                edgeChars[edge] = entry.getKey();
+                edgeTargets[edge] = entry.getValue();
+                edge++;
+            }
+            topicAtNode[node] = terminal.get(node);
+        }
+        edgeStart[nodeCount] = edge;
+
+        // Links de falha e de saída em largura
+        fail = new int[nodeCount];
+        outputLink = new int[nodeCount];
+        Arrays.fill(outputLink, -1);
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int e = edgeStart[0]; e < edgeStart[1]; e++) {
+            queue.add(edgeTargets[e]);
+        }
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+            for (int e = edgeStart[node]; e < edgeStart[node + 1]; e++) {
+                int child = edgeTargets[e];
+                int suffix = fail[node];
+                int target;
+                while ((target = transition(suffix, edgeChars[e])) < 0 && suffix != 0) {
+                    suffix = fail[suffix];
+                }
+                fail[child] = target >= 0 ? target : 0;
+                int failNode = fail[child];
+                outputLink[child] = topicAtNode[failNode] >= 0 ? failNode : outputLink[failNode];
+                queue.add(child);
+            }
+        }
+    }
+
+    /**
+     * Instância compartilhada, montada a partir da base de conhecimento no primeiro uso
+     */
+    public static QueryQualityScorer getInstance() {
+        if (instance == null) {
+            synchronized (QueryQualityScorer.class) {
+                if (instance == null) {
+                    instance = new QueryQualityScorer(
+                        KnowledgeBase.getInstance().getGroup(KnowledgeBase.GROUP_SMART));
+                }
+            }
+        }
+        return instance;
+    }
+
+    public int getTopicCount() {
+        return topicCount;
+    }
+
+    /**
+     * Avalia um lote completo
+     */
+    public Report score(List<SearchItem> searches) {
+        Session session = newSession();
+        for (SearchItem search : searches) {
+            session.add(search.getSearchText());
+        }
+        return session.report();
+    }
+
+    /**
+     * Acumulador incremental (ex.: histórico de pesquisas executadas)
+     */
+    public Session newSession() {
+        return new Session();
+    }
+
+    private int transition(int node, char c) {
+        int low = edgeStart[node];
+        int high = edgeStart[node + 1] - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            char label = edgeChars[mid];
+            if (label < c) {
+                low = mid + 1;
+            } else if (label > c) {
+                high = mid - 1;
+            } else {
+                return edgeTargets[mid];
+            }
+        }
+        return -1;
+    }
+
+    private int step(int node, char c) {
+        while (true) {
+            int next = transition(node, c);
+            if (next >= 0) {
+                return next;
+            }
+            if (node == 0) {
+                return 0;
+            }
+            node = fail[node];
+        }
+    }
+
+    /**
+     * Minúsculas, letras e dígitos; todo o resto vira um único espaço; espaços nas pontas
+     */
+    static String normalize(CharSequence text) {
+        StringBuilder builder = new StringBuilder(text.length() + 2).append(' ');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                builder.append(Character.toLowerCase(c));
+            } else if (builder.charAt(builder.length() - 1) != ' ') {
+                builder.append(' ');
+            }
+        }
+        if (builder.charAt(builder.length() - 1) != ' ') {
+            builder.append(' ');
+        }
+        return builder.toString();
+    }
+
+    /**
+     * 📈 Acumula métricas pesquisa a pesquisa; cada pesquisa é lida uma única vez
+     */
+    public final class Session {
+        private final LongSet words = new LongSet();
+        private final LongSet bigrams = new LongSet();
+        private final BitSet matchedTopics = new BitSet(topicCount);
+        private final int[] categoryHits = new int[categoryCount];
+        private final int[] categorySeenAt = new int[categoryCount];
+        private int queryCount;
+        private int queriesWithTopic;
+        private long totalWords;
+        private long totalBigrams;
+        private long repeatedBigrams;
+
+        private Session() {
+            Arrays.fill(categorySeenAt, -1);
+        }
+
+        public synchronized void add(CharSequence query) {
+            int queryId = queryCount++;
+            boolean hasTopic = false;
+
+            int node = step(0, ' ');
+            long wordHash = 0;
+            long previousWord = 0;
+            boolean inWord = false;
+            boolean lastWasSpace = true;
+
+            for (int i = 0, length = query.length(); i <= length; i++) {
+                char c = i < length ? query.charAt(i) : ' ';
+                if (Character.isLetterOrDigit(c)) {
+                    c = Character.toLowerCase(c);
+                    if (!inWord) {
+                        wordHash = 0xcbf29ce484222325L;
+                        inWord = true;
+                    }
+                    wordHash = (wordHash ^ c) * 0x100000001b3L;
+                    lastWasSpace = false;
+                } else {
+                    if (inWord) {
+                        // Fim de palavra: vocabulário e bigrama com a anterior
+                        totalWords++;
+                        words.add(wordHash);
+                        if (previousWord != 0) {
+                            totalBigrams++;
+                            if (!bigrams.add(previousWord * 0x9E3779B97F4A7C15L + wordHash)) {
+                                repeatedBigrams++;
+                            }
+                        }
+                        previousWord = wordHash;
+                        inWord = false;
+                    }
+                    if (lastWasSpace) {
+                        continue;
+                    }
+                    c = ' ';
+                    lastWasSpace = true;
+                }
+
+                node = step(node, c);
+                for (int out = topicAtNode[node] >= 0 ? node : outputLink[node]; out >= 0; out = outputLink[out]) {
+                    int topic = topicAtNode[out];
+                    hasTopic = true;
+                    matchedTopics.set(topic);
+                    for (int category : topicCategories[topic]) {
+                        if (categorySeenAt[category] != queryId) {
+                            categorySeenAt[category] = queryId;
+                            categoryHits[category]++;
+                        }
+                    }
+                }
+            }
+
+            if (hasTopic) {
+                queriesWithTopic++;
+            }
+        }
+
+        public synchronized Report report() {
+            if (queryCount == 0) {
+                return new Report(0, 0.0, 0.0, 0, 0.0, 0.0);
+            }
+
+            double diversity = totalWords > 0 ? (double) words.size() / totalWords : 0.0;
+            double coverage = (double) queriesWithTopic / queryCount;
+
+            // Equilíbrio: entropia normalizada da distribuição de categorias
+            long hits = 0;
+            for (int count : categoryHits) {
+                hits += count;
+            }
+            double balance = 0.0;
+            if (hits > 0 && categoryCount > 1) {
+                double entropy = 0.0;
+                for (int count : categoryHits) {
+                    if (count > 0) {
+                        double p = (double) count / hits;
+                        entropy -= p * Math.log(p);
+                    }
+                }
+                balance = entropy / Math.log(categoryCount);
+            }
+
+            double repetition = totalBigrams > 0 ? (double) repeatedBigrams / totalBigrams : 0.0;
+            return new Report(queryCount, diversity, coverage, matchedTopics.cardinality(), balance, repetition);
+        }
+    }
+
+    /**
+     * 📋 Resultado da avaliação (frações entre 0 e 1; nota entre 0 e 100)
+     */
+    public static final class Report {
+        private final int queryCount;
+        private final double diversity;
+        private final double topicCoverage;
+        private final int distinctTopics;
+        private final double categoryBalance;
+        private final double ngramRepetition;
+
+        Report(int queryCount, double diversity, double topicCoverage, int distinctTopics,
+               double categoryBalance, double ngramRepetition) {
+            this.queryCount = queryCount;
+            this.diversity = diversity;
+            this.topicCoverage = topicCoverage;
+            this.distinctTopics = distinctTopics;
+            this.categoryBalance = categoryBalance;
+            this.ngramRepetition = ngramRepetition;
+        }
+
+        public int getQueryCount() {
+            return queryCount;
+        }
+
+        /** Palavras distintas / total de palavras */
+        public double getDiversity() {
+            return diversity;
+        }
+
+        /** Fração de pesquisas com pelo menos um tópico conhecido */
+        public double getTopicCoverage() {
+            return topicCoverage;
+        }
+
+        public int getDistinctTopics() {
+            return distinctTopics;
+        }
+
+        /** 1 = tópicos distribuídos igualmente entre as categorias */
+        public double getCategoryBalance() {
+            return categoryBalance;
+        }
+
+        /** Fração de bigramas que já tinham aparecido */
+        public double getNgramRepetition() {
+            return ngramRepetition;
+        }
+
+        /**
+         * Nota geral: diversidade (60%) + cobertura de tópicos (40%), entre 0 e 100.
+         * Mesmos pesos do antigo calculateQualityScore, mas os valores não são comparáveis
+         * com as notas calculadas por ele:
+         * - cada pesquisa conta no máximo uma vez na cobertura (antes contava uma vez por
+         *   categoria com tópico presente, e a nota podia passar de 100);
+         * - tópicos casam só como palavras inteiras, e tópicos de até 2 caracteres são
+         *   ignorados (antes "ia" casava dentro de "dia");
+         * - palavras são sequências de letras e dígitos, em minúsculas (antes o texto era
+         *   cortado só nos espaços, e "bolo" e "bolo?" eram palavras diferentes).
+         */
+        public double getScore() {
+            return (diversity * 0.6 + topicCoverage * 0.4) * 100;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("📊 Qualidade %.1f: %d pesquisas, diversidade %.0f%%, cobertura %.0f%% (%d tópicos), equilíbrio %.0f%%, bigramas repetidos %.0f%%",
+                getScore(), queryCount, diversity * 100, topicCoverage * 100, distinctTopics,
+                categoryBalance * 100, ngramRepetition * 100);
+        }
+    }
+
+    /**
+     * Conjunto de longs com endereçamento aberto (sem boxing); 0 é reservado como vazio
+     */
+    private static final class LongSet {
+        private long[] slots = new long[64];
+        private int size;
+
+        boolean add(long value) {
+            if (value == 0) {
+                value = 1;
+            }
+            if ((size + 1) * 2 > slots.length) {
+                grow();
+            }
+            int mask = slots.length - 1;
+            int index = (int) (value ^ (value >>> 32)) * 0x9E3779B9 & mask;
+            while (slots[index] != 0) {
+                if (slots[index] == value) {
+                    return false;
+                }
+                index = (index + 1) & mask;
+            }
+            slots[index] = value;
+            size++;
+            return true;
+        }
+
+        int size() {
+            return size;
+        }
+
+        private void grow() {
+            long[] old = slots;
+            slots = new long[old.length * 2];
+            size = 0;
+            for (long value : old) {
+                if (value != 0) {
+                    add(value);
+                }
+            }
+        }
+    }
+}
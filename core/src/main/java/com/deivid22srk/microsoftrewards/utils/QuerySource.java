@@ -0,0 +1,277 @@
+package com.deivid22srk.microsoftrewards.utils;
+
+import com.deivid22srk.microsoftrewards.core.CoreLog;
+
+import com.deivid22srk.microsoftrewards.model.SearchItem;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 🚰 Fonte de pesquisas sob demanda
+ * Quem consome puxa uma pesquisa por vez; em segundo plano o gerador mantém
+ * até "lookAhead" pesquisas prontas no buffer. A automação começa assim que a
+ * primeira chega, sem esperar o lote inteiro nem guardar todas em memória.
+ */
+public final class QuerySource {
+
+    private static final String TAG = "QuerySource";
+
+    // Reabastecimentos rodam fora da thread de quem consome (no máximo um por fonte);
+    // poucas fontes ficam abertas ao mesmo tempo, então poucas threads bastam e o resto espera na fila
+    private static final int REFILL_THREADS = 2;
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger(1);
+    private static final ThreadPoolExecutor REFILL_EXECUTOR = new ThreadPoolExecutor(
+        REFILL_THREADS, REFILL_THREADS, 30, TimeUnit.SECONDS,
+        new LinkedBlockingQueue<Runnable>(),
+        runnable -> {
+            Thread thread = new Thread(runnable, "QuerySource-refill-" + THREAD_COUNT.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    );
+
+    static {
+        REFILL_EXECUTOR.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Gerador por trás da fonte, chamado sempre em uma thread de segundo plano
+     */
+    public interface Producer {
+        /**
+         * Gera até maxCount novas pesquisas; uma lista vazia indica que o gerador acabou
+         */
+        List<String> produce(int maxCount) throws Exception;
+    }
+
+    /**
+     * Avisado (na thread de reabastecimento) a cada pesquisa que entra no buffer
+     */
+    public interface OnItemsProducedListener {
+        void onItemsProduced(List<SearchItem> items);
+    }
+
+    private final String name;
+    private final int totalCount;
+    private final int lookAhead;
+    private final Producer producer;
+
+    private final Object lock = new Object();
+    private final ArrayDeque<SearchItem> buffer;
+    private int producedCount = 0;
+    private boolean producerDone = false;
+    private boolean refilling = false;
+    private Future<?> refillTask;
+    private boolean closed = false;
+    private Runnable readyCallback;
+    private volatile OnItemsProducedListener producedListener;
+
+    /**
+     * @param name Rótulo do gerador (exibido na interface)
+     * @param totalCount Quantidade total de pesquisas desta fonte
+     * @param lookAhead Quantas pesquisas manter prontas à frente do consumo
+     */
+    public QuerySource(String name, int totalCount, int lookAhead, Producer producer) {
+        this.name = name;
+        this.totalCount = Math.max(0, totalCount);
+        this.lookAhead = Math.max(1, lookAhead);
+        this.producer = producer;
+        this.buffer = new ArrayDeque<>(this.lookAhead);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getTotalCount() {
+        return totalCount;
+    }
+
+    public int getLookAhead() {
+        return lookAhead;
+    }
+
+    public void setOnItemsProducedListener(OnItemsProducedListener listener) {
+        this.producedListener = listener;
+    }
+
+    /**
+     * Começa a encher o buffer antes do primeiro consumo
+     */
+    public QuerySource prefetch() {
+        synchronized (lock) {
+            scheduleRefill();
+        }
+        return this;
+    }
+
+    /**
+     * Próxima pesquisa pronta, sem bloquear (null se o buffer estiver vazio no momento)
+     */
+    public SearchItem poll() {
+        synchronized (lock) {
+            SearchItem item = buffer.poll();
+            scheduleRefill();
+            return item;
+        }
+    }
+
+    /**
+     * Próxima pesquisa, aguardando o gerador por até timeoutMs.
+     * Retorna null quando a fonte acabou ou o prazo expirou (ver isExhausted()).
+     */
+    public SearchItem next(long timeoutMs) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        synchronized (lock) {
+            while (buffer.isEmpty() && !isExhaustedLocked()) {
+                scheduleRefill();
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    return null;
+                }
+                lock.wait(remaining);
+            }
+            SearchItem item = buffer.poll();
+            scheduleRefill();
+            return item;
+        }
+    }
+
+    /**
+     * Nenhuma pesquisa nova vai chegar: gerador concluído e buffer vazio, ou fonte fechada
+     */
+    public boolean isExhausted() {
+        synchronized (lock) {
+            return isExhaustedLocked();
+        }
+    }
+
+    private boolean isExhaustedLocked() {
+        return closed || (producerDone && !refilling && buffer.isEmpty());
+    }
+
+    /**
+     * Executa o callback uma única vez, quando houver pesquisa pronta ou a fonte acabar
+     */
+    public void whenReady(Runnable callback) {
+        synchronized (lock) {
+            if (buffer.isEmpty() && !isExhaustedLocked()) {
+                readyCallback = callback;
+                scheduleRefill();
+                return;
+            }
+        }
+        callback.run();
+    }
+
+    /**
+     * Descarta o buffer, interrompe o reabastecimento em andamento (o gerador
+     * cancela as suas chamadas de rede) e impede novos
+     */
+    public void close() {
+        Runnable callback;
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            buffer.clear();
+            if (refillTask != null) {
+                refillTask.cancel(true);
+                refillTask = null;
+            }
+            callback = readyCallback;
+            readyCallback = null;
+            lock.notifyAll();
+        }
+        if (callback != null) {
+            callback.run();
+        }
+    }
+
+    private void scheduleRefill() {
+        if (closed || producerDone || refilling) {
+            return;
+        }
+
+        int missing = lookAhead - buffer.size();
+        int remaining = totalCount - producedCount;
+        if (remaining <= 0) {
+            producerDone = true;
+            return;
+        }
+        if (missing <= 0) {
+            return;
+        }
+
+        refilling = true;
+        int request = Math.min(missing, remaining);
+        refillTask = REFILL_EXECUTOR.submit(() -> refill(request));
+    }
+
+    private void refill(int request) {
+        List<String> chunk;
+        try {
+            chunk = producer.produce(request);
+        } catch (InterruptedException e) {
+            CoreLog.d(TAG, "⏹️ Gerador " + name + " interrompido");
+            chunk = Collections.emptyList();
+        } catch (Exception e) {
+            CoreLog.e(TAG, "❌ Falha no gerador " + name + ": " + e.getMessage(), e);
+            chunk = Collections.emptyList();
+        }
+
+        List<SearchItem> added = new ArrayList<>(chunk.size());
+        Runnable callback = null;
+        synchronized (lock) {
+            refilling = false;
+            refillTask = null;
+            if (closed) {
+                return;
+            }
+
+            for (String text : chunk) {
+                if (producedCount >= totalCount) {
+                    break;
+                }
+                if (text == null || text.trim().isEmpty()) {
+                    continue;
+                }
+                SearchItem item = new SearchItem(text.trim(), ++producedCount);
+                buffer.add(item);
+                added.add(item);
+            }
+
+            // Lote sem nenhuma pesquisa aproveitável: o gerador não tem mais o que oferecer
+            if (added.isEmpty() || producedCount >= totalCount) {
+                producerDone = true;
+                if (producedCount < totalCount) {
+                    CoreLog.w(TAG, String.format("⚠️ %s encerrou com %d de %d pesquisas", name, producedCount, totalCount));
+                }
+            }
+
+            if (readyCallback != null && (!buffer.isEmpty() || isExhaustedLocked())) {
+                callback = readyCallback;
+                readyCallback = null;
+            }
+            lock.notifyAll();
+            scheduleRefill();
+        }
+
+        OnItemsProducedListener listener = producedListener;
+        if (listener != null && !added.isEmpty()) {
+            listener.onItemsProduced(added);
+        }
+        if (callback != null) {
+            callback.run();
+        }
+    }
+}
@@ -0,0 +1,302 @@
+package com.deivid22srk.microsoftrewards.utils;
+
+import com.deivid22srk.microsoftrewards.core.CoreLog;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.TimeZone;
+
+/**
+ * 🧮 Filtro de Bloom persistente das pesquisas dos últimos dias
+ * Um arquivo de tamanho fixo (files/recent_queries.bloom) mapeado em memória,
+ * dividido em uma fatia por dia numa janela rotativa: a fatia mais antiga é
+ * zerada quando um novo dia começa. Todos os geradores consultam o filtro antes
+ * de oferecer uma pesquisa e registram as que entregam, evitando repetir as
+ * pesquisas de ontem. A consulta é só hash + leitura de alguns bits do mapa.
+ *
+ * Formato (big-endian):
+ *   magic "MRBF" | u16 versão | u16 dias | u32 bits por fatia | u32 hashes
+ *   i64 consultas | i64 acertos | i64 inserções | i64 dia de cada fatia [dias]
+ *   fatias: bits por fatia / 8 bytes cada
+ */
+public final class RecentQueryFilter {
+
+    private static final String TAG = "RecentQueryFilter";
+    private static final String FILE_NAME = "recent_queries.bloom";
+    private static final int MAGIC = 0x4D524246; // "MRBF"
+    private static final int VERSION = 1;
+
+    // 7 dias × 64 Kbit (8 KB): ~4.700 pesquisas por dia com 1% de falsos positivos
+    static final int WINDOW_DAYS = 7;
+    static final int SLICE_BITS = 1 << 16;
+    static final int HASH_COUNT = 7;
+
+    private static final int OFFSET_CHECKS = 16;
+    private static final int OFFSET_HITS = 24;
+    private static final int OFFSET_INSERTS = 32;
+    private static final int OFFSET_DAYS = 40;
+    private static final int HEADER_SIZE = OFFSET_DAYS + WINDOW_DAYS * 8;
+    private static final int SLICE_BYTES = SLICE_BITS / 8;
+    private static final int FILE_SIZE = HEADER_SIZE + WINDOW_DAYS * SLICE_BYTES;
+    private static final long NO_DAY = Long.MIN_VALUE;
+    private static final long DAY_MS = 24L * 60 * 60 * 1000;
+
+    private static volatile RecentQueryFilter instance;
+
+    // Mapeado do arquivo; em memória apenas se o disco não estiver disponível
+    private final ByteBuffer map;
+
+    private RecentQueryFilter(ByteBuffer map) {
+        this.map = map;
+    }
+
+    /**
+     * Instância compartilhada, aberta na primeira chamada (arquivo em filesDir)
+     */
+    public static RecentQueryFilter getInstance(File filesDir) {
+        if (instance == null) {
+            synchronized (RecentQueryFilter.class) {
+                if (instance == null) {
+                    instance = open(new File(filesDir, FILE_NAME));
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Instância já aberta, ou null (para geradores que não conhecem o diretório)
+     */
+    public static RecentQueryFilter peekInstance() {
+        return instance;
+    }
+
+    static RecentQueryFilter open(File file) {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            boolean valid = raf.length() == FILE_SIZE;
+            raf.setLength(FILE_SIZE);
+            // O mapeamento continua válido depois que o arquivo é fechado
+            MappedByteBuffer map = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, FILE_SIZE);
+            RecentQueryFilter filter = new RecentQueryFilter(map);
+            if (!valid || !filter.hasCompatibleHeader()) {
+                filter.reset();
+            }
+            return filter;
+        } catch (IOException e) {
+            // Sem disco disponível: filtro apenas em memória, válido até o processo acabar
+            CoreLog.w(TAG, "⚠️ Não foi possível abrir " + file + ", usando filtro em memória: " + e.getMessage());
+            RecentQueryFilter filter = new RecentQueryFilter(ByteBuffer.allocate(FILE_SIZE));
+            filter.reset();
+            return filter;
+        }
+    }
+
+    private boolean hasCompatibleHeader() {
+        return map.getInt(0) == MAGIC
+            && (map.getShort(4) & 0xFFFF) == VERSION
+            && (map.getShort(6) & 0xFFFF) == WINDOW_DAYS
+            && map.getInt(8) == SLICE_BITS
+            && map.getInt(12) == HASH_COUNT;
+    }
+
+    private synchronized void reset() {
+        map.putInt(0, MAGIC);
+        map.putShort(4, (short) VERSION);
+        map.putShort(6, (short) WINDOW_DAYS);
+        map.putInt(8, SLICE_BITS);
+        map.putInt(12, HASH_COUNT);
+        map.putLong(OFFSET_CHECKS, 0);
+        map.putLong(OFFSET_HITS, 0);
+        map.putLong(OFFSET_INSERTS, 0);
+        for (int slice = 0; slice < WINDOW_DAYS; slice++) {
+            clearSlice(slice, NO_DAY);
+        }
+    }
+
+    /**
+     * A pesquisa (normalizada) pode ter sido usada na janela? Falso é sempre exato.
+     */
+    public boolean mightContain(CharSequence query) {
+        return mightContain(query, today());
+    }
+
+    synchronized boolean mightContain(CharSequence query, long day) {
+        long hash = hash(query);
+        boolean found = false;
+        for (int slice = 0; slice < WINDOW_DAYS && !found; slice++) {
+            long sliceDay = getDay(slice);
+            if (sliceDay != NO_DAY && day - sliceDay < WINDOW_DAYS && sliceDay <= day) {
+                found = sliceContains(slice, hash);
+            }
+        }
+
+        addCounter(OFFSET_CHECKS, 1);
+        if (found) {
+            addCounter(OFFSET_HITS, 1);
+        }
+        return found;
+    }
+
+    /**
+     * Registra a pesquisa na fatia do dia atual
+     */
+    public void put(CharSequence query) {
+        put(query, today());
+    }
+
+    synchronized void put(CharSequence query, long day) {
+        int slice = (int) (day % WINDOW_DAYS);
+        if (getDay(slice) != day) {
+            // Primeiro uso da fatia neste dia: descartar o dia que saiu da janela
+            clearSlice(slice, day);
+        }
+
+        long hash = hash(query);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        for (int i = 0; i < HASH_COUNT; i++) {
+            setBit(slice, (h1 + i * h2) & (SLICE_BITS - 1));
+        }
+        addCounter(OFFSET_INSERTS, 1);
+    }
+
+    /**
+     * Consulta e registra de uma vez: true se a pesquisa é inédita na janela
+     */
+    public synchronized boolean putIfAbsent(CharSequence query) {
+        long day = today();
+        if (mightContain(query, day)) {
+            return false;
+        }
+        put(query, day);
+        return true;
+    }
+
+    /**
+     * Garante que as alterações mapeadas cheguem ao disco
+     */
+    public synchronized void flush() {
+        if (map instanceof MappedByteBuffer) {
+            ((MappedByteBuffer) map).force();
+        }
+    }
+
+    // 📊 Contadores para dimensionar o filtro
+
+    public synchronized long getCheckCount() {
+        return map.getLong(OFFSET_CHECKS);
+    }
+
+    public synchronized long getHitCount() {
+        return map.getLong(OFFSET_HITS);
+    }
+
+    public synchronized long getInsertCount() {
+        return map.getLong(OFFSET_INSERTS);
+    }
+
+    /**
+     * Probabilidade estimada de falso positivo de uma consulta hoje, a partir da
+     * ocupação de bits de cada fatia ativa: 1 - Π(1 - ocupação^k)
+     */
+    public synchronized double getEstimatedFalsePositiveRate() {
+        long day = today();
+        double allMiss = 1.0;
+        for (int slice = 0; slice < WINDOW_DAYS; slice++) {
+            long sliceDay = getDay(slice);
+            if (sliceDay == NO_DAY || day - sliceDay >= WINDOW_DAYS || sliceDay > day) {
+                continue;
+            }
+            double fill = (double) countBits(slice) / SLICE_BITS;
+            allMiss *= 1.0 - Math.pow(fill, HASH_COUNT);
+        }
+        return 1.0 - allMiss;
+    }
+
+    public String describe() {
+        return String.format("🧮 Filtro: %d consultas, %d acertos, %d inserções, ~%.2f%% falsos positivos",
+            getCheckCount(), getHitCount(), getInsertCount(), getEstimatedFalsePositiveRate() * 100);
+    }
+
+    /**
+     * Hash de 64 bits do texto normalizado (minúsculas, espaços colapsados, sem
+     * espaços nas pontas), calculado caractere a caractere sem criar strings
+     */
+    static long hash(CharSequence query) {
+        long hash = 0xcbf29ce484222325L; // FNV-1a
+        boolean pendingSpace = false;
+        boolean started = false;
+        for (int i = 0, length = query.length(); i < length; i++) {
+            char c = query.charAt(i);
+            if (Character.isWhitespace(c)) {
+                pendingSpace = started;
+                continue;
+            }
+            if (pendingSpace) {
+                hash = (hash ^ ' ') * 0x100000001b3L;
+                pendingSpace = false;
+            }
+            hash = (hash ^ Character.toLowerCase(c)) * 0x100000001b3L;
+            started = true;
+        }
+        // Finalizador do SplitMix64 para espalhar os bits entre as duas metades
+        hash = (hash ^ (hash >>> 30)) * 0xBF58476D1CE4E5B9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94D049BB133111EBL;
+        return hash ^ (hash >>> 31);
+    }
+
+    static long today() {
+        long now = System.currentTimeMillis();
+        return (now + TimeZone.getDefault().getOffset(now)) / DAY_MS;
+    }
+
+    private boolean sliceContains(int slice, long hash) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        for (int i = 0; i < HASH_COUNT; i++) {
+            if (!getBit(slice, (h1 + i * h2) & (SLICE_BITS - 1))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long getDay(int slice) {
+        return map.getLong(OFFSET_DAYS + slice * 8);
+    }
+
+    private void clearSlice(int slice, long day) {
+        int base = HEADER_SIZE + slice * SLICE_BYTES;
+        for (int offset = 0; offset < SLICE_BYTES; offset += 8) {
+            map.putLong(base + offset, 0L);
+        }
+        map.putLong(OFFSET_DAYS + slice * 8, day);
+    }
+
+    private boolean getBit(int slice, int bit) {
+        long word = map.getLong(HEADER_SIZE + slice * SLICE_BYTES + (bit >>> 6) * 8);
+        return (word & (1L << (bit & 63))) != 0;
+    }
+
+    private void setBit(int slice, int bit) {
+        int offset = HEADER_SIZE + slice * SLICE_BYTES + (bit >>> 6) * 8;
+        map.putLong(offset, map.getLong(offset) | (1L << (bit & 63)));
+    }
+
+    private int countBits(int slice) {
+        int base = HEADER_SIZE + slice * SLICE_BYTES;
+        int count = 0;
+        for (int offset = 0; offset < SLICE_BYTES; offset += 8) {
+            count += Long.bitCount(map.getLong(base + offset));
+        }
+        return count;
+    }
+
+    private void addCounter(int offset, long delta) {
+        map.putLong(offset, map.getLong(offset) + delta);
+    }
+}
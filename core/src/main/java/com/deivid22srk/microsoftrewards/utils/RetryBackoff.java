@@ -0,0 +1,72 @@
+package com.deivid22srk.microsoftrewards.utils;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Random;
+import java.util.TimeZone;
+
+/**
+ * 🔁 Espera entre tentativas após 429/5xx: backoff exponencial com jitter,
+ * respeitando o prazo pedido pelo servidor (Retry-After) quando houver
+ */
+public final class RetryBackoff {
+
+    private final long baseDelayMs;
+    private final long maxDelayMs;
+    private final Random random;
+
+    public RetryBackoff(long baseDelayMs, long maxDelayMs, Random random) {
+        this.baseDelayMs = Math.max(1, baseDelayMs);
+        this.maxDelayMs = Math.max(this.baseDelayMs, maxDelayMs);
+        this.random = random;
+    }
+
+    /**
+     * Espera antes da tentativa número attempt (1 = primeira repetição).
+     * Jitter "igual": metade fixa + metade aleatória do degrau exponencial,
+     * nunca abaixo do que o servidor pediu.
+     */
+    public long delayMs(int attempt, long serverDelayMs) {
+        int shift = Math.min(Math.max(0, attempt - 1), 20);
+        long step = Math.min(maxDelayMs, baseDelayMs << shift);
+        long half = step / 2;
+        double roll;
+        synchronized (random) {
+            roll = random.nextDouble();
+        }
+        long jittered = half + (long) (roll * (step - half + 1));
+
+        // Prazo do servidor + um pouco de jitter para as requisições não voltarem juntas
+        if (serverDelayMs > 0) {
+            return Math.max(jittered, serverDelayMs + (long) (roll * baseDelayMs));
+        }
+        return jittered;
+    }
+
+    /**
+     * Cabeçalho Retry-After em milissegundos: segundos ou data HTTP; -1 se ausente/inválido
+     */
+    public static long parseRetryAfterMs(String header, long nowMs) {
+        if (header == null || header.trim().isEmpty()) {
+            return -1;
+        }
+        String value = header.trim();
+        try {
+            long seconds = Long.parseLong(value);
+            return seconds >= 0 ? seconds * 1000 : -1;
+        } catch (NumberFormatException ignored) {
+            // Não é número: tentar data HTTP (RFC 1123)
+        }
+
+        SimpleDateFormat format = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss zzz", Locale.US);
+        format.setTimeZone(TimeZone.getTimeZone("GMT"));
+        try {
+            Date date = format.parse(value);
+            return Math.max(0, date.getTime() - nowMs);
+        } catch (ParseException e) {
+            return -1;
+        }
+    }
+}
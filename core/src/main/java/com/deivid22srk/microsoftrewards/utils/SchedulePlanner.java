@@ -0,0 +1,80 @@
+package com.deivid22srk.microsoftrewards.utils;
+
+import java.util.Calendar;
+import java.util.TimeZone;
+
+/**
+ * ⏰ Contas do agendamento: horário do próximo alarme e orçamentos de tempo das execuções
+ */
+public final class SchedulePlanner {
+
+    // Folgas usadas no prazo de segurança das execuções e no orçamento do WakeLock
+    public static final long SEARCH_OPEN_MARGIN_MS = 10_000;
+    public static final long RUN_START_MARGIN_MS = 30_000;
+    public static final long MIN_WAKELOCK_MARGIN_MS = 60_000;
+    public static final long MAX_WAKELOCK_MARGIN_MS = 5 * 60_000;
+
+    private SchedulePlanner() {
+    }
+
+    /**
+     * Próxima ocorrência de hour:minute depois de nowMs (hoje, se ainda não passou; senão amanhã)
+     */
+    public static long nextDailyRun(long nowMs, int hour, int minute, TimeZone timeZone) {
+        Calendar calendar = atTime(nowMs, hour, minute, timeZone);
+        if (calendar.getTimeInMillis() <= nowMs) {
+            calendar.add(Calendar.DAY_OF_YEAR, 1);
+        }
+        return calendar.getTimeInMillis();
+    }
+
+    /**
+     * hour:minute do dia seguinte a nowMs (reagendamento depois de uma execução)
+     */
+    public static long tomorrowAt(long nowMs, int hour, int minute, TimeZone timeZone) {
+        Calendar calendar = Calendar.getInstance(timeZone);
+        calendar.setTimeInMillis(nowMs);
+        calendar.add(Calendar.DAY_OF_YEAR, 1);
+        calendar.set(Calendar.HOUR_OF_DAY, hour);
+        calendar.set(Calendar.MINUTE, minute);
+        calendar.set(Calendar.SECOND, 0);
+        calendar.set(Calendar.MILLISECOND, 0);
+        return calendar.getTimeInMillis();
+    }
+
+    /**
+     * Tempo máximo de uma pesquisa no plano: countdown com o maior atraso aleatório
+     * + tempo de exibição do resultado + folga para abrir o navegador
+     *
+     * @param maxRandomDelay Maior atraso aleatório (0 se desativado)
+     */
+    public static long perSearchBudgetMs(int searchInterval, int maxRandomDelay, int countdownInterval,
+                                         int resultDisplayTime) {
+        int maxInterval = searchInterval + maxRandomDelay;
+        return (maxInterval * (long) countdownInterval + resultDisplayTime) * 1000L + SEARCH_OPEN_MARGIN_MS;
+    }
+
+    /**
+     * Limite superior da duração de uma execução de count pesquisas
+     */
+    public static long maxRunDurationMs(int count, long perSearchBudgetMs) {
+        return count * perSearchBudgetMs + RUN_START_MARGIN_MS;
+    }
+
+    /**
+     * Margem do WakeLock: 10% do tempo previsto, limitada entre 1 e 5 minutos
+     */
+    public static long wakeLockMarginMs(long plannedMs) {
+        return Math.min(MAX_WAKELOCK_MARGIN_MS, Math.max(MIN_WAKELOCK_MARGIN_MS, plannedMs / 10));
+    }
+
+    private static Calendar atTime(long nowMs, int hour, int minute, TimeZone timeZone) {
+        Calendar calendar = Calendar.getInstance(timeZone);
+        calendar.setTimeInMillis(nowMs);
+        calendar.set(Calendar.HOUR_OF_DAY, hour);
+        calendar.set(Calendar.MINUTE, minute);
+        calendar.set(Calendar.SECOND, 0);
+        calendar.set(Calendar.MILLISECOND, 0);
+        return calendar;
+    }
+}
@@ -2,64 +2,18 @@ package com.deivid22srk.microsoftrewards.utils;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Random;
+import java.util.Set;
 
 public class SearchGenerator {
+    private static final int MAX_UNIQUE_ATTEMPTS = 50;
+    
     private Random random;
     
-    // Categorias de pesquisas com termos relacionados
-    private final String[][] categories = {
-        // Tecnologia
-        {"inteligência artificial", "machine learning", "blockchain", "realidade virtual", 
-         "internet das coisas", "computação quântica", "robótica", "criptomoeda", 
-         "desenvolvimento web", "aplicativos móveis", "cibersegurança", "nuvem"},
-        
-        // Ciência
-        {"física quântica", "astronomia", "biologia molecular", "genética", 
-         "neurociência", "medicina", "química orgânica", "paleontologia",
-         "ecologia", "microbiologia", "psicologia", "antropologia"},
-        
-        // História
-        {"história antiga", "império romano", "revolução francesa", "segunda guerra mundial",
-         "civilização maia", "renascimento", "idade média", "revolução industrial",
-         "descobrimentos", "história do brasil", "império otomano", "vikings"},
-        
-        // Geografia
-        {"montanhas mais altas", "oceanos profundos", "países europeus", "capitais mundiais",
-         "clima tropical", "desertos", "vulcões ativos", "rios importantes",
-         "ilhas paradisíacas", "cidades históricas", "patrimônio mundial", "biodiversidade"},
-        
-        // Culinária
-        {"receitas italiana", "culinária japonesa", "pratos vegetarianos", "sobremesas caseiras",
-         "comida mexicana", "receitas saudáveis", "culinária brasileira", "pratos típicos",
-         "gastronomia francesa", "comida árabe", "receitas veganas", "doces tradicionais"},
-        
-        // Esportes
-        {"futebol brasileiro", "olimpíadas", "basquete NBA", "tênis profissional",
-         "fórmula 1", "mundial fifa", "natação", "atletismo",
-         "esportes extremos", "ginástica artística", "vôlei", "artes marciais"},
-        
-        // Arte e Cultura
-        {"museus famosos", "pinturas clássicas", "arte moderna", "esculturas antigas",
-         "música clássica", "cinema internacional", "teatro", "literatura mundial",
-         "dança contemporânea", "fotografia artística", "arquitetura histórica", "design"},
-        
-        // Saúde e Bem-estar
-        {"exercícios físicos", "yoga", "meditação", "alimentação saudável",
-         "vitaminas", "plantas medicinais", "primeiros socorros", "saúde mental",
-         "exercícios aeróbicos", "nutrição esportiva", "sono reparador", "hidratação"},
-        
-        // Educação
-        {"aprender idiomas", "matemática básica", "história da educação", "metodologias ensino",
-         "educação infantil", "ensino superior", "cursos online", "técnicas estudo",
-         "educação especial", "tecnologia educacional", "pedagogia", "psicopedagogia"},
-        
-        // Natureza e Meio Ambiente
-        {"animais selvagens", "plantas tropicais", "conservação ambiental", "mudanças climáticas",
-         "energia renovável", "reciclagem", "biodiversidade", "florestas",
-         "vida marinha", "sustentabilidade", "ecossistemas", "poluição ambiental"}
-    };
+    // Categorias de pesquisas com termos relacionados (seções "classic/*" do asset knowledge_base.bin)
+    private String[][] categories;
     
     private final String[] questionWords = {
         "como", "onde", "quando", "por que", "o que é", "quem", "qual", "quanto"
@@ -78,23 +32,41 @@ public class SearchGenerator {
         this.random = new Random();
     }
 
+    /**
+     * Pesquisas sem duplicatas e fora das usadas nos últimos dias (ver generateUniqueSearch)
+     */
     public List<String> generateSearches(int count) {
         List<String> searches = new ArrayList<>();
+        Set<String> used = new HashSet<>();
         
         for (int i = 0; i < count; i++) {
-            String search = generateSingleSearch();
-            
-            // Evitar duplicatas
-            while (searches.contains(search)) {
-                search = generateSingleSearch();
-            }
-            
-            searches.add(search);
+            searches.add(generateUniqueSearch(used));
         }
         
         return searches;
     }
     
+    /**
+     * Uma pesquisa que ainda não está em "used" nem foi usada nos últimos dias
+     * (desiste após algumas tentativas)
+     */
+    public String generateUniqueSearch(Set<String> used) {
+        RecentQueryFilter recentQueries = RecentQueryFilter.peekInstance();
+        String search = generateSingleSearch();
+        for (int attempt = 0; attempt < MAX_UNIQUE_ATTEMPTS && isRepeated(search, used, recentQueries); attempt++) {
+            search = generateSingleSearch();
+        }
+        used.add(search);
+        if (recentQueries != null) {
+            recentQueries.put(search);
+        }
+        return search;
+    }
+    
+    private static boolean isRepeated(String search, Set<String> used, RecentQueryFilter recentQueries) {
+        return used.contains(search) || (recentQueries != null && recentQueries.mightContain(search));
+    }
+    
     private String generateSingleSearch() {
         int searchType = random.nextInt(5);
         
@@ -148,6 +120,9 @@ public class SearchGenerator {
     }
     
     private String getRandomTopic() {
+        if (categories == null) {
+            categories = KnowledgeBase.getInstance().getGroup(KnowledgeBase.GROUP_CLASSIC).toArray(new String[0][]);
+        }
         int categoryIndex = random.nextInt(categories.length);
         String[] category = categories[categoryIndex];
         return category[random.nextInt(category.length)];
@@ -164,19 +139,29 @@ public class SearchGenerator {
         );
         
         List<String> searches = new ArrayList<>();
+        Set<String> used = new HashSet<>();
+        RecentQueryFilter recentQueries = RecentQueryFilter.peekInstance();
         
-        for (int i = 0; i < count && i < trendingTopics.size(); i++) {
+        for (int i = 0; i < trendingTopics.size() && searches.size() < count; i++) {
             String baseTopic = trendingTopics.get(i);
             String search = enhanceSearch(baseTopic);
+            // Tendência já pesquisada nos últimos dias: fica para as pesquisas normais
+            if (isRepeated(search, used, recentQueries)) {
+                continue;
+            }
+            used.add(search);
+            if (recentQueries != null) {
+                recentQueries.put(search);
+            }
             searches.add(search);
         }
         
         // Completar com pesquisas normais se necessário
         while (searches.size() < count) {
-            searches.addAll(generateSearches(count - searches.size()));
+            searches.add(generateUniqueSearch(used));
         }
         
-        return searches.subList(0, count);
+        return searches;
     }
     
     private String enhanceSearch(String baseTopic) {
@@ -0,0 +1,419 @@
+package com.deivid22srk.microsoftrewards.utils;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * ✅ Validação de termos de pesquisa em uma única passada (Gemini e geradores offline)
+ * Mesmas regras das antigas expressões regulares (java.util.regex), sem regex nem
+ * toLowerCase(): remove marcadores do início ("1.", "-", "•"), apara espaços, percorre
+ * o texto uma vez (já em minúsculas, caractere a caractere) e procura as palavras de
+ * instrução e as palavras proibidas em uma tabela hash, palavra por palavra.
+ * Única diferença: como cada caractere vira minúsculo sozinho, um caractere cuja
+ * minúscula muda de tamanho (ex.: "İ" → "i̇") não esconde mais uma palavra de
+ * instrução ("LİSTE" agora é rejeitado).
+ * Devolve o termo limpo ou o motivo da rejeição. validate() e isValid() contam
+ * cada motivo (respostas do Gemini, ver GeminiMetrics); accepts() só decide, para
+ * os geradores offline não somarem às rejeições do Gemini.
+ */
+public final class SearchTermValidator {
+
+    private static final int MIN_LENGTH = 2;
+    private static final int MAX_LENGTH = 100;
+
+    // Palavras de instrução que vazam do prompt (proibidas mesmo dentro de outra palavra),
+    // procuradas pela última letra à medida que a palavra avança
+    private static final char[] GERE = "gere".toCharArray();
+    private static final char[] LISTE = "liste".toCharArray();
+    private static final char[] TERMOS = "termos".toCharArray();
+    private static final char[] PESQUISA = "pesquisa".toCharArray();
+
+    // Palavras inteiras proibidas (trechos do prompt: "um por linha", "responda apenas"...)
+    private static final String[] STOPWORDS = {
+        "um", "uma", "cada", "linha", "separada", "inclua", "responda", "apenas"
+    };
+
+    // Tabela hash aberta (potência de 2) comparando direto no buffer, sem criar Strings
+    private static final int TABLE_MASK = 31;
+    private static final int MAX_STOPWORD_LENGTH = 8;
+    private static final char[][] STOPWORD_TABLE = new char[TABLE_MASK + 1][];
+
+    static {
+        for (String stopword : STOPWORDS) {
+            char[] chars = stopword.toCharArray();
+            int slot = hash(chars) & TABLE_MASK;
+            while (STOPWORD_TABLE[slot] != null) {
+                slot = (slot + 1) & TABLE_MASK;
+            }
+            STOPWORD_TABLE[slot] = chars;
+        }
+    }
+
+    /**
+     * Motivo da rejeição, na ordem em que as regras são avaliadas
+     */
+    public enum Rejection {
+        EMPTY("vazio"),
+        TOO_SHORT("curto demais"),
+        TOO_LONG("longo demais"),
+        COLON("contém ':'"),
+        INSTRUCTION("palavra de instrução"),
+        STOPWORD("palavra proibida"),
+        DIGITS_ONLY("só números"),
+        LINE_BREAK("quebra de linha"),
+        NO_LETTER("sem letras");
+
+        private final String description;
+
+        Rejection(String description) {
+            this.description = description;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+    }
+
+    /**
+     * Termo limpo (se aceito) ou motivo da rejeição
+     */
+    public static final class Result {
+        private final String term;
+        private final Rejection rejection;
+
+        private Result(String term, Rejection rejection) {
+            this.term = term;
+            this.rejection = rejection;
+        }
+
+        public boolean isValid() {
+            return rejection == null;
+        }
+
+        /**
+         * Termo sem marcadores nem espaços nas pontas (null se rejeitado)
+         */
+        public String getTerm() {
+            return term;
+        }
+
+        public Rejection getRejection() {
+            return rejection;
+        }
+    }
+
+    private static final Rejection[] REJECTIONS = Rejection.values();
+    private static final AtomicLongArray REJECTION_COUNTS = new AtomicLongArray(REJECTIONS.length);
+
+    // Buffer em minúsculas por thread (termos válidos têm no máximo 100 caracteres)
+    private static final ThreadLocal<char[]> LOWER_BUFFER = new ThreadLocal<char[]>() {
+        @Override
+        protected char[] initialValue() {
+            return new char[MAX_LENGTH];
+        }
+    };
+
+    private SearchTermValidator() {
+    }
+
+    /**
+     * Valida e limpa um termo
+     */
+    public static Result validate(String raw) {
+        if (raw == null) {
+            return reject(Rejection.EMPTY);
+        }
+        int start = cleanStart(raw);
+        int end = cleanEnd(raw, start);
+        Rejection rejection = check(raw, start, end);
+        if (rejection != null) {
+            return reject(rejection);
+        }
+        return new Result(start == 0 && end == raw.length() ? raw : raw.substring(start, end), null);
+    }
+
+    /**
+     * Só a decisão, sem criar o termo limpo
+     */
+    public static boolean isValid(String raw) {
+        Rejection rejection = rejection(raw);
+        if (rejection != null) {
+            count(rejection);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Mesma decisão de isValid(), sem contar a rejeição (termos gerados localmente)
+     */
+    public static boolean accepts(String raw) {
+        return rejection(raw) == null;
+    }
+
+    /**
+     * Rejeições contadas desde o início do processo
+     */
+    public static long getRejectionCount(Rejection rejection) {
+        return REJECTION_COUNTS.get(rejection.ordinal());
+    }
+
+    /**
+     * Resumo das rejeições para o log (só os motivos que ocorreram)
+     */
+    public static String rejectionSummary() {
+        StringBuilder summary = new StringBuilder();
+        for (Rejection rejection : REJECTIONS) {
+            long count = REJECTION_COUNTS.get(rejection.ordinal());
+            if (count > 0) {
+                summary.append(summary.length() == 0 ? "" : ", ")
+                    .append(rejection.getDescription()).append('=').append(count);
+            }
+        }
+        return summary.length() == 0 ? "nenhuma" : summary.toString();
+    }
+
+    private static Rejection rejection(String raw) {
+        if (raw == null) {
+            return Rejection.EMPTY;
+        }
+        int start = cleanStart(raw);
+        return check(raw, start, cleanEnd(raw, start));
+    }
+
+    private static Result reject(Rejection rejection) {
+        count(rejection);
+        return new Result(null, rejection);
+    }
+
+    private static void count(Rejection rejection) {
+        REJECTION_COUNTS.incrementAndGet(rejection.ordinal());
+    }
+
+    /**
+     * Início do termo: pula marcadores de lista ("-", "*", "•", dígitos, "+", ".", espaços)
+     * e depois o que trim() removeria
+     */
+    private static int cleanStart(String raw) {
+        int length = raw.length();
+        int start = 0;
+        while (start < length && isMarker(raw.charAt(start))) {
+            start++;
+        }
+        while (start < length && raw.charAt(start) <= ' ') {
+            start++;
+        }
+        return start;
+    }
+
+    private static int cleanEnd(String raw, int start) {
+        int end = raw.length();
+        while (end > start && raw.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return end;
+    }
+
+    private static boolean isMarker(char c) {
+        switch (c) {
+            case '-':
+            case '*':
+            case '•':
+            case '+':
+            case '.':
+            case ' ':
+            case '\t':
+            case '\n':
+            case '\u000B':
+            case '\f':
+            case '\r':
+                return true;
+            default:
+                return c >= '0' && c <= '9';
+        }
+    }
+
+    /**
+     * Uma passada sobre o termo limpo; null se ele for aceito
+     */
+    private static Rejection check(String raw, int start, int end) {
+        int length = end - start;
+        if (length == 0) {
+            return Rejection.EMPTY;
+        }
+        if (length < MIN_LENGTH) {
+            return Rejection.TOO_SHORT;
+        }
+        if (length > MAX_LENGTH) {
+            return Rejection.TOO_LONG;
+        }
+
+        char[] lower = LOWER_BUFFER.get();
+        boolean colon = false;
+        boolean allDigits = true;
+        boolean lineBreak = false;
+        boolean letter = false;
+        boolean instruction = false;
+        boolean stopword = false;
+        boolean markBase = false;
+        int wordStart = -1;
+        int wordHash = 0;
+
+        for (int i = 0; i < length; i++) {
+            char c = raw.charAt(start + i);
+            char lowerChar;
+            boolean wordChar;
+            if (c < 0x80) {
+                lowerChar = c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+                if (lowerChar >= 'a' && lowerChar <= 'z') {
+                    letter = true;
+                    wordChar = true;
+                } else {
+                    wordChar = (c >= '0' && c <= '9') || c == '_';
+                    if (c == ':') {
+                        colon = true;
+                    } else if (c == '\n' || c == '\r') {
+                        lineBreak = true;
+                    }
+                }
+            } else {
+                lowerChar = Character.toLowerCase(c);
+                if (Character.isSurrogate(c)) {
+                    // Fora do BMP: as duas metades valem pelo caractere inteiro (letra ou não)
+                    wordChar = Character.isLetterOrDigit(Character.isHighSurrogate(c)
+                        ? raw.codePointAt(start + i) : raw.codePointBefore(start + i + 1));
+                } else {
+                    wordChar = isWordChar(c, markBase);
+                }
+                if (c >= 'À' && c <= 'ÿ') {
+                    letter = true;
+                } else if (c == '\u0085' || c == '\u2028' || c == '\u2029') {
+                    lineBreak = true;
+                }
+            }
+            if (c < '0' || c > '9') {
+                allDigits = false;
+            }
+            // Uma marca só é parte da palavra logo depois de letra ou dígito do BMP
+            // (ou de outra marca assim), como no \b de java.util.regex
+            markBase = wordChar && c != '_' && !Character.isSurrogate(c);
+            lower[i] = lowerChar;
+
+            // Dentro da palavra: hash incremental e trechos de instrução que terminam aqui;
+            // no fim dela, consulta à tabela de palavras proibidas
+            if (wordChar) {
+                if (wordStart < 0) {
+                    wordStart = i;
+                    wordHash = 0;
+                }
+                wordHash = 31 * wordHash + lowerChar;
+                if (!instruction && endsWithInstruction(lower, wordStart, i + 1)) {
+                    instruction = true;
+                }
+            } else if (wordStart >= 0) {
+                stopword |= isStopword(lower, wordStart, i, wordHash);
+                wordStart = -1;
+            }
+        }
+        if (wordStart >= 0) {
+            stopword |= isStopword(lower, wordStart, length, wordHash);
+        }
+
+        if (colon) {
+            return Rejection.COLON;
+        }
+        if (instruction) {
+            return Rejection.INSTRUCTION;
+        }
+        // A regra antiga (".*\b(...)\b.*") não atravessava quebras de linha
+        if (stopword && !lineBreak) {
+            return Rejection.STOPWORD;
+        }
+        if (allDigits) {
+            return Rejection.DIGITS_ONLY;
+        }
+        if (lineBreak) {
+            return Rejection.LINE_BREAK;
+        }
+        if (!letter) {
+            return Rejection.NO_LETTER;
+        }
+        return null;
+    }
+
+    /**
+     * Caracteres de palavra para \b, como em java.util.regex: letras, dígitos, "_" e
+     * acentos combinados (Mn) que seguem uma letra ou um dígito
+     */
+    private static boolean isWordChar(char c, boolean markBase) {
+        if (c < 0x80) {
+            return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+        }
+        if (Character.isLetterOrDigit(c)) {
+            return true;
+        }
+        return markBase && Character.getType(c) == Character.NON_SPACING_MARK;
+    }
+
+    /**
+     * Palavra inteira proibida? (hash já calculado durante a passada)
+     */
+    private static boolean isStopword(char[] chars, int from, int to, int wordHash) {
+        int length = to - from;
+        if (length < 2 || length > MAX_STOPWORD_LENGTH) {
+            return false;
+        }
+        int slot = mix(wordHash) & TABLE_MASK;
+        for (char[] candidate = STOPWORD_TABLE[slot]; candidate != null;
+             slot = (slot + 1) & TABLE_MASK, candidate = STOPWORD_TABLE[slot]) {
+            if (regionEquals(candidate, chars, from, length)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * O trecho da palavra até "to" termina em uma palavra de instrução?
+     */
+    private static boolean endsWithInstruction(char[] chars, int wordStart, int to) {
+        switch (chars[to - 1]) {
+            case 'e':
+                return endsWith(GERE, chars, wordStart, to) || endsWith(LISTE, chars, wordStart, to);
+            case 's':
+                return endsWith(TERMOS, chars, wordStart, to);
+            case 'a':
+                return endsWith(PESQUISA, chars, wordStart, to);
+            default:
+                return false;
+        }
+    }
+
+    private static boolean endsWith(char[] fragment, char[] chars, int wordStart, int to) {
+        int from = to - fragment.length;
+        return from >= wordStart && regionEquals(fragment, chars, from, fragment.length);
+    }
+
+    private static boolean regionEquals(char[] expected, char[] chars, int from, int length) {
+        if (expected.length != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (expected[i] != chars[from + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int hash(char[] chars) {
+        int hash = 0;
+        for (char c : chars) {
+            hash = 31 * hash + c;
+        }
+        return mix(hash);
+    }
+
+    private static int mix(int hash) {
+        return hash ^ (hash >>> 7);
+    }
+}
@@ -0,0 +1,109 @@
+package com.deivid22srk.microsoftrewards.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 🔗 Template de URL de pesquisa pré-compilado
+ * O template é dividido uma única vez em trechos literais e posições da pesquisa;
+ * cada URL é montada em um StringBuilder reaproveitado por thread.
+ *
+ * Sintaxe (compatível com os templates existentes): "%s" marca a pesquisa,
+ * "%%" vira "%" e qualquer outro "%" é mantido literalmente (antes, em
+ * templates personalizados, isso quebrava o String.format).
+ */
+public final class SearchUrlTemplate {
+
+    private static final int MAX_RETAINED_CAPACITY = 4096;
+
+    private static final ThreadLocal<StringBuilder> BUILDER = new ThreadLocal<StringBuilder>() {
+        @Override
+        protected StringBuilder initialValue() {
+            return new StringBuilder(256);
+        }
+    };
+
+    // null marca a posição onde a pesquisa codificada é inserida
+    private final String[] segments;
+    private final String source;
+
+    private SearchUrlTemplate(List<String> segments, String source) {
+        this.segments = segments.toArray(new String[0]);
+        this.source = source;
+    }
+
+    /**
+     * Compila um template no formato usado pelos motores de busca ("...q=%s...")
+     */
+    public static SearchUrlTemplate compile(String template) {
+        List<String> segments = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+
+        int length = template.length();
+        for (int i = 0; i < length; i++) {
+            char c = template.charAt(i);
+            char next = i + 1 < length ? template.charAt(i + 1) : 0;
+
+            if (c == '%' && next == 's') {
+                flushLiteral(segments, literal);
+                segments.add(null);
+                i++;
+            } else if (c == '%' && next == '%') {
+                literal.append('%');
+                i++;
+            } else {
+                literal.append(c);
+            }
+        }
+        flushLiteral(segments, literal);
+
+        return new SearchUrlTemplate(segments, template);
+    }
+
+    /**
+     * Template com a pesquisa entre dois trechos literais (nenhum caractere é interpretado)
+     */
+    public static SearchUrlTemplate around(String prefix, String suffix) {
+        List<String> segments = new ArrayList<>();
+        if (!prefix.isEmpty()) segments.add(prefix);
+        segments.add(null);
+        if (!suffix.isEmpty()) segments.add(suffix);
+
+        return new SearchUrlTemplate(segments, prefix + "%s" + suffix);
+    }
+
+    private static void flushLiteral(List<String> segments, StringBuilder literal) {
+        if (literal.length() > 0) {
+            segments.add(literal.toString());
+            literal.setLength(0);
+        }
+    }
+
+    /**
+     * Monta a URL com a pesquisa codificada (mesma codificação do URLEncoder em UTF-8)
+     */
+    public String build(String query) {
+        StringBuilder url = BUILDER.get();
+        url.setLength(0);
+
+        for (String segment : segments) {
+            if (segment == null) {
+                PercentEncoder.encode(query, url);
+            } else {
+                url.append(segment);
+            }
+        }
+
+        String result = url.toString();
+        if (url.capacity() > MAX_RETAINED_CAPACITY) {
+            // Não manter buffers enormes presos à thread depois de uma pesquisa atípica
+            BUILDER.remove();
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return source;
+    }
+}
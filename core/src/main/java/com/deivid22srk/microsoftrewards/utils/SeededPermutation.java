@@ -0,0 +1,74 @@
+package com.deivid22srk.microsoftrewards.utils;
+
+/**
+ * 🔀 Permutação pseudoaleatória de [0, size) definida por uma semente
+ * Rede de Feistel sobre o menor domínio de bits que cobre o tamanho, com
+ * "cycle walking" para cair dentro do intervalo. É uma bijeção: índices
+ * distintos sempre geram valores distintos, sem tabela e sem repetição.
+ */
+final class SeededPermutation {
+
+    private static final int ROUNDS = 4;
+
+    private final long size;
+    private final int halfBits;
+    private final long halfMask;
+    private final long[] roundKeys = new long[ROUNDS];
+
+    SeededPermutation(long size, long seed) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("size deve ser positivo: " + size);
+        }
+        this.size = size;
+
+        int bits = 64 - Long.numberOfLeadingZeros(Math.max(1, size - 1));
+        this.halfBits = Math.max(1, (bits + 1) / 2);
+        this.halfMask = (1L << halfBits) - 1;
+
+        long state = seed;
+        for (int i = 0; i < ROUNDS; i++) {
+            state += 0x9E3779B97F4A7C15L;
+            roundKeys[i] = mix(state);
+        }
+    }
+
+    long size() {
+        return size;
+    }
+
+    /**
+     * Valor na posição index (0 <= index < size)
+     */
+    long get(long index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index " + index + " fora de [0, " + size + ")");
+        }
+
+        // O domínio tem no máximo 4x o tamanho, então o laço termina rápido
+        long value = index;
+        do {
+            value = encrypt(value);
+        } while (value >= size);
+        return value;
+    }
+
+    private long encrypt(long value) {
+        long left = (value >>> halfBits) & halfMask;
+        long right = value & halfMask;
+
+        for (int round = 0; round < ROUNDS; round++) {
+            long next = left ^ (mix(right ^ roundKeys[round]) & halfMask);
+            left = right;
+            right = next;
+        }
+
+        return (left << halfBits) | right;
+    }
+
+    // Finalizador do SplitMix64
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,72 @@
+package com.deivid22srk.microsoftrewards.utils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 🪣 Limitador token bucket para a cota de requisições de uma chave de API
+ *
+ * Cada requisição consome uma ficha; as fichas voltam a uma taxa constante
+ * (requisições por minuto) até a capacidade, que é a rajada permitida.
+ * reserve() não bloqueia: devolve quanto esperar antes de enviar, e a ficha
+ * já fica reservada (o saldo pode ficar negativo, formando uma fila no tempo).
+ */
+public final class TokenBucket {
+
+    private final int capacity;
+    private final int requestsPerMinute;
+    private final double nanosPerToken;
+
+    private double tokens;
+    private long lastRefillNanos;
+    private long pausedUntilNanos;
+
+    public TokenBucket(int capacity, int requestsPerMinute) {
+        this.capacity = Math.max(1, capacity);
+        this.requestsPerMinute = Math.max(1, requestsPerMinute);
+        this.nanosPerToken = (double) TimeUnit.MINUTES.toNanos(1) / this.requestsPerMinute;
+        this.tokens = this.capacity;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int getRequestsPerMinute() {
+        return requestsPerMinute;
+    }
+
+    /**
+     * Reserva uma ficha; retorna a espera em milissegundos (0 = pode enviar já)
+     */
+    public synchronized long reserve() {
+        long now = System.nanoTime();
+        refill(now);
+        tokens -= 1;
+
+        long wait = tokens >= 0 ? 0 : (long) Math.ceil(-tokens * nanosPerToken);
+        wait = Math.max(wait, pausedUntilNanos - now);
+        return wait > 0 ? TimeUnit.NANOSECONDS.toMillis(wait + TimeUnit.MILLISECONDS.toNanos(1) - 1) : 0;
+    }
+
+    /**
+     * A API recusou por cota (429): ninguém envia antes do prazo informado
+     */
+    public synchronized void pauseFor(long delayMs) {
+        long now = System.nanoTime();
+        pausedUntilNanos = Math.max(pausedUntilNanos, now + TimeUnit.MILLISECONDS.toNanos(delayMs));
+    }
+
+    private void refill(long now) {
+        long elapsed = now - lastRefillNanos;
+        if (elapsed > 0) {
+            tokens = Math.min(capacity, tokens + elapsed / nanosPerToken);
+            lastRefillNanos = now;
+        }
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "TokenBucket{" + requestsPerMinute + "/min, rajada " + capacity + "}";
+    }
+}
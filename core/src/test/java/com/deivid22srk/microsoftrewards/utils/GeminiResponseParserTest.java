@@ -0,0 +1,21 @@
+package com.deivid22srk.microsoftrewards.utils;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * 🧾 GeminiResponseParser com respostas de erro da API
+ */
+public class GeminiResponseParserTest {
+
+    @Test
+    public void retryDelayIsReadFromRetryInfo() {
+        String body = "{\"error\": {\"code\": 429, \"details\": ["
+            + "{\"@type\": \"type.googleapis.com/google.rpc.QuotaFailure\"},"
+            + "{\"@type\": \"type.googleapis.com/google.rpc.RetryInfo\", \"retryDelay\": \"17.5s\"}]}}";
+        assertEquals(17500, GeminiResponseParser.retryDelayMs(body));
+        assertEquals(-1, GeminiResponseParser.retryDelayMs("{\"error\": {\"code\": 429}}"));
+        assertEquals(-1, GeminiResponseParser.retryDelayMs("não é json"));
+    }
+}
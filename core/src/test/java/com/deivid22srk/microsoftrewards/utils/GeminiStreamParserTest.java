@@ -0,0 +1,174 @@
+package com.deivid22srk.microsoftrewards.utils;
+
+import com.deivid22srk.microsoftrewards.model.SearchItem;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 🌊 GeminiStreamParser com eventos no formato do streamGenerateContent?alt=sse
+ */
+public class GeminiStreamParserTest {
+
+    private final List<SearchItem> items = new ArrayList<>();
+    private final GeminiStreamParser parser = new GeminiStreamParser(items::add);
+
+    @Test
+    public void extractsValidTermsInOrder() throws JSONException {
+        feed(event("[\"receitas de bolo de cenoura\", \"melhores séries de 2025\", "
+            + "\"como investir em tesouro direto\"]", "STOP"));
+
+        assertEquals(3, items.size());
+        assertEquals("receitas de bolo de cenoura", items.get(0).getSearchText());
+        assertEquals("como investir em tesouro direto", items.get(2).getSearchText());
+        assertEquals(3, items.get(2).getIndex());
+    }
+
+    @Test
+    public void dropsPromptEchoesAndStripsListMarkers() throws JSONException {
+        feed(event("[\"Aqui estão os termos de pesquisa:\", \"1. receitas de bolo\", \"- previsão do tempo\", "
+            + "\"responda apenas com uma linha\", \"2024\", \"• dicas de jardinagem\"]", "STOP"));
+
+        assertEquals(3, items.size());
+        assertEquals("receitas de bolo", items.get(0).getSearchText());
+        assertEquals("previsão do tempo", items.get(1).getSearchText());
+        assertEquals("dicas de jardinagem", items.get(2).getSearchText());
+        assertEquals(3, parser.getRejected());
+    }
+
+    @Test
+    public void blockedResponseEmitsNothing() throws JSONException {
+        feed("data: {\"candidates\": [{\"finishReason\": \"SAFETY\", \"index\": 0}]}");
+
+        assertTrue(parser.isBlocked());
+        assertEquals(0, parser.getEmitted());
+        assertTrue(items.isEmpty());
+    }
+
+    @Test
+    public void apiErrorIsThrown() throws JSONException {
+        try {
+            feed("data: {\"error\": {\"code\": 400, \"message\": \"API key not valid\"}}");
+            fail("Erro da API deveria ser lançado");
+        } catch (RuntimeException e) {
+            assertEquals("Erro da API Gemini: API key not valid", e.getMessage());
+        }
+    }
+
+    @Test
+    public void stringsSplitAcrossEventsAreJoined() throws JSONException {
+        feed(
+            event("[\"receitas de ", null),
+            event("bolo\", \"previsão", null),
+            ": comment",
+            "",
+            event(" do tempo\"", null),
+            event("]", "STOP"),
+            "data: [DONE]");
+
+        assertEquals(2, items.size());
+        assertEquals("receitas de bolo", items.get(0).getSearchText());
+        assertEquals("previsão do tempo", items.get(1).getSearchText());
+    }
+
+    @Test
+    public void escapesAreDecoded() throws JSONException {
+        feed(event("[\"filme \\\"central do brasil\\\"\", \"barra \\\\ invertida\", "
+            + "\"caf\\u00e9 com leite\", \"bolo de anivers\\u00E1rio \\ud83c\\udf82\", "
+            + "\"receita\\nde p\\u00e3o\"]", "STOP"));
+
+        assertEquals(5, items.size());
+        assertEquals("filme \"central do brasil\"", items.get(0).getSearchText());
+        assertEquals("barra \\ invertida", items.get(1).getSearchText());
+        assertEquals("café com leite", items.get(2).getSearchText());
+        assertEquals("bolo de aniversário \uD83C\uDF82", items.get(3).getSearchText());
+        assertEquals("receita de pão", items.get(4).getSearchText());
+    }
+
+    @Test
+    public void escapesSplitAcrossEventsAreDecoded() throws JSONException {
+        feed(
+            event("[\"caf\\", null),
+            event("u00", null),
+            event("e9 gelado\", \"bolo \\ud83c", null),
+            event("\\udf82 de chocolate\", \"\\", null),
+            event("\"aspas\\\" soltas\"]", "STOP"));
+
+        assertEquals(3, items.size());
+        assertEquals("café gelado", items.get(0).getSearchText());
+        assertEquals("bolo \uD83C\uDF82 de chocolate", items.get(1).getSearchText());
+        assertEquals("\"aspas\" soltas", items.get(2).getSearchText());
+    }
+
+    @Test
+    public void maxTokensDropsTheOpenStringAndKeepsTheCompletedOnes() throws JSONException {
+        feed(
+            event("[\"receitas de bolo\", \"dicas de jardinagem\", \"previsão", null),
+            event(" do te", "MAX_TOKENS"));
+
+        assertTrue(parser.isTruncated());
+        assertEquals(2, items.size());
+        assertEquals("dicas de jardinagem", items.get(1).getSearchText());
+    }
+
+    @Test
+    public void streamEndingWithoutFinishReasonDropsTheOpenString() throws JSONException {
+        feed(event("[\"receitas de bolo\", \"previsão do", null));
+
+        assertNull(parser.getFinishReason());
+        assertEquals(1, items.size());
+    }
+
+    @Test
+    public void eventsAfterTheFinishReasonAreIgnored() throws JSONException {
+        feed(
+            event("[\"receitas de bolo\"]", "STOP"),
+            event("[\"previsão do tempo\"]", null));
+
+        assertEquals(1, items.size());
+    }
+
+    @Test
+    public void errorEventMidStreamKeepsTheTermsAlreadyDelivered() throws JSONException {
+        parser.onSseLine(event("[\"receitas de bolo\", \"previsão", null));
+        try {
+            parser.onSseLine("data: {\"error\": {\"code\": 503, \"message\": \"The model is overloaded\"}}");
+            fail("Erro da API deveria ser lançado");
+        } catch (RuntimeException e) {
+            assertEquals("Erro da API Gemini: The model is overloaded", e.getMessage());
+        }
+
+        assertEquals(1, items.size());
+        assertEquals("receitas de bolo", items.get(0).getSearchText());
+    }
+
+    private void feed(String... sseLines) throws JSONException {
+        for (String line : sseLines) {
+            parser.onSseLine(line);
+        }
+        parser.finish();
+    }
+
+    /**
+     * Linha "data:" com um pedaço do texto gerado (finishReason null nos eventos intermediários)
+     */
+    private static String event(String text, String finishReason) throws JSONException {
+        JSONObject part = new JSONObject().put("text", text);
+        JSONObject content = new JSONObject().put("parts", new JSONArray().put(part));
+        JSONObject candidate = new JSONObject().put("content", content);
+        if (finishReason != null) {
+            candidate.put("finishReason", finishReason);
+        }
+        return "data: " + new JSONObject().put("candidates", new JSONArray().put(candidate));
+    }
+}
@@ -0,0 +1,158 @@
+package com.deivid22srk.microsoftrewards.utils;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 🏦 QueryPool sobre um arquivo temporário: gravação, consumo, recarga do disco,
+ * compactação, registro final incompleto e validade
+ */
+public class QueryPoolTest {
+
+    private static final int HEADER_SIZE = 16;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void addAllSkipsBlankAndRepeatedQueries() throws IOException {
+        QueryPool pool = QueryPool.open(folder.newFile("pool.bin"));
+
+        assertEquals(2, pool.addAll(Arrays.asList("receitas de bolo", "  ", null, "Previsão do tempo")));
+        assertEquals(1, pool.addAll(Arrays.asList("RECEITAS DE BOLO", "dicas de jardinagem")));
+        assertEquals(3, pool.size());
+    }
+
+    @Test
+    public void takeReturnsOldestFirst() throws IOException {
+        QueryPool pool = QueryPool.open(folder.newFile("pool.bin"));
+        pool.addAll(Arrays.asList("a1 receita", "a2 filme", "a3 série", "a4 viagem"));
+
+        assertEquals(Arrays.asList("a1 receita", "a2 filme"), pool.take(2));
+        assertEquals(Arrays.asList("a3 série", "a4 viagem"), pool.take(10));
+        assertTrue(pool.take(1).isEmpty());
+    }
+
+    @Test
+    public void reloadResumesAfterTheConsumedRecords() throws IOException {
+        File file = folder.newFile("pool.bin");
+        QueryPool pool = QueryPool.open(file);
+        pool.addAll(Arrays.asList("receitas de bolo", "previsão do tempo", "dicas de jardinagem"));
+        pool.take(1);
+
+        QueryPool reloaded = QueryPool.open(file);
+        assertEquals(2, reloaded.size());
+        assertEquals(Arrays.asList("previsão do tempo", "dicas de jardinagem"), reloaded.take(5));
+        assertEquals(0, QueryPool.open(file).size());
+    }
+
+    @Test
+    public void tornTailIsDroppedAndTruncated() throws IOException {
+        File file = folder.newFile("pool.bin");
+        QueryPool.open(file).addAll(Arrays.asList("receitas de bolo", "previsão do tempo"));
+        long complete = file.length();
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            // Gravação interrompida: só parte do terceiro registro chegou ao disco
+            raf.seek(complete);
+            raf.writeInt(minuteOf(System.currentTimeMillis()));
+            raf.writeShort(30);
+            raf.write("dicas".getBytes(StandardCharsets.UTF_8));
+        }
+
+        QueryPool reloaded = QueryPool.open(file);
+        assertEquals(2, reloaded.size());
+        assertEquals(complete, file.length());
+        assertEquals(1, reloaded.addAll(Arrays.asList("dicas de jardinagem")));
+        assertEquals(Arrays.asList("receitas de bolo", "previsão do tempo", "dicas de jardinagem"),
+            QueryPool.open(file).take(5));
+    }
+
+    @Test
+    public void compactionRewritesOnlyTheUnconsumedRecords() throws IOException {
+        File file = folder.newFile("pool.bin");
+        QueryPool pool = QueryPool.open(file);
+        List<String> queries = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            queries.add(String.format("pesquisa número %03d sobre um assunto qualquer", i));
+        }
+        pool.addAll(queries);
+        long fullLength = file.length();
+
+        pool.take(300);
+
+        assertTrue(file.length() < fullLength / 2);
+        assertEquals(HEADER_SIZE, readHead(file));
+        QueryPool reloaded = QueryPool.open(file);
+        assertEquals(100, reloaded.size());
+        assertEquals(queries.get(300), reloaded.take(1).get(0));
+    }
+
+    @Test
+    public void expiredRecordsAreDiscardedOnLoad() throws IOException {
+        File file = folder.newFile("pool.bin");
+        long now = System.currentTimeMillis();
+        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(file))) {
+            writeHeader(out, HEADER_SIZE);
+            writeRecord(out, minuteOf(now - QueryPool.MAX_AGE_MS - TimeUnit.HOURS.toMillis(1)), "pesquisa vencida");
+            writeRecord(out, minuteOf(now - TimeUnit.HOURS.toMillis(1)), "pesquisa recente");
+        }
+
+        QueryPool pool = QueryPool.open(file);
+        assertEquals(1, pool.size());
+        assertEquals(Arrays.asList("pesquisa recente"), pool.take(5));
+    }
+
+    @Test
+    public void unknownFormatIsRecreated() throws IOException {
+        File file = folder.newFile("pool.bin");
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write("não é uma reserva, só texto qualquer".getBytes(StandardCharsets.UTF_8));
+        }
+
+        QueryPool pool = QueryPool.open(file);
+        assertEquals(0, pool.size());
+        assertEquals(HEADER_SIZE, file.length());
+        assertEquals(1, pool.addAll(Arrays.asList("receitas de bolo")));
+        assertEquals(1, QueryPool.open(file).size());
+    }
+
+    private static int minuteOf(long timeMs) {
+        return (int) TimeUnit.MILLISECONDS.toMinutes(timeMs);
+    }
+
+    private static long readHead(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            raf.seek(8);
+            return raf.readLong();
+        }
+    }
+
+    private static void writeHeader(DataOutputStream out, long head) throws IOException {
+        out.writeInt(0x4D525150);
+        out.writeShort(1);
+        out.writeShort(0);
+        out.writeLong(head);
+    }
+
+    private static void writeRecord(DataOutputStream out, int createdMinute, String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(createdMinute);
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+}
@@ -0,0 +1,112 @@
+package com.deivid22srk.microsoftrewards.utils;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * ✅ Regras do SearchTermValidator e contagem das rejeições
+ */
+public class SearchTermValidatorTest {
+
+    @Test
+    public void stripsListMarkersAndSpaces() {
+        SearchTermValidator.Result result = SearchTermValidator.validate("  12. receitas de bolo  ");
+
+        assertTrue(result.isValid());
+        assertEquals("receitas de bolo", result.getTerm());
+    }
+
+    @Test
+    public void reportsTheFirstBrokenRule() {
+        assertEquals(SearchTermValidator.Rejection.EMPTY, SearchTermValidator.validate(" - ").getRejection());
+        assertEquals(SearchTermValidator.Rejection.TOO_SHORT, SearchTermValidator.validate("a").getRejection());
+        assertEquals(SearchTermValidator.Rejection.COLON, SearchTermValidator.validate("termo: valor").getRejection());
+        assertEquals(SearchTermValidator.Rejection.INSTRUCTION, SearchTermValidator.validate("liste filmes").getRejection());
+        assertEquals(SearchTermValidator.Rejection.STOPWORD, SearchTermValidator.validate("apenas filmes").getRejection());
+        assertEquals(SearchTermValidator.Rejection.NO_LETTER, SearchTermValidator.validate("#$ %&").getRejection());
+        assertNull(SearchTermValidator.validate("previsão do tempo").getRejection());
+    }
+
+    @Test
+    public void verticalTabAndFormFeedAreNotLineBreaks() {
+        // "." das expressões antigas aceitava \u000B e \f; só \n, \r, \u0085, \u2028 e \u2029 quebram linha
+        assertTrue(SearchTermValidator.accepts("bolo\u000Bbolo"));
+        assertEquals(SearchTermValidator.Rejection.STOPWORD, SearchTermValidator.validate("x\fcada").getRejection());
+        assertEquals(SearchTermValidator.Rejection.LINE_BREAK, SearchTermValidator.validate("bolo\nbolo").getRejection());
+    }
+
+    @Test
+    public void wordBoundariesFollowJavaRegex() {
+        // Acento combinado sem letra antes não faz parte da palavra; letra fora do BMP faz
+        assertFalse(SearchTermValidator.accepts("\u0301um bolo"));
+        assertTrue(SearchTermValidator.accepts("bolo\uD835\uDC00cada"));
+        // Única diferença conhecida: "İ" vira minúsculo sozinho
+        assertFalse(SearchTermValidator.accepts("LİSTE de filmes"));
+    }
+
+    @Test
+    public void agreesWithTheOldRegularExpressions() {
+        String[] atoms = {
+            "a", "x", "É", "ç", "é", "Ω", "K", "\u212A", "bolo", "cada", "uma", "um", "UM", "CADA",
+            "liste", "gere", "TERMOS", " ", "\t", "\n", "\r", "\u000B", "\f", "\u0085", "\u2028", "\u00A0",
+            "-", "*", "•", "1", "2", "٣", ".", "+", ":", "_", "\u0301", "\u20DD", "\u203F", "\u0903",
+            "\u00AD", "\uD83D\uDE00", "\uD835\uDC00", "\u0001", "\u0000"
+        };
+        Random random = new Random(20261017L);
+        for (int i = 0; i < 200_000; i++) {
+            StringBuilder term = new StringBuilder();
+            for (int parts = 1 + random.nextInt(6); parts > 0; parts--) {
+                term.append(atoms[random.nextInt(atoms.length)]);
+            }
+            String raw = term.toString();
+            assertEquals(raw, regexIsValid(raw), SearchTermValidator.accepts(raw));
+        }
+    }
+
+    @Test
+    public void acceptsDecidesLikeIsValid() {
+        String[] terms = {"receitas de bolo", "liste filmes", "uma linha", "x", "2024 ano", "café: preço", null};
+        for (String term : terms) {
+            assertEquals(term, SearchTermValidator.isValid(term), SearchTermValidator.accepts(term));
+        }
+    }
+
+    @Test
+    public void acceptsDoesNotCountRejections() {
+        long before = SearchTermValidator.getRejectionCount(SearchTermValidator.Rejection.STOPWORD);
+
+        assertFalse(SearchTermValidator.accepts("responda apenas"));
+        assertEquals(before, SearchTermValidator.getRejectionCount(SearchTermValidator.Rejection.STOPWORD));
+
+        assertFalse(SearchTermValidator.isValid("responda apenas"));
+        assertEquals(before + 1, SearchTermValidator.getRejectionCount(SearchTermValidator.Rejection.STOPWORD));
+    }
+
+    /**
+     * Referência: a implementação anterior (replaceAll, toLowerCase() a cada regra e matches)
+     */
+    private static boolean regexIsValid(String term) {
+        if (term == null || term.isEmpty()) {
+            return false;
+        }
+
+        term = term.replaceAll("^[-*•\\d+\\.\\s]+", "").trim();
+
+        return term.length() >= 2 &&
+               term.length() <= 100 &&
+               !term.contains(":") &&
+               !term.toLowerCase().contains("gere") &&
+               !term.toLowerCase().contains("liste") &&
+               !term.toLowerCase().contains("termos") &&
+               !term.toLowerCase().contains("pesquisa") &&
+               !term.toLowerCase().matches(".*\\b(um|uma|cada|linha|separada|inclua|responda|apenas)\\b.*") &&
+               !term.matches("^\\d+$") &&
+               term.matches(".*[a-zA-ZÀ-ÿ]+.*");
+    }
+}
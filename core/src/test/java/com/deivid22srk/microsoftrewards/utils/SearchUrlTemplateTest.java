@@ -0,0 +1,115 @@
+package com.deivid22srk.microsoftrewards.utils;
+
+import org.junit.Test;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * 🔗 SearchUrlTemplate/PercentEncoder contra a implementação anterior
+ * (String.format + URLEncoder.encode em UTF-8) sobre um corpus grande de pesquisas
+ */
+public class SearchUrlTemplateTest {
+
+    private static final int CORPUS_SIZE = 50_000;
+    private static final long SEED = 20261017L;
+
+    // Templates embutidos em AppConfig.SearchEngine (o Bing com os parâmetros padrão)
+    private static final String BING_PREFIX = "https://www.bing.com/search?q=";
+    private static final String BING_PC = "U316";
+    private static final String BING_FORM = "CHROMN";
+    private static final String GOOGLE = "https://www.google.com/search?q=%s";
+    private static final String DUCKDUCKGO = "https://duckduckgo.com/?q=%s";
+
+    // Template personalizado com "%" literal (escrito "%%", como o String.format exigia)
+    private static final String CUSTOM = "https://busca.exemplo.com/?q=%s&desconto=100%%&lang=pt";
+
+    @Test
+    public void bingMatchesFormatAndUrlEncoder() throws UnsupportedEncodingException {
+        // Mesma construção da ConfigSnapshot: parâmetros inseridos como texto literal
+        SearchUrlTemplate template = SearchUrlTemplate.around(BING_PREFIX, "&PC=" + BING_PC + "&FORM=" + BING_FORM);
+        String legacyTemplate = String.format("https://www.bing.com/search?q=%%s&PC=%s&FORM=%s", BING_PC, BING_FORM);
+        assertCorpusMatches(template, legacyTemplate);
+    }
+
+    @Test
+    public void googleMatchesFormatAndUrlEncoder() throws UnsupportedEncodingException {
+        assertCorpusMatches(SearchUrlTemplate.compile(GOOGLE), GOOGLE);
+    }
+
+    @Test
+    public void duckDuckGoMatchesFormatAndUrlEncoder() throws UnsupportedEncodingException {
+        assertCorpusMatches(SearchUrlTemplate.compile(DUCKDUCKGO), DUCKDUCKGO);
+    }
+
+    @Test
+    public void customTemplateWithLiteralPercentMatchesFormatAndUrlEncoder() throws UnsupportedEncodingException {
+        assertCorpusMatches(SearchUrlTemplate.compile(CUSTOM), CUSTOM);
+    }
+
+    @Test
+    public void unescapedPercentInCustomTemplateIsKeptLiterally() {
+        // Antes o String.format lançava exceção com este template; agora o "%" fica como está
+        SearchUrlTemplate template = SearchUrlTemplate.compile("https://busca.exemplo.com/?q=%s&desconto=50%");
+        assertEquals("https://busca.exemplo.com/?q=caf%C3%A9+com+leite&desconto=50%",
+                     template.build("café com leite"));
+    }
+
+    @Test
+    public void percentEncoderMatchesUrlEncoder() throws UnsupportedEncodingException {
+        Random random = new Random(SEED);
+        StringBuilder out = new StringBuilder();
+        for (int i = 0; i < CORPUS_SIZE; i++) {
+            String query = randomQuery(random);
+            out.setLength(0);
+            PercentEncoder.encode(query, out);
+            assertEquals("pesquisa #" + i + ": " + describe(query), URLEncoder.encode(query, "UTF-8"), out.toString());
+        }
+    }
+
+    private static void assertCorpusMatches(SearchUrlTemplate template, String legacyTemplate)
+            throws UnsupportedEncodingException {
+        Random random = new Random(SEED);
+        for (int i = 0; i < CORPUS_SIZE; i++) {
+            String query = randomQuery(random);
+            String expected = String.format(legacyTemplate, URLEncoder.encode(query, "UTF-8"));
+            assertEquals("pesquisa #" + i + ": " + describe(query), expected, template.build(query));
+        }
+    }
+
+    /**
+     * Pesquisa aleatória: ASCII (incluindo reservados e "%"), acentos, BMP, emoji e
+     * surrogates sem par; de vez em quando bem longa, para passar do buffer retido
+     */
+    private static String randomQuery(Random random) {
+        int length = random.nextInt(200) == 0 ? 1000 + random.nextInt(4000) : random.nextInt(40);
+        StringBuilder query = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            int kind = random.nextInt(10);
+            if (kind < 5) {
+                query.append((char) (0x20 + random.nextInt(0x5F)));
+            } else if (kind < 7) {
+                query.append((char) (0xA0 + random.nextInt(0x60)));
+            } else if (kind < 8) {
+                query.append((char) (0x100 + random.nextInt(0xD700)));
+            } else if (kind < 9) {
+                query.appendCodePoint(0x1F300 + random.nextInt(0x300));
+            } else {
+                // Surrogate isolado (alto ou baixo)
+                query.append((char) (0xD800 + random.nextInt(0x800)));
+            }
+        }
+        return query.toString();
+    }
+
+    private static String describe(String query) {
+        StringBuilder codes = new StringBuilder();
+        for (int i = 0; i < Math.min(query.length(), 40); i++) {
+            codes.append(String.format("\\u%04X", (int) query.charAt(i)));
+        }
+        return codes.toString();
+    }
+}
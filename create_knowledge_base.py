@@ -0,0 +1,83 @@
+#!/usr/bin/env python3
+"""
+Gera o asset binário da base de conhecimento a partir de knowledge_base/knowledge_base.json.
+
+Formato (big-endian), lido por KnowledgeBase.java:
+  magic        4 bytes  "MRKB"
+  version      u16
+  stringCount  u32
+  sectionCount u32
+  entryCount   u32
+  stringOffsets u32[stringCount + 1]  (offsets em stringData; o último marca o fim)
+  sections     sectionCount x (u32 nameId, u32 firstEntry, u32 entryCount)
+  entries      u32[entryCount]        (ids na tabela de strings)
+  stringData   bytes UTF-8
+
+Cada string aparece uma única vez na tabela, mesmo que esteja em várias seções.
+As seções se chamam "<grupo>/<nome>", por exemplo "smart/AI_TECH".
+"""
+import json
+import os
+import struct
+
+MAGIC = b"MRKB"
+FORMAT_VERSION = 1
+
+base_dir = os.path.dirname(os.path.abspath(__file__))
+source_path = os.path.join(base_dir, "knowledge_base", "knowledge_base.json")
+output_path = os.path.join(base_dir, "app", "src", "main", "assets", "knowledge_base.bin")
+
+
+def build(source):
+    strings = []
+    string_ids = {}
+
+    def intern(value):
+        if value not in string_ids:
+            string_ids[value] = len(strings)
+            strings.append(value)
+        return string_ids[value]
+
+    sections = []
+    entries = []
+    for group, group_sections in source["groups"].items():
+        for name, values in group_sections.items():
+            name_id = intern(f"{group}/{name}")
+            first = len(entries)
+            # Entradas repetidas dentro da mesma seção são descartadas
+            seen = set()
+            for value in values:
+                if value not in seen:
+                    seen.add(value)
+                    entries.append(intern(value))
+            sections.append((name_id, first, len(entries) - first))
+
+    data = bytearray()
+    offsets = []
+    for value in strings:
+        offsets.append(len(data))
+        data += value.encode("utf-8")
+    offsets.append(len(data))
+
+    out = bytearray()
+    out += MAGIC
+    out += struct.pack(">HIII", FORMAT_VERSION, len(strings), len(sections), len(entries))
+    out += struct.pack(f">{len(offsets)}I", *offsets)
+    for section in sections:
+        out += struct.pack(">III", *section)
+    out += struct.pack(f">{len(entries)}I", *entries)
+    out += data
+    return bytes(out), len(strings), len(sections), len(entries)
+
+
+with open(source_path, encoding="utf-8") as f:
+    source = json.load(f)
+
+blob, string_count, section_count, entry_count = build(source)
+
+os.makedirs(os.path.dirname(output_path), exist_ok=True)
+with open(output_path, "wb") as f:
+    f.write(blob)
+
+print(f"Created knowledge base: {output_path}")
+print(f"{section_count} sections, {entry_count} entries, {string_count} unique strings, {len(blob)} bytes")